@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2010-2025 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import com.restfb.batch.BatchRequest;
+import com.restfb.batch.BatchResponse;
+import com.restfb.exception.FacebookException;
+
+/**
+ * Non-blocking counterpart of the {@link FacebookClient} for the most common Graph API operations.
+ * <p>
+ * Every method returns immediately with a {@link CompletableFuture}. The future is completed with the mapped result or
+ * exceptionally with a {@link FacebookException}, exactly the exception the blocking {@link FacebookClient} method
+ * would throw. Whether the HTTP request itself blocks a thread depends on the asynchronous methods of the used
+ * {@link WebRequestor}.
+ * <p>
+ * Invalid arguments are still reported immediately by throwing an exception.
+ */
+public interface AsyncFacebookClient {
+
+  /**
+   * Fetches a single <a href="http://developers.facebook.com/docs/reference/api/">Graph API object</a>, mapping the
+   * result to an instance of {@code objectType}.
+   *
+   * @param <T>
+   *          Java type to map to.
+   * @param object
+   *          ID of the object to fetch, e.g. {@code "me"}.
+   * @param objectType
+   *          Object type token.
+   * @param parameters
+   *          URL parameters to include in the API call (optional).
+   * @return future completed with an instance of type {@code objectType} which contains the requested object's data.
+   * @see FacebookClient#fetchObject(String, Class, Parameter...)
+   */
+  <T> CompletableFuture<T> fetchObject(String object, Class<T> objectType, Parameter... parameters);
+
+  /**
+   * Fetches a Graph API {@code Connection} type, mapping the result to an instance of {@code connectionType}.
+   * <p>
+   * Further pages are fetched with the blocking {@link FacebookClient} when the returned {@link Connection} is
+   * iterated, use {@link #fetchConnectionPage(String, Class)} to fetch them asynchronously.
+   *
+   * @param <T>
+   *          Java type to map to.
+   * @param connection
+   *          The name of the connection, e.g. {@code "me/feed"}.
+   * @param connectionType
+   *          Connection type token.
+   * @param parameters
+   *          URL parameters to include in the API call (optional).
+   * @return future completed with an instance of type {@code connectionType} which contains the requested
+   *         Connection's data.
+   * @see FacebookClient#fetchConnection(String, Class, Parameter...)
+   */
+  <T> CompletableFuture<Connection<T>> fetchConnection(String connection, Class<T> connectionType,
+      Parameter... parameters);
+
+  /**
+   * Fetches a previous/next page of a Graph API {@code Connection} type, mapping the result to an instance of
+   * {@code connectionType}.
+   *
+   * @param <T>
+   *          Java type to map to.
+   * @param connectionPageUrl
+   *          The URL of the connection page to fetch, usually retrieved via {@link Connection#getPreviousPageUrl()} or
+   *          {@link Connection#getNextPageUrl()}.
+   * @param connectionType
+   *          Connection type token.
+   * @return future completed with an instance of type {@code connectionType} which contains the requested
+   *         Connection's data.
+   * @see FacebookClient#fetchConnectionPage(String, Class)
+   */
+  <T> CompletableFuture<Connection<T>> fetchConnectionPage(String connectionPageUrl, Class<T> connectionType);
+
+  /**
+   * Performs a <a href="http://developers.facebook.com/docs/api#publishing">Graph API publish</a> operation on the
+   * given {@code connection}, mapping the result to an instance of {@code objectType}.
+   *
+   * @param <T>
+   *          Java type to map to.
+   * @param connection
+   *          The Connection to publish to.
+   * @param objectType
+   *          Object type token.
+   * @param parameters
+   *          URL parameters to include in the API call.
+   * @return future completed with an instance of type {@code objectType} which contains the Facebook response to
+   *         your publish request.
+   * @see FacebookClient#publish(String, Class, Parameter...)
+   */
+  <T> CompletableFuture<T> publish(String connection, Class<T> objectType, Parameter... parameters);
+
+  /**
+   * Performs a <a href="http://developers.facebook.com/docs/api#publishing">Graph API publish</a> operation on the
+   * given {@code connection} and includes some files - photos, for example - in the publish request, and mapping the
+   * result to an instance of {@code objectType}.
+   *
+   * @param <T>
+   *          Java type to map to.
+   * @param connection
+   *          The Connection to publish to.
+   * @param objectType
+   *          Object type token.
+   * @param binaryAttachments
+   *          The files to include in the publish request.
+   * @param parameters
+   *          URL parameters to include in the API call.
+   * @return future completed with an instance of type {@code objectType} which contains the Facebook response to
+   *         your publish request.
+   * @see FacebookClient#publish(String, Class, List, Parameter...)
+   */
+  <T> CompletableFuture<T> publish(String connection, Class<T> objectType, List<BinaryAttachment> binaryAttachments,
+      Parameter... parameters);
+
+  /**
+   * Performs a <a href="http://developers.facebook.com/docs/api#publishing">Graph API publish</a> operation on the
+   * given {@code connection} and sends the given {@code body} as JSON, mapping the result to an instance of
+   * {@code objectType}.
+   *
+   * @param <T>
+   *          Java type to map to.
+   * @param connection
+   *          The Connection to publish to.
+   * @param objectType
+   *          Object type token.
+   * @param body
+   *          The body used in the POST request.
+   * @param parameters
+   *          URL parameters to include in the API call.
+   * @return future completed with an instance of type {@code objectType} which contains the Facebook response to
+   *         your publish request.
+   * @see FacebookClient#publish(String, Class, Body, Parameter...)
+   */
+  <T> CompletableFuture<T> publish(String connection, Class<T> objectType, Body body, Parameter... parameters);
+
+  /**
+   * Executes operations as a batch using the <a href="https://developers.facebook.com/docs/reference/api/batch/">Batch
+   * API</a>.
+   *
+   * @param batchRequests
+   *          The operations to execute.
+   * @return future completed with the execution results in the order in which the requests were specified.
+   * @see FacebookClient#executeBatch(List)
+   */
+  CompletableFuture<List<BatchResponse>> executeBatch(List<BatchRequest> batchRequests);
+
+  /**
+   * Executes operations as a batch with binary attachments using the
+   * <a href="https://developers.facebook.com/docs/reference/api/batch/">Batch API</a>.
+   *
+   * @param batchRequests
+   *          The operations to execute.
+   * @param binaryAttachments
+   *          Binary attachments referenced by the batch requests.
+   * @return future completed with the execution results in the order in which the requests were specified.
+   * @see FacebookClient#executeBatch(List, List)
+   */
+  CompletableFuture<List<BatchResponse>> executeBatch(List<BatchRequest> batchRequests,
+      List<BinaryAttachment> binaryAttachments);
+
+  /**
+   * Performs a <a href="http://developers.facebook.com/docs/api#deleting">Graph API delete</a> operation on the given
+   * {@code object}.
+   *
+   * @param object
+   *          The ID of the object to delete.
+   * @param parameters
+   *          URL parameters to include in the API call.
+   * @return future completed with {@code true} if Facebook indicated that the object was successfully deleted,
+   *         {@code false} otherwise.
+   * @see FacebookClient#deleteObject(String, Parameter...)
+   */
+  CompletableFuture<Boolean> deleteObject(String object, Parameter... parameters);
+}
@@ -0,0 +1,277 @@
+/*
+ * Copyright (c) 2010-2025 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static com.restfb.util.ObjectUtil.verifyParameterPresence;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.restfb.batch.BatchRequest;
+import com.restfb.batch.BatchResponse;
+import com.restfb.exception.FacebookResponseContentException;
+import com.restfb.util.StringUtils;
+import com.restfb.util.UrlUtils;
+
+/**
+ * Executes batch request lists of any size.
+ * <p>
+ * Facebook accepts at most {@value BatchingFacebookClient#MAX_BATCH_SIZE} requests in one batch. The list is split
+ * into chunks of that size, requests that reference each other by {@code depends_on} or by a JSONPath expression like
+ * <code>{result=name:$.id}</code> stay in the same chunk, because references only work inside one batch. The chunks
+ * are sent in parallel with a bounded number of concurrent batches, and the responses are returned in the order of the
+ * requests.
+ * <p>
+ * Requests with attached files are supported by {@link #execute(List, List)}. The attachments are sent unchanged with
+ * every chunk that contains such a request, so they have to be readable more than once if several chunks attach files,
+ * like attachments created from bytes or files.
+ */
+public class BatchExecutor {
+
+  private static final Pattern RESULT_REFERENCE = Pattern.compile("\\{result=([^:}]+):");
+
+  private final FacebookClient facebookClient;
+
+  private final Executor executor;
+
+  private final int maxConcurrency;
+
+  /**
+   * Creates an executor that sends up to 4 batches at once in the {@code ForkJoinPool.commonPool()}.
+   *
+   * @param facebookClient
+   *          the client that sends the batches
+   */
+  public BatchExecutor(FacebookClient facebookClient) {
+    this(facebookClient, ForkJoinPool.commonPool(), 4);
+  }
+
+  /**
+   * Creates an executor.
+   *
+   * @param facebookClient
+   *          the client that sends the batches
+   * @param executor
+   *          the executor that sends the batches
+   * @param maxConcurrency
+   *          the maximum number of batches that are sent at once
+   */
+  public BatchExecutor(FacebookClient facebookClient, Executor executor, int maxConcurrency) {
+    verifyParameterPresence("facebookClient", facebookClient);
+    verifyParameterPresence("executor", executor);
+    if (maxConcurrency < 1) {
+      throw new IllegalArgumentException("The concurrency must be at least 1.");
+    }
+    this.facebookClient = facebookClient;
+    this.executor = executor;
+    this.maxConcurrency = maxConcurrency;
+  }
+
+  /**
+   * Executes the batch requests.
+   *
+   * @param batchRequests
+   *          the requests, the list may be longer than the batch limit
+   * @return the responses in the order of the requests
+   * @throws IllegalArgumentException
+   *           if more requests than fit into one batch reference each other, or if a request has attached files
+   * @throws com.restfb.exception.FacebookException
+   *           if a batch fails, the remaining chunks are not sent then
+   */
+  public List<BatchResponse> execute(List<BatchRequest> batchRequests) {
+    return execute(batchRequests, Collections.emptyList());
+  }
+
+  /**
+   * Executes the batch requests with the files they attach.
+   *
+   * @param batchRequests
+   *          the requests, the list may be longer than the batch limit
+   * @param binaryAttachments
+   *          the files the requests refer to by {@code attached_files}, they are sent with every chunk that contains a
+   *          request with attached files
+   * @return the responses in the order of the requests
+   * @throws IllegalArgumentException
+   *           if more requests than fit into one batch reference each other, or if a request has attached files but
+   *           no attachments are given
+   * @throws com.restfb.exception.FacebookException
+   *           if a batch fails, the remaining chunks are not sent then
+   */
+  public List<BatchResponse> execute(List<BatchRequest> batchRequests, List<BinaryAttachment> binaryAttachments) {
+    verifyParameterPresence("batchRequests", batchRequests);
+    verifyParameterPresence("binaryAttachments", binaryAttachments);
+    if (binaryAttachments.isEmpty() && batchRequests.stream().anyMatch(BatchExecutor::hasAttachedFiles)) {
+      throw new IllegalArgumentException(
+        "Batch requests with attached files need the attachments, use execute(List, List) to send them.");
+    }
+    if (batchRequests.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    List<List<Integer>> chunks = createChunks(batchRequests);
+    BatchResponse[] responses = new BatchResponse[batchRequests.size()];
+    AtomicInteger nextChunk = new AtomicInteger();
+    AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+    // every worker sends one chunk after the other, so no more than maxConcurrency batches are in flight
+    Runnable worker = () -> {
+      int chunkIndex;
+      while (failure.get() == null && (chunkIndex = nextChunk.getAndIncrement()) < chunks.size()) {
+        try {
+          executeChunk(batchRequests, binaryAttachments, chunks.get(chunkIndex), responses);
+        } catch (RuntimeException e) {
+          failure.compareAndSet(null, e);
+        }
+      }
+    };
+
+    int workers = Math.min(maxConcurrency, chunks.size());
+    CompletableFuture<?>[] futures = new CompletableFuture<?>[workers];
+    for (int i = 0; i < workers; i++) {
+      futures[i] = CompletableFuture.runAsync(worker, executor);
+    }
+
+    try {
+      CompletableFuture.allOf(futures).join();
+    } catch (CompletionException e) {
+      failure.compareAndSet(null, new FacebookResponseContentException("Unable to execute the batch", e.getCause()));
+    }
+
+    if (failure.get() != null) {
+      throw failure.get();
+    }
+    return Arrays.asList(responses);
+  }
+
+  private void executeChunk(List<BatchRequest> batchRequests, List<BinaryAttachment> binaryAttachments,
+      List<Integer> chunk, BatchResponse[] responses) {
+    List<BatchRequest> requests = new ArrayList<>(chunk.size());
+    for (Integer index : chunk) {
+      requests.add(batchRequests.get(index));
+    }
+
+    List<BatchResponse> chunkResponses = requests.stream().anyMatch(BatchExecutor::hasAttachedFiles)
+        ? facebookClient.executeBatch(requests, binaryAttachments)
+        : facebookClient.executeBatch(requests);
+    for (int i = 0; i < chunk.size(); i++) {
+      responses[chunk.get(i)] = i < chunkResponses.size() ? chunkResponses.get(i) : null;
+    }
+  }
+
+  /**
+   * Groups requests that reference each other and packs the groups into chunks, the order of the requests is kept
+   * inside every chunk.
+   */
+  static List<List<Integer>> createChunks(List<BatchRequest> batchRequests) {
+    int[] parent = new int[batchRequests.size()];
+    Map<String, Integer> namedRequests = new HashMap<>();
+    for (int i = 0; i < batchRequests.size(); i++) {
+      parent[i] = i;
+      BatchRequest request = batchRequests.get(i);
+      if (request.getName() != null) {
+        namedRequests.put(request.getName(), i);
+      }
+    }
+
+    for (int i = 0; i < batchRequests.size(); i++) {
+      for (String reference : getReferences(batchRequests.get(i))) {
+        Integer referenced = namedRequests.get(reference);
+        if (referenced != null) {
+          parent[find(parent, i)] = find(parent, referenced);
+        }
+      }
+    }
+
+    Map<Integer, List<Integer>> groups = new LinkedHashMap<>();
+    for (int i = 0; i < batchRequests.size(); i++) {
+      groups.computeIfAbsent(find(parent, i), root -> new ArrayList<>()).add(i);
+    }
+
+    List<List<Integer>> chunks = new ArrayList<>();
+    List<Integer> chunk = new ArrayList<>();
+    for (List<Integer> group : groups.values()) {
+      if (group.size() > BatchingFacebookClient.MAX_BATCH_SIZE) {
+        throw new IllegalArgumentException(group.size() + " batch requests reference each other, but only "
+            + BatchingFacebookClient.MAX_BATCH_SIZE + " fit into one batch.");
+      }
+      if (chunk.size() + group.size() > BatchingFacebookClient.MAX_BATCH_SIZE) {
+        chunks.add(chunk);
+        chunk = new ArrayList<>();
+      }
+      chunk.addAll(group);
+    }
+    chunks.add(chunk);
+
+    for (List<Integer> c : chunks) {
+      Collections.sort(c);
+    }
+    return chunks;
+  }
+
+  private static boolean hasAttachedFiles(BatchRequest request) {
+    return !StringUtils.isBlank(request.getAttachedFiles());
+  }
+
+  private static List<String> getReferences(BatchRequest request) {
+    List<String> references = new ArrayList<>();
+    if (request.getDependsOn() != null) {
+      references.add(request.getDependsOn());
+    }
+    for (String text : Arrays.asList(request.getRelativeUrl(), request.getBody())) {
+      if (text != null && text.contains("result")) {
+        Matcher matcher = RESULT_REFERENCE.matcher(UrlUtils.urlDecode(text));
+        while (matcher.find()) {
+          references.add(matcher.group(1));
+        }
+      }
+    }
+    return references;
+  }
+
+  private static int find(int[] parent, int index) {
+    int root = index;
+    while (parent[root] != root) {
+      root = parent[root];
+    }
+    // path compression
+    int current = index;
+    while (parent[current] != root) {
+      int next = parent[current];
+      parent[current] = root;
+      current = next;
+    }
+    return root;
+  }
+}
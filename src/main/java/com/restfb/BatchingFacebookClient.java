@@ -0,0 +1,333 @@
+/*
+ * Copyright (c) 2010-2025 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static com.restfb.logging.RestFBLogger.CLIENT_LOGGER;
+import static com.restfb.util.ObjectUtil.verifyParameterPresence;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import com.restfb.batch.BatchRequest;
+import com.restfb.batch.BatchResponse;
+import com.restfb.exception.FacebookNetworkException;
+import com.restfb.exception.generator.DefaultFacebookExceptionGenerator;
+import com.restfb.exception.generator.FacebookExceptionGenerator;
+
+/**
+ * Collects independent reads of several threads and sends them as one batch request.
+ * <p>
+ * Calls of {@link #fetchObject(String, Class, Parameter...)} and {@link #fetchConnection(String, Class, Parameter...)}
+ * are queued. The queue is sent with {@link FacebookClient#executeBatch(List)} when the batch window is over or when it
+ * holds {@value #MAX_BATCH_SIZE} requests, the maximum Facebook accepts in one batch. Every caller gets its own future,
+ * that is completed with the mapped body of its {@link BatchResponse} or with the error Facebook returned for it.
+ * <p>
+ * A window with a single request is sent as normal request. All other calls should be made on the wrapped client.
+ *
+ * <pre>
+ * try (BatchingFacebookClient batchingClient = new BatchingFacebookClient(facebookClient)) {
+ *   CompletableFuture&lt;Page&gt; page = batchingClient.fetchObject(pageId, Page.class, Parameter.withFields("name"));
+ *   CompletableFuture&lt;User&gt; user = batchingClient.fetchObject("me", User.class);
+ *   ...
+ * }
+ * </pre>
+ */
+public class BatchingFacebookClient implements AutoCloseable {
+
+  /**
+   * The maximum number of requests in one batch.
+   */
+  public static final int MAX_BATCH_SIZE = 50;
+
+  private final FacebookClient facebookClient;
+
+  private final FacebookExceptionGenerator exceptionGenerator;
+
+  private final long windowInMillis;
+
+  private final int maxBatchSize;
+
+  private final ScheduledExecutorService scheduler;
+
+  private final boolean ownScheduler;
+
+  private final Executor executor;
+
+  private final List<PendingRequest<?>> pending = new ArrayList<>();
+
+  private ScheduledFuture<?> scheduledFlush;
+
+  private boolean closed;
+
+  /**
+   * Creates a client with a batch window of 10 milliseconds, the batches are sent in the
+   * {@code ForkJoinPool.commonPool()}.
+   *
+   * @param facebookClient
+   *          the client that sends the batches
+   */
+  public BatchingFacebookClient(FacebookClient facebookClient) {
+    this(facebookClient, Duration.ofMillis(10), MAX_BATCH_SIZE, null, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Creates a client.
+   *
+   * @param facebookClient
+   *          the client that sends the batches
+   * @param window
+   *          the time the first request of a batch waits for more requests
+   * @param maxBatchSize
+   *          the number of requests that are sent at once, at most {@value #MAX_BATCH_SIZE}
+   * @param scheduler
+   *          the scheduler that ends the batch windows, {@code null} to use an own thread that is stopped by
+   *          {@link #close()}
+   * @param executor
+   *          the executor that sends the batches and maps the responses
+   */
+  public BatchingFacebookClient(FacebookClient facebookClient, Duration window, int maxBatchSize,
+      ScheduledExecutorService scheduler, Executor executor) {
+    verifyParameterPresence("facebookClient", facebookClient);
+    verifyParameterPresence("window", window);
+    verifyParameterPresence("executor", executor);
+    if (maxBatchSize < 1 || maxBatchSize > MAX_BATCH_SIZE) {
+      throw new IllegalArgumentException("The batch size must be between 1 and " + MAX_BATCH_SIZE + ".");
+    }
+
+    this.facebookClient = facebookClient;
+    this.exceptionGenerator = facebookClient instanceof DefaultFacebookClient
+        ? ((DefaultFacebookClient) facebookClient).getFacebookExceptionGenerator()
+        : new DefaultFacebookExceptionGenerator();
+    this.windowInMillis = window.toMillis();
+    this.maxBatchSize = maxBatchSize;
+    this.ownScheduler = scheduler == null;
+    this.scheduler = ownScheduler ? Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "restfb-batching");
+      thread.setDaemon(true);
+      return thread;
+    }) : scheduler;
+    this.executor = executor;
+  }
+
+  /**
+   * Fetches a single Graph API object as part of the next batch.
+   *
+   * @param object
+   *          ID of the object to fetch, e.g. {@code "me"}.
+   * @param objectType
+   *          Object type token.
+   * @param parameters
+   *          URL parameters to include in the API call (optional).
+   * @param <T>
+   *          Java type to map to.
+   * @return future completed with the object, or exceptionally with a {@link com.restfb.exception.FacebookException}
+   */
+  public <T> CompletableFuture<T> fetchObject(String object, Class<T> objectType, Parameter... parameters) {
+    verifyParameterPresence("object", object);
+    verifyParameterPresence("objectType", objectType);
+    return enqueue(object, parameters, body -> facebookClient.getJsonMapper().toJavaObject(body, objectType),
+      () -> facebookClient.fetchObject(object, objectType, parameters));
+  }
+
+  /**
+   * Fetches a Graph API connection as part of the next batch.
+   *
+   * @param connection
+   *          The name of the connection, e.g. {@code "me/feed"}.
+   * @param connectionType
+   *          Connection type token.
+   * @param parameters
+   *          URL parameters to include in the API call (optional).
+   * @param <T>
+   *          Java type to map to.
+   * @return future completed with the connection, or exceptionally with a
+   *         {@link com.restfb.exception.FacebookException}
+   */
+  public <T> CompletableFuture<Connection<T>> fetchConnection(String connection, Class<T> connectionType,
+      Parameter... parameters) {
+    verifyParameterPresence("connection", connection);
+    verifyParameterPresence("connectionType", connectionType);
+    return enqueue(connection, parameters, body -> new Connection<>(facebookClient, body, connectionType),
+      () -> facebookClient.fetchConnection(connection, connectionType, parameters));
+  }
+
+  /**
+   * Sends the queued requests immediately, without waiting for the end of the batch window.
+   */
+  public void flush() {
+    List<PendingRequest<?>> batch;
+    synchronized (this) {
+      batch = drain();
+    }
+    send(batch);
+  }
+
+  /**
+   * Sends the queued requests and stops the own scheduler, a scheduler given to the constructor is not stopped.
+   * <p>
+   * Requests made after closing fail with an {@link IllegalStateException}.
+   */
+  @Override
+  public void close() {
+    List<PendingRequest<?>> batch;
+    synchronized (this) {
+      closed = true;
+      batch = drain();
+    }
+    send(batch);
+    if (ownScheduler) {
+      scheduler.shutdown();
+    }
+  }
+
+  private <T> CompletableFuture<T> enqueue(String endpoint, Parameter[] parameters, Function<String, T> mapper,
+      Supplier<T> singleCall) {
+    PendingRequest<T> request = new PendingRequest<>(
+      new BatchRequest.BatchRequestBuilder(endpoint).parameters(parameters).build(), mapper, singleCall);
+
+    List<PendingRequest<?>> fullBatch = null;
+    synchronized (this) {
+      if (closed) {
+        request.future.completeExceptionally(new IllegalStateException("The batching client is closed."));
+        return request.future;
+      }
+
+      pending.add(request);
+      if (pending.size() >= maxBatchSize) {
+        fullBatch = drain();
+      } else if (pending.size() == 1) {
+        try {
+          scheduledFlush = scheduler.schedule(this::flush, windowInMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+          // without a scheduled flush the request would wait forever
+          pending.remove(request);
+          request.future.completeExceptionally(e);
+          return request.future;
+        }
+      }
+    }
+
+    if (fullBatch != null) {
+      send(fullBatch);
+    }
+    return request.future;
+  }
+
+  /**
+   * Takes all queued requests, must be called while holding the lock.
+   */
+  private List<PendingRequest<?>> drain() {
+    if (scheduledFlush != null) {
+      scheduledFlush.cancel(false);
+      scheduledFlush = null;
+    }
+    List<PendingRequest<?>> batch = new ArrayList<>(pending);
+    pending.clear();
+    return batch;
+  }
+
+  private void send(List<PendingRequest<?>> batch) {
+    if (batch.isEmpty()) {
+      return;
+    }
+
+    try {
+      executor.execute(() -> execute(batch));
+    } catch (RejectedExecutionException e) {
+      batch.forEach(request -> request.future.completeExceptionally(e));
+    }
+  }
+
+  private void execute(List<PendingRequest<?>> batch) {
+    if (batch.size() == 1) {
+      batch.get(0).executeSingle();
+      return;
+    }
+
+    List<BatchResponse> responses;
+    try {
+      responses = facebookClient
+        .executeBatch(batch.stream().map(request -> request.batchRequest).collect(Collectors.toList()));
+    } catch (RuntimeException e) {
+      batch.forEach(request -> request.future.completeExceptionally(e));
+      return;
+    }
+
+    CLIENT_LOGGER.debug("Sent {} requests in one batch", batch.size());
+    for (int i = 0; i < batch.size(); i++) {
+      batch.get(i).complete(i < responses.size() ? responses.get(i) : null, exceptionGenerator);
+    }
+  }
+
+  private static class PendingRequest<T> {
+
+    private final BatchRequest batchRequest;
+
+    private final Function<String, T> mapper;
+
+    private final Supplier<T> singleCall;
+
+    private final CompletableFuture<T> future = new CompletableFuture<>();
+
+    PendingRequest(BatchRequest batchRequest, Function<String, T> mapper, Supplier<T> singleCall) {
+      this.batchRequest = batchRequest;
+      this.mapper = mapper;
+      this.singleCall = singleCall;
+    }
+
+    void executeSingle() {
+      try {
+        future.complete(singleCall.get());
+      } catch (RuntimeException e) {
+        future.completeExceptionally(e);
+      }
+    }
+
+    void complete(BatchResponse response, FacebookExceptionGenerator exceptionGenerator) {
+      try {
+        if (response == null) {
+          // Facebook answers with null if the request timed out inside the batch
+          throw new FacebookNetworkException((Integer) null);
+        }
+        exceptionGenerator.throwFacebookResponseStatusExceptionIfNecessary(response.getBody(), response.getCode());
+        if (response.getCode() == null || response.getCode() / 100 != 2) {
+          throw new FacebookNetworkException(response.getCode());
+        }
+        future.complete(mapper.apply(response.getBody()));
+      } catch (RuntimeException e) {
+        future.completeExceptionally(e);
+      }
+    }
+  }
+}
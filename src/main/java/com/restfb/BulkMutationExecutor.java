@@ -0,0 +1,368 @@
+/*
+ * Copyright (c) 2010-2025 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static com.restfb.logging.RestFBLogger.CLIENT_LOGGER;
+import static com.restfb.util.ObjectUtil.verifyParameterPresence;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.restfb.batch.BatchRequest;
+import com.restfb.batch.BatchResponse;
+import com.restfb.exception.FacebookException;
+import com.restfb.exception.FacebookNetworkException;
+import com.restfb.exception.FacebookResponseContentException;
+import com.restfb.exception.generator.DefaultFacebookExceptionGenerator;
+import com.restfb.exception.generator.FacebookExceptionGenerator;
+
+/**
+ * Executes large numbers of write requests, like hiding comments or updating budgets, with as few API calls as
+ * possible.
+ * <p>
+ * The mutations are packed into batches of {@value BatchingFacebookClient#MAX_BATCH_SIZE} requests that are sent in
+ * parallel. The response of every single request is checked: failures the {@link RetryPolicy} classifies as temporary
+ * (network errors, timeouts inside the batch, HTTP status codes like 500 or 503 and transient Graph API errors) are
+ * collected and sent again in new batches after a backoff, all other requests are done after the first attempt. So a
+ * batch with one throttled request doesn't resend the requests that were successful already.
+ * <p>
+ * Only the retry classification and the delays of the policy are used, the retry budget is not consumed. Because
+ * failed requests are retried separately, the mutations must not reference each other and should be idempotent: a
+ * request that timed out inside the batch may have been applied nevertheless.
+ *
+ * <pre>
+ * List&lt;BatchRequest&gt; mutations = commentIds.stream()
+ *   .map(id -&gt; new BatchRequest.BatchRequestBuilder(id).method("POST").body(Parameter.with("is_hidden", true)).build())
+ *   .collect(Collectors.toList());
+ * List&lt;BulkMutationExecutor.Result&gt; results = new BulkMutationExecutor(facebookClient).execute(mutations);
+ * </pre>
+ */
+public class BulkMutationExecutor {
+
+  private final FacebookClient facebookClient;
+
+  private final FacebookExceptionGenerator exceptionGenerator;
+
+  private final RetryPolicy retryPolicy;
+
+  private final Executor executor;
+
+  private final int maxConcurrency;
+
+  private int batchSize = BatchingFacebookClient.MAX_BATCH_SIZE;
+
+  private final LongAdder batchCount = new LongAdder();
+
+  private final LongAdder retryCount = new LongAdder();
+
+  /**
+   * Creates an executor with the default {@link RetryPolicy} that sends up to 4 batches at once in the
+   * {@code ForkJoinPool.commonPool()}.
+   *
+   * @param facebookClient
+   *          the client that sends the batches
+   */
+  public BulkMutationExecutor(FacebookClient facebookClient) {
+    this(facebookClient, new RetryPolicy(), ForkJoinPool.commonPool(), 4);
+  }
+
+  /**
+   * Creates an executor.
+   *
+   * @param facebookClient
+   *          the client that sends the batches
+   * @param retryPolicy
+   *          the policy that decides which failures are retried, how often and with which delay
+   * @param executor
+   *          the executor that sends the batches
+   * @param maxConcurrency
+   *          the maximum number of batches that are sent at once
+   */
+  public BulkMutationExecutor(FacebookClient facebookClient, RetryPolicy retryPolicy, Executor executor,
+      int maxConcurrency) {
+    verifyParameterPresence("facebookClient", facebookClient);
+    verifyParameterPresence("retryPolicy", retryPolicy);
+    verifyParameterPresence("executor", executor);
+    if (maxConcurrency < 1) {
+      throw new IllegalArgumentException("The concurrency must be at least 1.");
+    }
+    this.facebookClient = facebookClient;
+    this.exceptionGenerator = facebookClient instanceof DefaultFacebookClient
+        ? ((DefaultFacebookClient) facebookClient).getFacebookExceptionGenerator()
+        : new DefaultFacebookExceptionGenerator();
+    this.retryPolicy = retryPolicy;
+    this.executor = executor;
+    this.maxConcurrency = maxConcurrency;
+  }
+
+  /**
+   * Executes the mutations.
+   * <p>
+   * This method doesn't throw if single mutations or whole batches fail, the outcome of every mutation is part of the
+   * result. An unexpected exception of a batch is recorded for its mutations as
+   * {@link FacebookResponseContentException}.
+   *
+   * @param mutations
+   *          the write requests
+   * @return the results in the order of the mutations
+   */
+  public List<Result> execute(List<BatchRequest> mutations) {
+    verifyParameterPresence("mutations", mutations);
+
+    Result[] results = new Result[mutations.size()];
+    for (int i = 0; i < results.length; i++) {
+      results[i] = new Result(i, mutations.get(i));
+    }
+
+    List<Result> pending = Arrays.asList(results);
+    long delay = retryPolicy.getBaseDelayInMillis();
+    int attempt = 1;
+
+    while (!pending.isEmpty()) {
+      executeRound(pending);
+
+      List<Result> retryable = new ArrayList<>();
+      for (Result result : pending) {
+        if (result.exception != null && retryPolicy.isRetryable(result.exception)) {
+          retryable.add(result);
+        }
+      }
+
+      if (retryable.isEmpty() || attempt >= retryPolicy.getMaxAttempts()) {
+        break;
+      }
+
+      delay = retryPolicy.nextDelayInMillis(delay);
+      CLIENT_LOGGER.debug("{} of {} mutations failed temporarily, retrying in {} ms", retryable.size(),
+        pending.size(), delay);
+      try {
+        retryPolicy.sleep(delay);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+
+      retryCount.add(retryable.size());
+      pending = retryable;
+      attempt++;
+    }
+
+    return Collections.unmodifiableList(Arrays.asList(results));
+  }
+
+  private void executeRound(List<Result> pending) {
+    List<List<Result>> chunks = new ArrayList<>();
+    for (int i = 0; i < pending.size(); i += batchSize) {
+      chunks.add(pending.subList(i, Math.min(pending.size(), i + batchSize)));
+    }
+
+    // every worker sends one chunk after the other, so no more than maxConcurrency batches are in flight
+    AtomicInteger nextChunk = new AtomicInteger();
+    Runnable worker = () -> {
+      int chunkIndex;
+      while ((chunkIndex = nextChunk.getAndIncrement()) < chunks.size()) {
+        executeChunk(chunks.get(chunkIndex));
+      }
+    };
+
+    int workers = Math.min(maxConcurrency, chunks.size());
+    CompletableFuture<?>[] futures = new CompletableFuture<?>[workers];
+    for (int i = 0; i < workers; i++) {
+      try {
+        futures[i] = CompletableFuture.runAsync(worker, executor);
+      } catch (RejectedExecutionException e) {
+        // the remaining chunks are sent by the calling thread, so every mutation gets its result
+        CLIENT_LOGGER.debug("The executor rejected a batch worker, sending the remaining batches directly", e);
+        worker.run();
+        futures[i] = CompletableFuture.completedFuture(null);
+      }
+    }
+    CompletableFuture.allOf(futures).join();
+  }
+
+  private void executeChunk(List<Result> chunk) {
+    List<BatchRequest> requests = new ArrayList<>(chunk.size());
+    for (Result result : chunk) {
+      requests.add(result.request);
+      result.attempts++;
+    }
+
+    List<BatchResponse> responses;
+    try {
+      batchCount.increment();
+      responses = facebookClient.executeBatch(requests);
+    } catch (RuntimeException e) {
+      // the other chunks are still sent, a failed batch only fails its own mutations
+      FacebookException exception = toFacebookException(e);
+      chunk.forEach(result -> result.complete(null, exception));
+      return;
+    }
+
+    for (int i = 0; i < chunk.size(); i++) {
+      BatchResponse response = responses != null && i < responses.size() ? responses.get(i) : null;
+      try {
+        checkResponse(response);
+        chunk.get(i).complete(response, null);
+      } catch (RuntimeException e) {
+        chunk.get(i).complete(response, toFacebookException(e));
+      }
+    }
+  }
+
+  private static FacebookException toFacebookException(RuntimeException e) {
+    if (e instanceof FacebookException) {
+      return (FacebookException) e;
+    }
+    return new FacebookResponseContentException("Unable to execute the batch", e);
+  }
+
+  private void checkResponse(BatchResponse response) {
+    if (response == null) {
+      // Facebook answers with null if the request timed out inside the batch
+      throw new FacebookNetworkException((Integer) null);
+    }
+    exceptionGenerator.throwFacebookResponseStatusExceptionIfNecessary(response.getBody(), response.getCode());
+    if (response.getCode() == null || response.getCode() / 100 != 2) {
+      throw new FacebookNetworkException(response.getCode());
+    }
+  }
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * Sets the number of mutations that are sent in one batch (default: {@value BatchingFacebookClient#MAX_BATCH_SIZE}).
+   *
+   * @param batchSize
+   *          the batch size, at most {@value BatchingFacebookClient#MAX_BATCH_SIZE}
+   */
+  public void setBatchSize(int batchSize) {
+    if (batchSize < 1 || batchSize > BatchingFacebookClient.MAX_BATCH_SIZE) {
+      throw new IllegalArgumentException(
+        "The batch size must be between 1 and " + BatchingFacebookClient.MAX_BATCH_SIZE + ".");
+    }
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Returns the number of batches this executor has sent.
+   *
+   * @return the number of batches
+   */
+  public long getBatchCount() {
+    return batchCount.sum();
+  }
+
+  /**
+   * Returns the number of mutations this executor has sent again after a temporary failure.
+   *
+   * @return the number of retried mutations
+   */
+  public long getRetryCount() {
+    return retryCount.sum();
+  }
+
+  /**
+   * The outcome of a single mutation.
+   */
+  public static class Result {
+
+    private final int index;
+
+    private final BatchRequest request;
+
+    private volatile BatchResponse response;
+
+    private volatile FacebookException exception;
+
+    private volatile int attempts;
+
+    Result(int index, BatchRequest request) {
+      this.index = index;
+      this.request = request;
+    }
+
+    void complete(BatchResponse response, FacebookException exception) {
+      this.response = response;
+      this.exception = exception;
+    }
+
+    /**
+     * Returns the position of the mutation in the list given to {@link BulkMutationExecutor#execute(List)}.
+     *
+     * @return the index of the mutation
+     */
+    public int getIndex() {
+      return index;
+    }
+
+    public BatchRequest getRequest() {
+      return request;
+    }
+
+    /**
+     * Returns the response of the last attempt.
+     *
+     * @return the response, {@code null} if the request timed out or the whole batch failed
+     */
+    public BatchResponse getResponse() {
+      return response;
+    }
+
+    /**
+     * Returns the error of the last attempt.
+     *
+     * @return the error, {@code null} if the mutation was successful
+     */
+    public FacebookException getException() {
+      return exception;
+    }
+
+    /**
+     * Returns the number of times the mutation was sent.
+     *
+     * @return the number of attempts
+     */
+    public int getAttempts() {
+      return attempts;
+    }
+
+    public boolean isSuccess() {
+      return exception == null;
+    }
+
+    @Override
+    public String toString() {
+      return "Result[index=" + index + ", attempts=" + attempts + ", success=" + isSuccess()
+          + (exception != null ? ", exception=" + exception.getMessage() : "") + "]";
+    }
+  }
+}
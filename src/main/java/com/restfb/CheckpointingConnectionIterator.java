@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2010-2025 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static com.restfb.util.ObjectUtil.verifyParameterPresence;
+
+import java.util.List;
+
+/**
+ * Iterator over connection pages that saves its position to a {@link ConnectionCheckpointStore}.
+ * <p>
+ * A page counts as processed when the caller asks for the next one. After every {@code checkpointInterval} processed
+ * pages, a checkpoint pointing to the next page is saved, so a restart repeats at most that many pages. When the last
+ * page is reached, the complete checkpoint is saved.
+ *
+ * <pre>
+ * Optional&lt;ConnectionCheckpoint&gt; checkpoint = store.load("inbox");
+ * if (!checkpoint.map(ConnectionCheckpoint::isComplete).orElse(false)) {
+ *   Connection&lt;Conversation&gt; conversations = checkpoint.isPresent()
+ *       ? checkpoint.get().resume(facebookClient, Conversation.class)
+ *       : facebookClient.fetchConnection("me/conversations", Conversation.class);
+ *   CheckpointingConnectionIterator&lt;Conversation&gt; it = conversations.checkpointingIterator(store, "inbox", 1);
+ *   while (it.hasNext()) {
+ *     process(it.next());
+ *   }
+ * }
+ * </pre>
+ *
+ * @param <T>
+ *          The Facebook type
+ */
+public class CheckpointingConnectionIterator<T> implements ConnectionIterator<T> {
+
+  private final ConnectionIterator<T> pages;
+
+  private final ConnectionCheckpointStore checkpointStore;
+
+  private final String key;
+
+  private final int checkpointInterval;
+
+  private Connection<T> lastPage;
+
+  private int pagesSinceCheckpoint;
+
+  private boolean completed;
+
+  /**
+   * Creates a new iterator over the given {@code connection}.
+   *
+   * @param connection
+   *          The connection over which to iterate.
+   * @param checkpointStore
+   *          The store that keeps the checkpoints.
+   * @param key
+   *          The key of the checkpoints in the store.
+   * @param checkpointInterval
+   *          The number of pages after which a checkpoint is saved.
+   */
+  protected CheckpointingConnectionIterator(Connection<T> connection, ConnectionCheckpointStore checkpointStore,
+      String key, int checkpointInterval) {
+    verifyParameterPresence("connection", connection);
+    verifyParameterPresence("checkpointStore", checkpointStore);
+    verifyParameterPresence("key", key);
+    if (checkpointInterval < 1) {
+      throw new IllegalArgumentException("The checkpoint interval must be at least 1.");
+    }
+    this.pages = connection.iterator();
+    this.checkpointStore = checkpointStore;
+    this.key = key;
+    this.checkpointInterval = checkpointInterval;
+  }
+
+  /**
+   * @see java.util.Iterator#hasNext()
+   */
+  @Override
+  public boolean hasNext() {
+    boolean hasNext = pages.hasNext();
+    if (!hasNext && !completed && lastPage != null) {
+      completed = true;
+      checkpoint();
+    }
+    return hasNext;
+  }
+
+  /**
+   * @see java.util.Iterator#next()
+   */
+  @Override
+  public List<T> next() {
+    if (lastPage != null && pagesSinceCheckpoint >= checkpointInterval) {
+      checkpoint();
+    }
+
+    List<T> data = pages.next();
+    lastPage = pages.snapshot();
+    pagesSinceCheckpoint++;
+    return data;
+  }
+
+  /**
+   * Saves a checkpoint after the page that was returned last, call this when that page is processed and the iteration
+   * stops, for example on shutdown.
+   */
+  public void checkpoint() {
+    if (lastPage == null) {
+      return;
+    }
+    checkpointStore.save(key, ConnectionCheckpoint.after(lastPage));
+    pagesSinceCheckpoint = 0;
+  }
+
+  /**
+   * @see java.util.Iterator#remove()
+   */
+  @Override
+  public void remove() {
+    throw new UnsupportedOperationException(
+      CheckpointingConnectionIterator.class.getSimpleName() + " doesn't support the remove() operation.");
+  }
+
+  /**
+   * @see ConnectionIterator#snapshot()
+   */
+  @Override
+  public Connection<T> snapshot() {
+    return pages.snapshot();
+  }
+}
@@ -22,12 +22,24 @@
 package com.restfb;
 
 import static com.restfb.util.StringUtils.isBlank;
+import static java.util.Collections.emptyList;
 import static java.util.Collections.unmodifiableList;
 
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import com.restfb.exception.FacebookJsonMappingException;
 import com.restfb.json.Json;
@@ -44,6 +56,11 @@ import com.restfb.util.ReflectionUtils;
  * @author <a href="http://restfb.com">Mark Allen</a>
  */
 public class Connection<T> implements Iterable<List<T>> {
+  /**
+   * Marks items of a {@link MappedDataList} that were mapped to {@code null}.
+   */
+  private static final Object NULL_ITEM = new Object();
+
   private FacebookClient facebookClient;
   private Class<T> connectionType;
   private List<T> data;
@@ -64,6 +81,52 @@ public class Connection<T> implements Iterable<List<T>> {
     return new Itr<>(this);
   }
 
+  /**
+   * Returns an iterator over the connection pages that fetches the next pages in the background, while the caller is
+   * processing the current one.
+   *
+   * @param executor
+   *          The executor that fetches the pages.
+   * @param prefetchDepth
+   *          The number of pages that are fetched ahead of the page the caller is processing.
+   * @return The prefetching iterator, it should be closed if the iteration stops early.
+   * @see PrefetchingConnectionIterator
+   */
+  public PrefetchingConnectionIterator<T> prefetchingIterator(Executor executor, int prefetchDepth) {
+    return new PrefetchingConnectionIterator<>(this, executor, prefetchDepth);
+  }
+
+  /**
+   * Returns an iterator over the connection pages that saves its position, so the iteration can be resumed with
+   * {@link ConnectionCheckpoint#resume(FacebookClient, Class)} after a crash.
+   *
+   * @param checkpointStore
+   *          The store that keeps the checkpoints.
+   * @param key
+   *          The key of the checkpoints in the store.
+   * @param checkpointInterval
+   *          The number of pages after which a checkpoint is saved.
+   * @return The checkpointing iterator.
+   * @see CheckpointingConnectionIterator
+   */
+  public CheckpointingConnectionIterator<T> checkpointingIterator(ConnectionCheckpointStore checkpointStore, String key,
+      int checkpointInterval) {
+    return new CheckpointingConnectionIterator<>(this, checkpointStore, key, checkpointInterval);
+  }
+
+  /**
+   * Returns a sequential stream over the items of all connection pages.
+   * <p>
+   * The pages are fetched lazily: the next page is requested when the items of the current page are consumed, so
+   * short-circuiting operations like {@code limit}, {@code findFirst} or {@code anyMatch} don't fetch more pages than
+   * necessary. A page is no longer referenced by the stream after its last item was consumed.
+   *
+   * @return The stream over all items.
+   */
+  public Stream<T> itemStream() {
+    return StreamSupport.stream(new ItemSpliterator<>(iterator()), false);
+  }
+
   /**
    * Iterator over connection pages.
    * 
@@ -130,6 +193,67 @@ public class Connection<T> implements Iterable<List<T>> {
     }
   }
 
+  /**
+   * Spliterator over the items of all connection pages, the pages are fetched when they are needed.
+   */
+  private static class ItemSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+    private final Iterator<List<T>> pages;
+    private Iterator<T> items = Collections.emptyIterator();
+
+    ItemSpliterator(Iterator<List<T>> pages) {
+      super(Long.MAX_VALUE, Spliterator.ORDERED);
+      this.pages = pages;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+      while (!items.hasNext()) {
+        if (!pages.hasNext()) {
+          return false;
+        }
+        items = pages.next().iterator();
+      }
+
+      action.accept(items.next());
+      return true;
+    }
+  }
+
+  /**
+   * Read-only list over the parsed data of a page, every item is mapped from its JSON value on first access.
+   */
+  private static class MappedDataList<T> extends AbstractList<T> implements RandomAccess {
+    private final JsonArray jsonData;
+    private final JsonMapper jsonMapper;
+    private final Class<T> connectionType;
+    private final AtomicReferenceArray<Object> items;
+
+    MappedDataList(JsonArray jsonData, JsonMapper jsonMapper, Class<T> connectionType) {
+      this.jsonData = jsonData;
+      this.jsonMapper = jsonMapper;
+      this.connectionType = connectionType;
+      this.items = new AtomicReferenceArray<>(jsonData.size());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+      Object item = items.get(index);
+      if (item == null) {
+        T mapped = jsonMapper.toJavaObject(jsonData.get(index), connectionType);
+        // concurrent readers keep the first mapped instance, so every caller sees the same object
+        items.compareAndSet(index, null, mapped == null ? NULL_ITEM : mapped);
+        item = items.get(index);
+      }
+      return item == NULL_ITEM ? null : (T) item;
+    }
+
+    @Override
+    public int size() {
+      return items.length();
+    }
+  }
+
   /**
    * Creates a connection with the given {@code jsonObject}.
    * 
@@ -144,14 +268,38 @@ public class Connection<T> implements Iterable<List<T>> {
    *           If the provided {@code json} is invalid.
    * @since 1.6.7
    */
-  @SuppressWarnings("unchecked")
   public Connection(FacebookClient facebookClient, String json, Class<T> connectionType) {
-    JsonObject jsonObject;
+    this(facebookClient, parseConnectionJson(json), connectionType);
+  }
 
-    try {
-      jsonObject = Optional.ofNullable(json).map(j -> Json.parse(j).asObject()).orElseThrow(() -> new FacebookJsonMappingException("You must supply non-null connection JSON."));
-    } catch (ParseException e) {
-      throw new FacebookJsonMappingException("The connection JSON you provided was invalid: " + json, e);
+  /**
+   * Creates a connection with the given, already parsed {@code jsonObject}.
+   * <p>
+   * This is a factory instead of a constructor, so {@code new Connection<>(client, null, type)} keeps resolving to the
+   * {@code String} constructor.
+   *
+   * @param facebookClient
+   *          The {@code FacebookClient} used to fetch additional pages and map data to JSON objects.
+   * @param jsonObject
+   *          JSON object which must include a {@code data} field that holds a JSON array and optionally a
+   *          {@code paging} field that holds a JSON object with next/previous page URLs.
+   * @param connectionType
+   *          Connection type token.
+   * @param <T>
+   *          Java type to map to.
+   * @return the connection
+   * @throws FacebookJsonMappingException
+   *           If the provided {@code jsonObject} is invalid.
+   */
+  public static <T> Connection<T> fromJsonObject(FacebookClient facebookClient, JsonObject jsonObject,
+      Class<T> connectionType) {
+    return new Connection<>(facebookClient, jsonObject, connectionType);
+  }
+
+  @SuppressWarnings("unchecked")
+  private Connection(FacebookClient facebookClient, JsonObject jsonObject, Class<T> connectionType) {
+    if (jsonObject == null) {
+      throw new FacebookJsonMappingException("You must supply non-null connection JSON.");
     }
 
     // Pull out data
@@ -159,8 +307,14 @@ public class Connection<T> implements Iterable<List<T>> {
       throw new FacebookJsonMappingException("The connection JSON does not contain a data field, maybe it is no connection");
     }
     JsonArray jsonData = jsonObject.get("data").asArray();
-    List<T> dataItem = jsonData.valueStream().map(jsonValue -> connectionType.equals(JsonObject.class) ? (T) jsonValue
-            : facebookClient.getJsonMapper().toJavaObject(jsonValue.toString(), connectionType)).collect(Collectors.toList());
+    List<T> dataItem;
+    if (connectionType.equals(JsonObject.class)) {
+      dataItem = unmodifiableList(jsonData.valueStream().map(jsonValue -> (T) jsonValue).collect(Collectors.toList()));
+    } else if (jsonData.isEmpty()) {
+      dataItem = emptyList();
+    } else {
+      dataItem = new MappedDataList<>(jsonData, facebookClient.getJsonMapper(), connectionType);
+    }
 
     // Pull out paging info, if present
     if (jsonObject.contains("paging")) {
@@ -186,7 +340,7 @@ public class Connection<T> implements Iterable<List<T>> {
 
       // special handling to fill the typed summary (used by ad insights for example)
       try {
-        typedSummary = facebookClient.getJsonMapper().toJavaObject(jsonSummary.toString(), connectionType);
+        typedSummary = facebookClient.getJsonMapper().toJavaObject(jsonSummary, connectionType);
       } catch (FacebookJsonMappingException jme) {
         // ignore mapping exception here
       }
@@ -195,11 +349,20 @@ public class Connection<T> implements Iterable<List<T>> {
       order = null;
     }
 
-    this.data = unmodifiableList(dataItem);
+    this.data = dataItem;
     this.facebookClient = facebookClient;
     this.connectionType = connectionType;
   }
 
+  private static JsonObject parseConnectionJson(String json) {
+    try {
+      return Optional.ofNullable(json).map(j -> Json.parse(j).asObject())
+        .orElseThrow(() -> new FacebookJsonMappingException("You must supply non-null connection JSON."));
+    } catch (ParseException e) {
+      throw new FacebookJsonMappingException("The connection JSON you provided was invalid: " + json, e);
+    }
+  }
+
   /**
    * Fetches the next page of the connection. Designed to be used by {@link Itr}.
    *
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2010-2025 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static com.restfb.util.StringUtils.isBlank;
+
+import java.io.Serializable;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import com.restfb.util.ObjectUtil;
+import com.restfb.util.UrlUtils;
+
+/**
+ * Position inside a connection, so a long iteration can be continued after a crash.
+ * <p>
+ * The checkpoint holds the URL of the next page that still has to be processed, without the access token and the
+ * app secret proof, so it can be persisted safely. {@link #resume(FacebookClient, Class)} fetches that page with the
+ * credentials of the given client.
+ *
+ * @see CheckpointingConnectionIterator
+ * @see ConnectionCheckpointStore
+ */
+public class ConnectionCheckpoint implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Query parameters that are not part of the checkpoint, they are added again by the client.
+   */
+  private static final Set<String> CLIENT_PARAMETERS = Collections
+    .unmodifiableSet(new HashSet<>(Arrays.asList("access_token", "appsecret_proof", "format", "method")));
+
+  private static final Pattern VERSION_PREFIX = Pattern.compile("^v\\d+\\.\\d+/");
+
+  private final String nextPageUrl;
+
+  private final String afterCursor;
+
+  public ConnectionCheckpoint(String nextPageUrl, String afterCursor) {
+    this.nextPageUrl = isBlank(nextPageUrl) ? null : removeClientParameters(nextPageUrl);
+    this.afterCursor = afterCursor;
+  }
+
+  /**
+   * Creates the checkpoint after the given page, resuming it continues with the following page.
+   *
+   * @param connection
+   *          the page that was processed
+   * @return the checkpoint
+   */
+  public static ConnectionCheckpoint after(Connection<?> connection) {
+    ObjectUtil.verifyParameterPresence("connection", connection);
+    return new ConnectionCheckpoint(connection.hasNext() ? connection.getNextPageUrl() : null,
+      connection.getAfterCursor());
+  }
+
+  /**
+   * Fetches the page this checkpoint points to.
+   *
+   * @param facebookClient
+   *          the client that fetches the page, it adds its access token
+   * @param connectionType
+   *          Connection type token.
+   * @param <T>
+   *          The Facebook type
+   * @return the next page that has to be processed
+   * @throws IllegalStateException
+   *           if the connection was processed completely
+   */
+  public <T> Connection<T> resume(FacebookClient facebookClient, Class<T> connectionType) {
+    ObjectUtil.verifyParameterPresence("facebookClient", facebookClient);
+    if (isComplete()) {
+      throw new IllegalStateException("The connection was processed completely, there is no page to resume.");
+    }
+
+    URI uri = URI.create(nextPageUrl);
+    String endpoint = VERSION_PREFIX.matcher(uri.getPath().replaceFirst("^/", "")).replaceFirst("");
+
+    List<Parameter> parameters = new ArrayList<>();
+    String query = uri.getRawQuery();
+    if (query != null) {
+      for (String parameter : query.split("&")) {
+        String[] nameAndValue = parameter.split("=", 2);
+        if (!nameAndValue[0].isEmpty()) {
+          parameters.add(Parameter.with(UrlUtils.urlDecode(nameAndValue[0]),
+            nameAndValue.length > 1 ? UrlUtils.urlDecode(nameAndValue[1]) : ""));
+        }
+      }
+    }
+
+    return facebookClient.fetchConnection(endpoint, connectionType, parameters.toArray(new Parameter[0]));
+  }
+
+  private static String removeClientParameters(String url) {
+    int queryStart = url.indexOf('?');
+    if (queryStart < 0) {
+      return url;
+    }
+
+    StringBuilder result = new StringBuilder(url.substring(0, queryStart));
+    char separator = '?';
+    for (String parameter : url.substring(queryStart + 1).split("&")) {
+      String name = UrlUtils.urlDecode(parameter.split("=", 2)[0]);
+      if (!parameter.isEmpty() && !CLIENT_PARAMETERS.contains(name)) {
+        result.append(separator).append(parameter);
+        separator = '&';
+      }
+    }
+    return result.toString();
+  }
+
+  /**
+   * @return the URL of the next page without credentials, {@code null} if the connection was processed completely
+   */
+  public String getNextPageUrl() {
+    return nextPageUrl;
+  }
+
+  /**
+   * @return the after cursor of the last processed page, may be {@code null}
+   */
+  public String getAfterCursor() {
+    return afterCursor;
+  }
+
+  /**
+   * Checks if all pages of the connection were processed.
+   *
+   * @return {@code true} if there is no page to resume
+   */
+  public boolean isComplete() {
+    return nextPageUrl == null;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("[nextPageUrl=%s, afterCursor=%s]", nextPageUrl, afterCursor);
+  }
+}
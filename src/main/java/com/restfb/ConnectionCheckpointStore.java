@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2010-2025 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import java.util.Optional;
+
+/**
+ * Persists the position of long connection iterations, so an iteration can be continued after a crash.
+ *
+ * @see FileConnectionCheckpointStore
+ * @see CheckpointingConnectionIterator
+ */
+public interface ConnectionCheckpointStore {
+
+  /**
+   * Loads the checkpoint that was saved with the given key.
+   *
+   * @param key
+   *          identifies the iteration
+   * @return the saved checkpoint, empty if there is none
+   */
+  Optional<ConnectionCheckpoint> load(String key);
+
+  /**
+   * Saves the checkpoint under the given key, replacing an older one.
+   *
+   * @param key
+   *          identifies the iteration
+   * @param checkpoint
+   *          the current position of the iteration
+   */
+  void save(String key, ConnectionCheckpoint checkpoint);
+
+  /**
+   * Removes the checkpoint with the given key, the iteration should start from the beginning the next time.
+   *
+   * @param key
+   *          identifies the iteration
+   */
+  void remove(String key);
+}
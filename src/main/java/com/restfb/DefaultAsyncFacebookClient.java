@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2010-2025 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static com.restfb.util.ObjectUtil.requireNotEmpty;
+import static com.restfb.util.ObjectUtil.verifyParameterPresence;
+import static java.util.Collections.emptyList;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import com.restfb.batch.BatchRequest;
+import com.restfb.batch.BatchResponse;
+
+/**
+ * Default implementation of the {@link AsyncFacebookClient}.
+ * <p>
+ * Access token, app secret, api version, endpoints and the {@link JsonMapper} are taken from the wrapped
+ * {@link DefaultFacebookClient}, the requests are sent with the asynchronous methods of its {@link WebRequestor}.
+ * Combine it with a non-blocking requestor like the {@code HttpClientWebRequestor} to keep thousands of requests in
+ * flight with a handful of threads.
+ * <p>
+ * Error checking and JSON mapping run on the configurable mapping executor, so they never block the I/O threads of
+ * the requestor.
+ * <p>
+ * The {@link RetryPolicy} and the {@link ResponseCache} of the wrapped client are not applied: failed requests are not
+ * retried and every call is sent to Facebook. Both block the calling thread, retry the failed futures or cache the
+ * results in the application if needed.
+ */
+public class DefaultAsyncFacebookClient implements AsyncFacebookClient {
+
+  private final DefaultFacebookClient facebookClient;
+
+  private final Executor mappingExecutor;
+
+  /**
+   * Creates an asynchronous client that maps the responses in the {@code ForkJoinPool.commonPool()}.
+   *
+   * @param facebookClient
+   *          the client that provides configuration, {@link WebRequestor} and {@link JsonMapper}
+   */
+  public DefaultAsyncFacebookClient(DefaultFacebookClient facebookClient) {
+    this(facebookClient, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Creates an asynchronous client.
+   *
+   * @param facebookClient
+   *          the client that provides configuration, {@link WebRequestor} and {@link JsonMapper}
+   * @param mappingExecutor
+   *          the executor used to check the responses for errors and to map the JSON to Java objects
+   */
+  public DefaultAsyncFacebookClient(DefaultFacebookClient facebookClient, Executor mappingExecutor) {
+    verifyParameterPresence("facebookClient", facebookClient);
+    verifyParameterPresence("mappingExecutor", mappingExecutor);
+    this.facebookClient = facebookClient;
+    this.mappingExecutor = mappingExecutor;
+  }
+
+  @Override
+  public <T> CompletableFuture<T> fetchObject(String object, Class<T> objectType, Parameter... parameters) {
+    verifyParameterPresence("object", object);
+    verifyParameterPresence("objectType", objectType);
+    return makeRequest(object, false, false, null, null, parameters)
+      .thenApply(json -> getJsonMapper().toJavaObject(json, objectType));
+  }
+
+  @Override
+  public <T> CompletableFuture<Connection<T>> fetchConnection(String connection, Class<T> connectionType,
+      Parameter... parameters) {
+    verifyParameterPresence(DefaultFacebookClient.CONNECTION, connection);
+    verifyParameterPresence(DefaultFacebookClient.CONNECTION_TYPE, connectionType);
+    return makeRequest(connection, false, false, null, null, parameters)
+      .thenApply(json -> new Connection<>(facebookClient, json, connectionType));
+  }
+
+  @Override
+  public <T> CompletableFuture<Connection<T>> fetchConnectionPage(String connectionPageUrl,
+      Class<T> connectionType) {
+    WebRequestor.Request request = facebookClient.createConnectionPageRequest(connectionPageUrl);
+    return facebookClient.processResponseAsync(mappingExecutor, getWebRequestor().executeGetAsync(request))
+      .thenApply(json -> new Connection<>(facebookClient, json, connectionType));
+  }
+
+  @Override
+  public <T> CompletableFuture<T> publish(String connection, Class<T> objectType, Parameter... parameters) {
+    return publish(connection, objectType, (List<BinaryAttachment>) null, parameters);
+  }
+
+  @Override
+  public <T> CompletableFuture<T> publish(String connection, Class<T> objectType,
+      List<BinaryAttachment> binaryAttachments, Parameter... parameters) {
+    verifyParameterPresence(DefaultFacebookClient.CONNECTION, connection);
+    return makeRequest(connection, true, false, binaryAttachments, null, parameters)
+      .thenApply(json -> getJsonMapper().toJavaObject(json, objectType));
+  }
+
+  @Override
+  public <T> CompletableFuture<T> publish(String connection, Class<T> objectType, Body body,
+      Parameter... parameters) {
+    verifyParameterPresence(DefaultFacebookClient.CONNECTION, connection);
+    return makeRequest(connection, true, false, null, body, parameters)
+      .thenApply(json -> getJsonMapper().toJavaObject(json, objectType));
+  }
+
+  @Override
+  public CompletableFuture<List<BatchResponse>> executeBatch(List<BatchRequest> batchRequests) {
+    return executeBatch(batchRequests, emptyList());
+  }
+
+  @Override
+  public CompletableFuture<List<BatchResponse>> executeBatch(List<BatchRequest> batchRequests,
+      List<BinaryAttachment> binaryAttachments) {
+    verifyParameterPresence("binaryAttachments", binaryAttachments);
+    requireNotEmpty(batchRequests, "You must specify at least one batch request.");
+
+    return makeRequest("", true, false, binaryAttachments, null,
+      Parameter.with("batch", getJsonMapper().toJson(batchRequests, true)))
+        .thenApply(json -> getJsonMapper().toJavaList(json, BatchResponse.class));
+  }
+
+  @Override
+  public CompletableFuture<Boolean> deleteObject(String object, Parameter... parameters) {
+    verifyParameterPresence("object", object);
+    return makeRequest(object, true, true, null, null, parameters).thenApply(facebookClient::isDeleteSuccessful);
+  }
+
+  private CompletableFuture<String> makeRequest(String endpoint, boolean executeAsPost, boolean executeAsDelete,
+      List<BinaryAttachment> binaryAttachments, Body body, Parameter... parameters) {
+    return facebookClient.makeRequestAsync(mappingExecutor, endpoint, executeAsPost, executeAsDelete,
+      binaryAttachments, body, parameters);
+  }
+
+  private JsonMapper getJsonMapper() {
+    return facebookClient.getJsonMapper();
+  }
+
+  private WebRequestor getWebRequestor() {
+    return facebookClient.getWebRequestor();
+  }
+
+  /**
+   * returns the blocking client this asynchronous client is based on
+   *
+   * @return the blocking client
+   */
+  public DefaultFacebookClient getFacebookClient() {
+    return facebookClient;
+  }
+
+  /**
+   * returns the executor used to check the responses for errors and to map the JSON to Java objects
+   *
+   * @return the mapping executor
+   */
+  public Executor getMappingExecutor() {
+    return mappingExecutor;
+  }
+}
@@ -33,7 +33,11 @@ import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
 
 import java.io.IOException;
+import java.io.Reader;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -113,6 +117,22 @@ public class DefaultFacebookClient extends BaseFacebookClient implements Faceboo
 
   protected boolean accessTokenInHeader;
 
+  /**
+   * Retry policy for failed idempotent requests, {@code null} if failed requests are not retried.
+   */
+  private RetryPolicy retryPolicy;
+
+  /**
+   * Cache for the responses of {@code fetchObject} and {@code fetchConnection}, {@code null} if nothing is cached.
+   */
+  private ResponseCache responseCache;
+
+  /**
+   * {@code true} if connections are parsed directly from the response body, see
+   * {@link #setStreamingConnectionParsing(boolean)}.
+   */
+  private boolean streamingConnectionParsing;
+
   protected DefaultFacebookClient() {
     this(Version.LATEST);
   }
@@ -239,12 +259,89 @@ public class DefaultFacebookClient extends BaseFacebookClient implements Faceboo
     return graphFacebookExceptionGenerator;
   }
 
+  /**
+   * Sets the policy that is used to retry failed idempotent requests ({@code GET} and {@code DELETE}).
+   * <p>
+   * By default, failed requests are not retried. The policy isn't applied to the requests of a
+   * {@link DefaultAsyncFacebookClient}.
+   *
+   * @param retryPolicy
+   *          the retry policy, {@code null} to disable retries
+   */
+  public void setRetryPolicy(RetryPolicy retryPolicy) {
+    this.retryPolicy = retryPolicy;
+  }
+
+  /**
+   * Returns the policy that is used to retry failed idempotent requests.
+   *
+   * @return the retry policy, {@code null} if retries are disabled
+   */
+  public RetryPolicy getRetryPolicy() {
+    return retryPolicy;
+  }
+
+  /**
+   * Sets the cache for the responses of {@link #fetchObject(String, Class, Parameter...)} and
+   * {@link #fetchConnection(String, Class, Parameter...)}.
+   * <p>
+   * By default, nothing is cached. The cache isn't used by the requests of a {@link DefaultAsyncFacebookClient}.
+   *
+   * @param responseCache
+   *          the response cache, {@code null} to disable caching
+   */
+  public void setResponseCache(ResponseCache responseCache) {
+    this.responseCache = responseCache;
+  }
+
+  /**
+   * Returns the cache for the responses of {@code fetchObject} and {@code fetchConnection}.
+   *
+   * @return the response cache, {@code null} if caching is disabled
+   */
+  public ResponseCache getResponseCache() {
+    return responseCache;
+  }
+
+  /**
+   * Enables parsing the responses of {@link #fetchConnection(String, Class, Parameter...)} directly from the response
+   * body, without creating a string of the whole body first.
+   * <p>
+   * By default, this is disabled and connections are fetched with {@link #makeRequest(String, Parameter...)}. If
+   * enabled, connections are fetched with {@link #makeJsonObjectRequest(String, Parameter...)} instead, so subclasses
+   * that hook into the requests have to override that method as well.
+   *
+   * @param streamingConnectionParsing
+   *          {@code true} to parse connections directly from the response body
+   */
+  public void setStreamingConnectionParsing(boolean streamingConnectionParsing) {
+    this.streamingConnectionParsing = streamingConnectionParsing;
+  }
+
+  /**
+   * Returns whether connections are parsed directly from the response body.
+   *
+   * @return {@code true} if connections are parsed directly from the response body
+   */
+  public boolean isStreamingConnectionParsing() {
+    return streamingConnectionParsing;
+  }
+
   @Override
   public boolean deleteObject(String object, Parameter... parameters) {
     verifyParameterPresence("object", object);
 
-    String responseString = makeRequest(object, true, true, null, parameters);
+    return isDeleteSuccessful(makeRequest(object, true, true, null, parameters));
+  }
 
+  /**
+   * Interprets the response of a delete request, Facebook answers with different formats here.
+   *
+   * @param responseString
+   *          the response of the delete request
+   * @return {@code true} if the object was deleted, {@code false} otherwise
+   */
+  protected boolean isDeleteSuccessful(String responseString) {
     try {
       JsonValue jObj = Json.parse(responseString);
       boolean success = false;
@@ -266,13 +363,29 @@ public class DefaultFacebookClient extends BaseFacebookClient implements Faceboo
   }
 
   /**
+   * Fetches the connection with {@link #makeRequest(String, Parameter...)}, or with
+   * {@link #makeJsonObjectRequest(String, Parameter...)} if {@link #setStreamingConnectionParsing(boolean) streaming
+   * connection parsing} is enabled.
+   *
    * @see com.restfb.FacebookClient#fetchConnection(java.lang.String, java.lang.Class, com.restfb.Parameter[])
    */
   @Override
   public <T> Connection<T> fetchConnection(String connection, Class<T> connectionType, Parameter... parameters) {
     verifyParameterPresence(CONNECTION, connection);
     verifyParameterPresence(CONNECTION_TYPE, connectionType);
-    return new Connection<>(this, makeRequest(connection, parameters), connectionType);
+
+    ResponseCache cache = responseCache;
+    if (cache == null) {
+      return streamingConnectionParsing
+          ? Connection.fromJsonObject(this, makeJsonObjectRequest(connection, parameters), connectionType)
+          : new Connection<>(this, makeRequest(connection, parameters), connectionType);
+    }
+
+    // the cache keeps the JSON as string, a JsonObject could be changed by the caller
+    return new Connection<>(this, cache.get(connection, connectionType, accessToken, parameters,
+      () -> streamingConnectionParsing ? makeJsonObjectRequest(connection, parameters).toString()
+          : makeRequest(connection, parameters)),
+      connectionType);
   }
 
   /**
@@ -280,17 +393,27 @@ public class DefaultFacebookClient extends BaseFacebookClient implements Faceboo
    */
   @Override
   public <T> Connection<T> fetchConnectionPage(final String connectionPageUrl, Class<T> connectionType) {
-    String connectionJson;
+    WebRequestor.Request request = createConnectionPageRequest(connectionPageUrl);
+    return Connection.fromJsonObject(this,
+      executeWithRetryPolicy(true,
+        () -> makeRequestAndProcessJsonObjectResponse(() -> webRequestor.executeGet(request))),
+      connectionType);
+  }
+
+  /**
+   * Creates the request for the given connection page url, the url already contains the access token.
+   *
+   * @param connectionPageUrl
+   *          the url of the connection page, as provided by the paging information of a connection
+   * @return the request for the connection page
+   */
+  protected WebRequestor.Request createConnectionPageRequest(String connectionPageUrl) {
     if (!isBlank(accessToken) && !isBlank(appSecret)) {
-      WebRequestor.Request request = new WebRequestor.Request(String.format("%s&%s=%s", connectionPageUrl,
+      return new WebRequestor.Request(String.format("%s&%s=%s", connectionPageUrl,
         urlEncode(APP_SECRET_PROOF_PARAM_NAME), obtainAppSecretProof(accessToken, appSecret)), null);
-      connectionJson = makeRequestAndProcessResponse(() -> webRequestor.executeGet(request));
-    } else {
-      connectionJson = makeRequestAndProcessResponse(
-        () -> webRequestor.executeGet(new WebRequestor.Request(connectionPageUrl, getHeaderAccessToken())));
     }
 
-    return new Connection<>(this, connectionJson, connectionType);
+    return new WebRequestor.Request(connectionPageUrl, getHeaderAccessToken());
   }
 
   /**
@@ -300,7 +423,12 @@ public class DefaultFacebookClient extends BaseFacebookClient implements Faceboo
   public <T> T fetchObject(String object, Class<T> objectType, Parameter... parameters) {
     verifyParameterPresence("object", object);
     verifyParameterPresence("objectType", objectType);
-    return jsonMapper.toJavaObject(makeRequest(object, parameters), objectType);
+    ResponseCache cache = responseCache;
+    if (cache == null) {
+      return jsonMapper.toJavaObject(makeRequest(object, parameters), objectType);
+    }
+    return jsonMapper.toJavaObject(
+      cache.get(object, objectType, accessToken, parameters, () -> makeRequest(object, parameters)), objectType);
   }
 
   @Override
@@ -789,6 +917,115 @@ public class DefaultFacebookClient extends BaseFacebookClient implements Faceboo
    */
   protected String makeRequest(String endpoint, final boolean executeAsPost, final boolean executeAsDelete,
       final List<BinaryAttachment> binaryAttachments, Body body, Parameter... parameters) {
+    WebRequestor.Request request =
+        createRequest(endpoint, executeAsPost, executeAsDelete, binaryAttachments, body, parameters);
+
+    ResponseCache cache = executeAsPost || executeAsDelete ? responseCache : null;
+    if (cache != null) {
+      cache.invalidate(endpoint);
+    }
+
+    try {
+      return executeWithRetryPolicy(!executeAsPost || executeAsDelete, () -> makeRequestAndProcessResponse(() -> {
+        if (executeAsDelete && !isHttpDeleteFallback()) {
+          return webRequestor.executeDelete(request);
+        }
+
+        if (executeAsPost) {
+          return webRequestor.executePost(request);
+        }
+
+        return webRequestor.executeGet(request);
+      }));
+    } finally {
+      // a read that ran while the write was sent may have cached the old state, even a failed write may have been
+      // applied by Facebook
+      if (cache != null) {
+        cache.invalidate(endpoint);
+      }
+    }
+  }
+
+  /**
+   * Executes a GET request and parses the response into a JSON object, a streamed response body is parsed directly.
+   * <p>
+   * This is the counterpart of {@link #makeRequest(String, Parameter...)} for connections.
+   *
+   * @param endpoint
+   *          Facebook Graph API endpoint.
+   * @param parameters
+   *          Arbitrary number of parameters to send along to Facebook as part of the API call.
+   * @return The JSON object returned by Facebook for the API call.
+   * @throws FacebookException
+   *           If an error occurs while making the Facebook API call or processing the response.
+   */
+  protected JsonObject makeJsonObjectRequest(String endpoint, Parameter... parameters) {
+    WebRequestor.Request request = createRequest(endpoint, false, false, null, null, parameters);
+    return executeWithRetryPolicy(true,
+      () -> makeRequestAndProcessJsonObjectResponse(() -> webRequestor.executeGet(request)));
+  }
+
+  /**
+   * Executes the given call and retries it according to the {@link RetryPolicy} of this client.
+   *
+   * @param idempotent
+   *          {@code true} if the call may be repeated without side effects
+   * @param call
+   *          the call that sends the request and processes the response
+   * @return the result of the call
+   */
+  protected <T> T executeWithRetryPolicy(boolean idempotent, Supplier<T> call) {
+    RetryPolicy policy = retryPolicy;
+    if (policy == null) {
+      return call.get();
+    }
+    return policy.execute(idempotent, call);
+  }
+
+  /**
+   * Coordinates the process of executing the API request GET/POST asynchronously and processing the response we
+   * receive from the endpoint.
+   * <p>
+   * The parameters are validated immediately, the response is processed with the given {@code executor}.
+   *
+   * @param executor
+   *          the executor used to process the response
+   * @param endpoint
+   *          Facebook Graph API endpoint.
+   * @param executeAsPost
+   *          {@code true} to execute the web request as a {@code POST}, {@code false} to execute as a {@code GET}.
+   * @param executeAsDelete
+   *          {@code true} to add a special 'treat this request as a {@code DELETE}' parameter.
+   * @param binaryAttachments
+   *          A list of binary files to include in a {@code POST} request. Pass {@code null} if no attachment should be
+   *          sent.
+   * @param body
+   *          The body of a {@code POST} request. Pass {@code null} if no body should be sent.
+   * @param parameters
+   *          Arbitrary number of parameters to send along to Facebook as part of the API call.
+   * @return future completed with the JSON returned by Facebook for the API call, or exceptionally with a
+   *         {@link FacebookException}
+   */
+  protected CompletableFuture<String> makeRequestAsync(Executor executor, String endpoint,
+      final boolean executeAsPost, final boolean executeAsDelete, final List<BinaryAttachment> binaryAttachments,
+      Body body, Parameter... parameters) {
+    WebRequestor.Request request =
+        createRequest(endpoint, executeAsPost, executeAsDelete, binaryAttachments, body, parameters);
+
+    if (executeAsDelete && !isHttpDeleteFallback()) {
+      return processResponseAsync(executor, webRequestor.executeDeleteAsync(request));
+    }
+
+    if (executeAsPost) {
+      return processResponseAsync(executor, webRequestor.executePostAsync(request));
+    }
+
+    return processResponseAsync(executor, webRequestor.executeGetAsync(request));
+  }
+
+  private WebRequestor.Request createRequest(String endpoint, final boolean executeAsPost,
+      final boolean executeAsDelete, final List<BinaryAttachment> binaryAttachments, Body body,
+      Parameter... parameters) {
     verifyParameterLegality(parameters);
 
     if (executeAsDelete && isHttpDeleteFallback()) {
@@ -807,20 +1044,12 @@ public class DefaultFacebookClient extends BaseFacebookClient implements Faceboo
 
     String headerAccessToken = (hasReel) ? accessToken : getHeaderAccessToken();
 
-    return makeRequestAndProcessResponse(() -> {
-      WebRequestor.Request request = new WebRequestor.Request(fullEndpoint, headerAccessToken, parameterString);
-      if (executeAsDelete && !isHttpDeleteFallback()) {
-        return webRequestor.executeDelete(request);
-      }
-
-      if (executeAsPost) {
-        request.setBinaryAttachments(binaryAttachments);
-        request.setBody(body);
-        return webRequestor.executePost(request);
-      }
-
-      return webRequestor.executeGet(request);
-    });
+    WebRequestor.Request request = new WebRequestor.Request(fullEndpoint, headerAccessToken, parameterString);
+    if (executeAsPost) {
+      request.setBinaryAttachments(binaryAttachments);
+      request.setBody(body);
+    }
+    return request;
   }
 
   private String getHeaderAccessToken() {
@@ -876,6 +1105,92 @@ public class DefaultFacebookClient extends BaseFacebookClient implements Faceboo
       throw new FacebookNetworkException(t);
     }
 
+    return processResponse(response);
+  }
+
+  /**
+   * Executes the API request and parses the response into a {@link JsonObject}.
+   * <p>
+   * If the {@link WebRequestor} streams the response body, a successful response is fed straight into the JSON parser
+   * and never exists as one big String.
+   *
+   * @param requestor
+   *          executes the request
+   * @return the JSON object returned by Facebook for the API call
+   * @throws FacebookException
+   *           If an error occurs while making the Facebook API request or processing the response.
+   */
+  protected JsonObject makeRequestAndProcessJsonObjectResponse(Requestor requestor) {
+    Response response;
+
+    try {
+      response = requestor.makeRequest();
+    } catch (Exception t) {
+      throw new FacebookNetworkException(t);
+    }
+
+    if (!response.isStreamingBody() || HTTP_OK != response.getStatusCode()) {
+      String json = processResponse(response);
+      try {
+        return Json.parse(json).asObject();
+      } catch (ParseException | UnsupportedOperationException e) {
+        throw new FacebookJsonMappingException("The connection JSON you provided was invalid: " + json, e);
+      }
+    }
+
+    JsonValue jsonValue;
+    try (Reader reader = response.getBodyReader()) {
+      jsonValue = Json.parse(reader);
+    } catch (IOException e) {
+      throw new FacebookNetworkException(e);
+    } catch (ParseException e) {
+      throw new FacebookJsonMappingException("The connection JSON you provided was invalid", e);
+    }
+
+    if (!jsonValue.isObject()) {
+      throw new FacebookJsonMappingException("The connection JSON you provided was invalid: " + jsonValue);
+    }
+
+    // the error responses are small, use the default error handling for them
+    JsonObject jsonObject = jsonValue.asObject();
+    if (jsonObject.contains(FacebookExceptionGenerator.ERROR_ATTRIBUTE_NAME)) {
+      processResponse(new Response(response.getStatusCode(), jsonObject.toString()));
+    }
+
+    return jsonObject;
+  }
+
+  /**
+   * Processes the response of an asynchronously executed request with the given {@code executor}.
+   *
+   * @param executor
+   *          the executor used to process the response
+   * @param responseFuture
+   *          the pending response
+   * @return future completed with the JSON returned by Facebook, or exceptionally with a {@link FacebookException}
+   */
+  protected CompletableFuture<String> processResponseAsync(Executor executor,
+      CompletableFuture<Response> responseFuture) {
+    return responseFuture.handleAsync((response, throwable) -> {
+      if (throwable != null) {
+        throw new FacebookNetworkException(
+          throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable);
+      }
+      return processResponse(response);
+    }, executor);
+  }
+
+  /**
+   * Checks the HTTP status code and the body of the response and throws the matching exception if Facebook reported
+   * an error.
+   *
+   * @param response
+   *          the response received from the endpoint
+   * @return The JSON returned by Facebook for the API call.
+   * @throws FacebookException
+   *           If Facebook reported an error or answered with an unexpected status code.
+   */
+  protected String processResponse(Response response) {
     // If we get any HTTP response code other than a 200 OK or 400 Bad Request
     // or 401 Not Authorized or 403 Forbidden or 404 Not Found or 500 Internal
     // Server Error or 302 Not Modified
@@ -893,7 +1208,9 @@ public class DefaultFacebookClient extends BaseFacebookClient implements Faceboo
       // If the response contained an error code, throw an exception.
       getFacebookExceptionGenerator().throwFacebookResponseStatusExceptionIfNecessary(json, response.getStatusCode());
     } catch (FacebookErrorMessageException feme) {
-      Optional.ofNullable(getWebRequestor()).map(WebRequestor::getDebugHeaderInfo).ifPresent(feme::setDebugHeaderInfo);
+      DebugHeaderInfo debugHeaderInfo = Optional.ofNullable(response.getDebugHeaderInfo())
+        .orElseGet(() -> Optional.ofNullable(getWebRequestor()).map(WebRequestor::getDebugHeaderInfo).orElse(null));
+      Optional.ofNullable(debugHeaderInfo).ifPresent(feme::setDebugHeaderInfo);
       throw feme;
     }
 
@@ -37,6 +37,7 @@ import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import com.restfb.exception.FacebookJsonMappingException;
@@ -206,51 +207,96 @@ public class DefaultJsonMapper implements JsonMapper {
         return null;
       }
 
-      JsonValue jsonValue = Json.parse(json);
-      T instance = createInstance(type);
+      return toJavaObject(Json.parse(json), () -> json, type, listOfFieldsWithAnnotation,
+        facebookFieldNamesWithMultipleMappings);
+    } catch (FacebookJsonMappingException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new FacebookJsonMappingException("Unable to map JSON to Java. Offending JSON is '" + json + "'.", e);
+    }
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T toJavaObject(JsonValue json, Class<T> type) {
+    if (json == null) {
+      throw new FacebookJsonMappingException("JSON value is null - can't map it.");
+    }
+
+    // Only non-empty objects are mapped from the tree, all other values get the special handling of their string form
+    if (!json.isObject() || json.asObject().isEmpty()) {
+      return toJavaObject(json.toString(), type);
+    }
 
-      if (instance instanceof JsonObject) {
-        return (T) jsonValue.asObject();
+    try {
+      if (type.equals(JsonObject.class)) {
+        return (T) json.asObject();
       }
 
-      if (!jsonValue.isObject()) {
-        return null;
+      List<FieldWithAnnotation<Facebook>> listOfFieldsWithAnnotation = findFieldsWithAnnotation(type, Facebook.class);
+      if (listOfFieldsWithAnnotation.isEmpty()) {
+        return toJavaObject(json.toString(), type);
       }
 
-      JsonObject jsonObject = jsonValue.asObject();
+      return toJavaObject(json, json::toString, type, listOfFieldsWithAnnotation,
+        facebookFieldNamesWithMultipleMappings(listOfFieldsWithAnnotation));
+    } catch (FacebookJsonMappingException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new FacebookJsonMappingException("Unable to map JSON to Java. Offending JSON is '" + json + "'.", e);
+    }
+  }
 
-      handleAbstractFacebookType(json, instance);
+  /**
+   * Maps the parsed JSON to a new instance of {@code type}, the JSON string is only created if it is needed for the
+   * original JSON field or for logging.
+   */
+  @SuppressWarnings("unchecked")
+  private <T> T toJavaObject(JsonValue jsonValue, Supplier<String> json, Class<T> type,
+      List<FieldWithAnnotation<Facebook>> listOfFieldsWithAnnotation, Set<String> facebookFieldNamesWithMultipleMappings)
+      throws IllegalAccessException, InvocationTargetException {
+    T instance = createInstance(type);
 
-      // For each Facebook-annotated field on the current Java object, pull data
-      // out of the JSON object and put it in the Java object
-      for (FieldWithAnnotation<Facebook> fieldWithAnnotation : listOfFieldsWithAnnotation) {
-        String facebookFieldName = getFacebookFieldName(fieldWithAnnotation);
+    if (instance instanceof JsonObject) {
+      return (T) jsonValue.asObject();
+    }
 
-        if (!jsonObject.contains(facebookFieldName)
-            && !fieldWithAnnotation.getField().getType().equals(Optional.class)) {
-          MAPPER_LOGGER.trace("No JSON value present for '{}', skipping. JSON is '{}'.", facebookFieldName, json);
-          continue;
-        }
+    if (!jsonValue.isObject()) {
+      return null;
+    }
+
+    JsonObject jsonObject = jsonValue.asObject();
 
-        fieldWithAnnotation.getField().setAccessible(true);
+    handleAbstractFacebookType(json, instance);
 
-        setJavaFileValue(json, facebookFieldNamesWithMultipleMappings, instance, jsonObject, fieldWithAnnotation,
-          facebookFieldName);
+    // For each Facebook-annotated field on the current Java object, pull data
+    // out of the JSON object and put it in the Java object
+    for (FieldWithAnnotation<Facebook> fieldWithAnnotation : listOfFieldsWithAnnotation) {
+      String facebookFieldName = getFacebookFieldName(fieldWithAnnotation);
+
+      if (!jsonObject.contains(facebookFieldName)
+          && !fieldWithAnnotation.getField().getType().equals(Optional.class)) {
+        if (MAPPER_LOGGER.isTraceEnabled()) {
+          MAPPER_LOGGER.trace("No JSON value present for '{}', skipping. JSON is '{}'.", facebookFieldName,
+            json.get());
+        }
+        continue;
       }
 
-      // If there are any methods annotated with @JsonMappingCompleted,
-      // invoke them.
-      invokeJsonMappingCompletedMethods(instance);
+      fieldWithAnnotation.getField().setAccessible(true);
 
-      return instance;
-    } catch (FacebookJsonMappingException e) {
-      throw e;
-    } catch (Exception e) {
-      throw new FacebookJsonMappingException("Unable to map JSON to Java. Offending JSON is '" + json + "'.", e);
+      setJavaFileValue(json, facebookFieldNamesWithMultipleMappings, instance, jsonObject, fieldWithAnnotation,
+        facebookFieldName);
     }
+
+    // If there are any methods annotated with @JsonMappingCompleted,
+    // invoke them.
+    invokeJsonMappingCompletedMethods(instance);
+
+    return instance;
   }
 
-  private <T> void setJavaFileValue(String json, Set<String> facebookFieldNamesWithMultipleMappings, T instance,
+  private <T> void setJavaFileValue(Supplier<String> json, Set<String> facebookFieldNamesWithMultipleMappings, T instance,
       JsonObject jsonObject, FieldWithAnnotation<Facebook> fieldWithAnnotation, String facebookFieldName)
       throws IllegalAccessException {
     // Set the Java field's value.
@@ -264,14 +310,14 @@ public class DefaultJsonMapper implements JsonMapper {
       fieldWithAnnotation.getField().set(instance, toJavaType(fieldWithAnnotation, jsonObject, facebookFieldName));
     } catch (FacebookJsonMappingException | ParseException | UnsupportedOperationException e) {
       if (facebookFieldNamesWithMultipleMappings.contains(facebookFieldName)) {
-        logMultipleMappingFailedForField(facebookFieldName, fieldWithAnnotation, json);
+        logMultipleMappingFailedForField(facebookFieldName, fieldWithAnnotation, json.get());
       } else {
         throw e;
       }
     }
   }
 
-  private <T> void handleAbstractFacebookType(String json, T instance) {
+  private <T> void handleAbstractFacebookType(Supplier<String> json, T instance) {
     if (instance instanceof AbstractFacebookType) {
       ReflectionUtils.setJson(instance, json);
     }
@@ -23,14 +23,38 @@ package com.restfb;
 
 import static com.restfb.logging.RestFBLogger.HTTP_LOGGER;
 
+import java.io.ByteArrayInputStream;
 import java.io.Closeable;
+import java.io.EOFException;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
+import java.io.Reader;
 import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.Socket;
 import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiConsumer;
+import java.util.function.UnaryOperator;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
 
 import com.restfb.types.FacebookReelAttachment;
 import com.restfb.util.StringUtils;
@@ -43,33 +67,61 @@ import com.restfb.util.UrlUtils;
  */
 public class DefaultWebRequestor implements WebRequestor {
   /**
-   * Arbitrary unique boundary marker for multipart {@code POST}s.
+   * Default buffer size for multipart {@code POST}s.
    */
-  private static final String MULTIPART_BOUNDARY = "**boundarystringwhichwill**neverbeencounteredinthewild**";
+  private static final int MULTIPART_DEFAULT_BUFFER_SIZE = 8192;
 
   /**
-   * Line separator for multipart {@code POST}s.
+   * By default, how long should we wait for a response (in ms)?
    */
-  private static final String MULTIPART_CARRIAGE_RETURN_AND_NEWLINE = "\r\n";
+  private static final int DEFAULT_READ_TIMEOUT_IN_MS = 180000;
 
   /**
-   * Hyphens for multipart {@code POST}s.
+   * Headers of the last response, kept for backward compatibility; use {@link Response#getHeaders()} instead.
    */
-  private static final String MULTIPART_TWO_HYPHENS = "--";
+  private volatile Map<String, List<String>> currentHeaders;
 
   /**
-   * Default buffer size for multipart {@code POST}s.
+   * If {@code true}, connections are returned to the keep-alive cache of the JDK instead of being disconnected.
    */
-  private static final int MULTIPART_DEFAULT_BUFFER_SIZE = 8192;
+  private boolean connectionReuse;
 
   /**
-   * By default, how long should we wait for a response (in ms)?
+   * If {@code true}, the response body is handed out as stream instead of being read into a String.
    */
-  private static final int DEFAULT_READ_TIMEOUT_IN_MS = 180000;
+  private boolean streamingResponseBody;
+
+  /**
+   * If {@code true}, Facebook is asked to send compressed responses.
+   */
+  private boolean compressionEnabled;
+
+  /**
+   * If {@code true}, concurrent identical {@code GET} requests share one HTTP call.
+   */
+  private boolean requestCoalescing;
+
+  private final ConcurrentMap<String, CompletableFuture<Response>> inFlightGetRequests = new ConcurrentHashMap<>();
+
+  private final AtomicLong coalescingHitCount = new AtomicLong();
+
+  private final AtomicLong coalescingMissCount = new AtomicLong();
 
-  private Map<String, List<String>> currentHeaders;
+  private final AtomicLong receivedBytes = new AtomicLong();
 
-  private DebugHeaderInfo debugHeaderInfo;
+  private final AtomicLong decodedBytes = new AtomicLong();
+
+  private final AtomicLong httpsRequestCount = new AtomicLong();
+
+  private final AtomicLong newConnectionCount = new AtomicLong();
+
+  private CountingSSLSocketFactory countingSSLSocketFactory;
+
+  /**
+   * Debug info of the last response, kept for backward compatibility; use {@link Response#getDebugHeaderInfo()}
+   * instead.
+   */
+  private volatile DebugHeaderInfo debugHeaderInfo;
 
   /**
    * By default, this is true, to prevent breaking existing usage
@@ -82,9 +134,70 @@ public class DefaultWebRequestor implements WebRequestor {
 
   @Override
   public Response executeGet(Request request) throws IOException {
+    if (requestCoalescing) {
+      return executeCoalescedGet(request);
+    }
     return execute(HttpMethod.GET, request);
   }
 
+  /**
+   * Executes the {@code GET} request, or waits for an identical request that is already in flight and shares its
+   * response.
+   */
+  private Response executeCoalescedGet(Request request) throws IOException {
+    String key = request.getFullUrl() + '\n' + StringUtils.trimToEmpty(request.getHeaderAccessToken());
+    CompletableFuture<Response> ownRequest = new CompletableFuture<>();
+    CompletableFuture<Response> inFlightRequest = inFlightGetRequests.putIfAbsent(key, ownRequest);
+
+    if (inFlightRequest != null) {
+      coalescingHitCount.incrementAndGet();
+      HTTP_LOGGER.debug("Sharing the response of an identical request to {}", request.getUrl());
+      return copyResponse(awaitResponse(inFlightRequest));
+    }
+
+    coalescingMissCount.incrementAndGet();
+    try {
+      Response response = execute(HttpMethod.GET, request);
+      // a shared body has to be read completely, a stream can be consumed only once
+      response.getBody();
+      ownRequest.complete(response);
+      return response;
+    } catch (Throwable t) {
+      // the waiting requests have to be released on every failure, errors included
+      ownRequest.completeExceptionally(t);
+      throw t;
+    } finally {
+      inFlightGetRequests.remove(key, ownRequest);
+    }
+  }
+
+  private Response awaitResponse(CompletableFuture<Response> inFlightRequest) throws IOException {
+    try {
+      return inFlightRequest.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      InterruptedIOException interruptedException = new InterruptedIOException("Coalesced request interrupted");
+      interruptedException.initCause(e);
+      throw interruptedException;
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IOException("The coalesced request failed", cause);
+    }
+  }
+
+  private Response copyResponse(Response response) {
+    Response copy = new Response(response.getStatusCode(), response.getBody());
+    copy.setHeaders(response.getHeaders());
+    copy.setDebugHeaderInfo(response.getDebugHeaderInfo());
+    return copy;
+  }
+
   private Response executeReelUpload(Request request) throws IOException {
     Optional<FacebookReelAttachment> reelOpt = request.getReel();
 
@@ -97,10 +210,12 @@ public class DefaultWebRequestor implements WebRequestor {
     logRequestAndAttachmentOnDebug(request, request.getBinaryAttachments());
 
     HttpURLConnection httpUrlConnection = null;
+    Response response = null;
 
     try {
       String url = request.getUrl();
       httpUrlConnection = openConnection(new URL(url));
+      trackConnection(httpUrlConnection);
       httpUrlConnection.setReadTimeout(DEFAULT_READ_TIMEOUT_IN_MS);
 
       // Allow subclasses to customize the connection if they'd like to - set
@@ -114,29 +229,65 @@ public class DefaultWebRequestor implements WebRequestor {
       httpUrlConnection.setRequestProperty("Connection", "Keep-Alive");
 
       initHeaderAccessToken(httpUrlConnection, request);
+      initAcceptEncoding(httpUrlConnection);
       fillReelHeader(httpUrlConnection, reel);
 
+      if (reel.isBinary()) {
+        httpUrlConnection.setFixedLengthStreamingMode(reel.getFileSize() - reel.getOffset());
+      }
+
       httpUrlConnection.connect();
 
       if (reel.isBinary()) {
         try (OutputStream outputStream = httpUrlConnection.getOutputStream()) {
-          write(reel.getData(), outputStream, MULTIPART_DEFAULT_BUFFER_SIZE);
+          writeReel(reel, outputStream);
         }
       }
 
       HTTP_LOGGER.debug("Response headers: {}", httpUrlConnection.getHeaderFields());
       fillHeaderAndDebugInfo(httpUrlConnection);
-      return fetchResponse(httpUrlConnection);
+      response = fetchResponse(httpUrlConnection);
+      fillResponseMetadata(httpUrlConnection, response);
+      return response;
     } finally {
       closeAttachmentsOnAutoClose(request.getBinaryAttachments());
-      closeQuietly(httpUrlConnection);
+      releaseConnection(httpUrlConnection, response);
+    }
+  }
+
+  /**
+   * Sends the reel from its offset on, the bytes Facebook already received are skipped.
+   */
+  private void writeReel(FacebookReelAttachment reel, OutputStream outputStream) throws IOException {
+    if (reel.getFile() != null) {
+      writeFile(reel.getFile(), reel.getOffset(), outputStream, new byte[MULTIPART_DEFAULT_BUFFER_SIZE]);
+      return;
+    }
+
+    InputStream reelStream = reel.getData();
+    skipFully(reelStream, reel.getOffset());
+    write(reelStream, outputStream, MULTIPART_DEFAULT_BUFFER_SIZE);
+  }
+
+  private static void skipFully(InputStream inputStream, long count) throws IOException {
+    long remaining = count;
+    while (remaining > 0) {
+      long skipped = inputStream.skip(remaining);
+      if (skipped <= 0) {
+        // skip may return 0 without reaching the end, a read tells both cases apart
+        if (inputStream.read() < 0) {
+          throw new EOFException("The reel ended before the offset " + count);
+        }
+        skipped = 1;
+      }
+      remaining -= skipped;
     }
   }
 
   private void fillReelHeader(HttpURLConnection httpUrlConnection, FacebookReelAttachment reel) {
     if (reel.isBinary()) {
-      httpUrlConnection.setRequestProperty("offset", "0");
-      httpUrlConnection.setRequestProperty("file_size", String.valueOf(reel.getFileSizeInBytes()));
+      httpUrlConnection.setRequestProperty("offset", String.valueOf(reel.getOffset()));
+      httpUrlConnection.setRequestProperty("file_size", String.valueOf(reel.getFileSize()));
     } else {
       httpUrlConnection.setRequestProperty("file_url", reel.getReelUrl());
     }
@@ -154,10 +305,12 @@ public class DefaultWebRequestor implements WebRequestor {
     logRequestAndAttachmentOnDebug(request, binaryAttachments);
 
     HttpURLConnection httpUrlConnection = null;
+    Response response = null;
 
     try {
       String url = buildPostUrl(request, binaryAttachments);
       httpUrlConnection = openConnection(new URL(url));
+      trackConnection(httpUrlConnection);
       httpUrlConnection.setReadTimeout(DEFAULT_READ_TIMEOUT_IN_MS);
 
       // Allow subclasses to customize the connection if they'd like to - set
@@ -169,6 +322,7 @@ public class DefaultWebRequestor implements WebRequestor {
       httpUrlConnection.setUseCaches(false);
 
       initHeaderAccessToken(httpUrlConnection, request);
+      initAcceptEncoding(httpUrlConnection);
 
       if (!binaryAttachments.isEmpty()) {
         setMultipartRequestProperties(httpUrlConnection);
@@ -178,32 +332,56 @@ public class DefaultWebRequestor implements WebRequestor {
         setJsonRequestProperties(httpUrlConnection);
       }
 
+      // If we have binary attachments, the body is just the attachments and the
+      // other parameters are passed in via the URL.
+      // Otherwise the body is the URL parameter string.
+      byte[] requestBody = null;
+      if (!binaryAttachments.isEmpty()) {
+        setMultipartStreamingMode(httpUrlConnection, binaryAttachments);
+      } else {
+        requestBody = createRequestBody(request);
+        httpUrlConnection.setFixedLengthStreamingMode(requestBody.length);
+      }
+
       httpUrlConnection.connect();
 
       try (OutputStream outputStream = httpUrlConnection.getOutputStream()) {
-
-        // If we have binary attachments, the body is just the attachments and the
-        // other parameters are passed in via the URL.
-        // Otherwise the body is the URL parameter string.
-        if (!binaryAttachments.isEmpty()) {
+        if (requestBody == null) {
           writeBinaryAttachments(binaryAttachments, outputStream);
         } else {
-          writeRequestToOutputStream(request, outputStream);
+          outputStream.write(requestBody);
         }
       }
 
       HTTP_LOGGER.debug("Response headers: {}", httpUrlConnection.getHeaderFields());
       fillHeaderAndDebugInfo(httpUrlConnection);
-      return fetchResponse(httpUrlConnection);
+      response = fetchResponse(httpUrlConnection);
+      fillResponseMetadata(httpUrlConnection, response);
+      return response;
     } finally {
       closeAttachmentsOnAutoClose(binaryAttachments);
-      closeQuietly(httpUrlConnection);
+      releaseConnection(httpUrlConnection, response);
     }
   }
 
   private void writeBinaryAttachments(List<BinaryAttachment> binaryAttachments, OutputStream outputStream) throws IOException {
+    // one copy buffer for all attachments of the request
+    byte[] buffer = new byte[MULTIPART_DEFAULT_BUFFER_SIZE];
     for (BinaryAttachment binaryAttachment : binaryAttachments) {
-      writeBinaryAttachmentToOutputStream(binaryAttachment, outputStream);
+      writeBinaryAttachmentToOutputStream(binaryAttachment, outputStream, buffer);
+    }
+  }
+
+  /**
+   * Streams the multipart body instead of letting {@link HttpURLConnection} buffer it in memory: with a
+   * {@code Content-Length} if all attachment sizes are known, chunked otherwise.
+   */
+  private void setMultipartStreamingMode(HttpURLConnection httpUrlConnection, List<BinaryAttachment> binaryAttachments) {
+    long contentLength = MultipartFormData.calculateContentLength(binaryAttachments, this::createFormFieldName);
+    if (contentLength >= 0) {
+      httpUrlConnection.setFixedLengthStreamingMode(contentLength);
+    } else {
+      httpUrlConnection.setChunkedStreamingMode(MULTIPART_DEFAULT_BUFFER_SIZE);
     }
   }
 
@@ -213,27 +391,40 @@ public class DefaultWebRequestor implements WebRequestor {
 
   private void setMultipartRequestProperties(HttpURLConnection httpUrlConnection) {
     httpUrlConnection.setRequestProperty("Connection", "Keep-Alive");
-    httpUrlConnection.setRequestProperty("Content-Type", "multipart/form-data;boundary=" + MULTIPART_BOUNDARY);
+    httpUrlConnection.setRequestProperty("Content-Type", MultipartFormData.CONTENT_TYPE);
   }
 
   private String buildPostUrl(Request request, List<BinaryAttachment> binaryAttachments) {
     return request.getUrl() + ((!binaryAttachments.isEmpty() || request.hasBody()) ? "?" + request.getParameters() : "");
   }
 
-  private void writeBinaryAttachmentToOutputStream(BinaryAttachment binaryAttachment, OutputStream outputStream) throws IOException {
-    StringBuilder formData = createBinaryAttachmentFormData(binaryAttachment);
-    outputStream.write(formData.toString().getBytes(StringUtils.ENCODING_CHARSET));
-    write(binaryAttachment.getData(), outputStream, MULTIPART_DEFAULT_BUFFER_SIZE);
-    outputStream.write((MULTIPART_CARRIAGE_RETURN_AND_NEWLINE + MULTIPART_TWO_HYPHENS + MULTIPART_BOUNDARY
-            + MULTIPART_TWO_HYPHENS + MULTIPART_CARRIAGE_RETURN_AND_NEWLINE).getBytes(StringUtils.ENCODING_CHARSET));
+  private void writeBinaryAttachmentToOutputStream(BinaryAttachment binaryAttachment, OutputStream outputStream,
+      byte[] buffer) throws IOException {
+    outputStream.write(MultipartFormData.createPartHeader(binaryAttachment, createFormFieldName(binaryAttachment)));
+    if (binaryAttachment.getFile() != null) {
+      writeFile(binaryAttachment.getFile(), 0, outputStream, buffer);
+    } else {
+      write(binaryAttachment.getData(), outputStream, buffer);
+    }
+    outputStream.write(MultipartFormData.createPartTrailer());
+  }
+
+  /**
+   * Streams a file through the given copy buffer, the file is opened only while it is sent and never loaded into
+   * memory as a whole. The bytes in front of the offset are not sent.
+   */
+  private void writeFile(Path file, long offset, OutputStream outputStream, byte[] buffer) throws IOException {
+    try (FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.READ)) {
+      fileChannel.position(offset);
+      write(Channels.newInputStream(fileChannel), outputStream, buffer);
+    }
   }
 
-  private static void writeRequestToOutputStream(Request request, OutputStream outputStream) throws IOException {
+  private static byte[] createRequestBody(Request request) {
     if (request.hasBody()) {
-      outputStream.write(request.getBody().getData().getBytes(StringUtils.ENCODING_CHARSET));
-    } else {
-      outputStream.write(request.getParameters().getBytes(StringUtils.ENCODING_CHARSET));
+      return request.getBody().getData().getBytes(StringUtils.ENCODING_CHARSET);
     }
+    return StringUtils.trimToEmpty(request.getParameters()).getBytes(StringUtils.ENCODING_CHARSET);
   }
 
   private static void logRequestAndAttachmentOnDebug(Request request, List<BinaryAttachment> binaryAttachments) {
@@ -245,25 +436,18 @@ public class DefaultWebRequestor implements WebRequestor {
     }
   }
 
-  private StringBuilder createBinaryAttachmentFormData(BinaryAttachment binaryAttachment) {
-    StringBuilder stringBuilder = new StringBuilder();
-    stringBuilder.append(MULTIPART_TWO_HYPHENS).append(MULTIPART_BOUNDARY).append(MULTIPART_CARRIAGE_RETURN_AND_NEWLINE)
-      .append("Content-Disposition: form-data; name=\"").append(createFormFieldName(binaryAttachment))
-      .append("\"; filename=\"").append(binaryAttachment.getFilename()).append("\"");
-
-    stringBuilder.append(MULTIPART_CARRIAGE_RETURN_AND_NEWLINE).append("Content-Type: ")
-      .append(binaryAttachment.getContentType());
-
-    stringBuilder.append(MULTIPART_CARRIAGE_RETURN_AND_NEWLINE).append(MULTIPART_CARRIAGE_RETURN_AND_NEWLINE);
-    return stringBuilder;
-  }
-
   private void closeAttachmentsOnAutoClose(List<BinaryAttachment> binaryAttachments) {
     if (autocloseBinaryAttachmentStream && !binaryAttachments.isEmpty()) {
       binaryAttachments.stream().filter(BinaryAttachment::hasBinaryData).map(BinaryAttachment::getData).forEach(this::closeQuietly);
     }
   }
 
+  private void initAcceptEncoding(HttpURLConnection httpUrlConnection) {
+    if (compressionEnabled) {
+      httpUrlConnection.setRequestProperty("Accept-Encoding", "gzip, deflate");
+    }
+  }
+
   protected void initHeaderAccessToken(HttpURLConnection httpUrlConnection, Request request) {
     if (request.isReelUpload()) {
       httpUrlConnection.setRequestProperty("Authorization", "OAuth " + request.getHeaderAccessToken());
@@ -338,6 +522,65 @@ public class DefaultWebRequestor implements WebRequestor {
     }
   }
 
+  /**
+   * Releases the connection after a request. In connection reuse mode a connection whose response was read completely
+   * is left to the keep-alive cache of the JDK, every other connection is disconnected. If the request failed or the
+   * body is empty, the error stream is closed before. A streamed response releases the connection itself, as soon as
+   * its body is closed.
+   */
+  private void releaseConnection(HttpURLConnection httpUrlConnection, Response response) {
+    if (response != null && response.isStreamingBody()) {
+      return;
+    }
+
+    // a response never has a null body, an empty body is all that is left of a stream that couldn't be read
+    boolean bodyRead = response != null && !response.getBody().isEmpty();
+    if (connectionReuse && bodyRead) {
+      return;
+    }
+
+    if (!bodyRead) {
+      closeErrorStreamQuietly(httpUrlConnection);
+    }
+    closeQuietly(httpUrlConnection);
+  }
+
+  private void closeErrorStreamQuietly(HttpURLConnection httpUrlConnection) {
+    if (httpUrlConnection == null) {
+      return;
+    }
+
+    try {
+      InputStream errorStream = httpUrlConnection.getErrorStream();
+      if (errorStream != null) {
+        errorStream.close();
+      }
+    } catch (Exception e) {
+      HTTP_LOGGER.debug("Unable to close the error stream of {}: ", httpUrlConnection, e);
+    }
+  }
+
+  /**
+   * Installs the counting socket factory on HTTPS connections in connection reuse mode, so new connections can be told
+   * apart from reused ones. Without connection reuse every request opens a new connection, so the socket factory is
+   * left alone.
+   */
+  void trackConnection(HttpURLConnection httpUrlConnection) {
+    if (connectionReuse && httpUrlConnection instanceof HttpsURLConnection) {
+      HttpsURLConnection httpsUrlConnection = (HttpsURLConnection) httpUrlConnection;
+      httpsUrlConnection.setSSLSocketFactory(getCountingSSLSocketFactory(httpsUrlConnection.getSSLSocketFactory()));
+      httpsRequestCount.incrementAndGet();
+    }
+  }
+
+  private synchronized CountingSSLSocketFactory getCountingSSLSocketFactory(SSLSocketFactory delegate) {
+    if (countingSSLSocketFactory == null || countingSSLSocketFactory.delegate != delegate) {
+      // the JDK keep-alive cache is keyed by the socket factory, so the same instance must be used for every request
+      countingSSLSocketFactory = new CountingSSLSocketFactory(delegate, newConnectionCount);
+    }
+    return countingSSLSocketFactory;
+  }
+
   /**
    * Writes the contents of the {@code source} stream to the {@code destination} stream using the given
    * {@code bufferSize}.
@@ -354,14 +597,30 @@ public class DefaultWebRequestor implements WebRequestor {
    *           If either {@code source} or @{code destination} is {@code null}.
    */
   protected void write(InputStream source, OutputStream destination, int bufferSize) throws IOException {
+    write(source, destination, new byte[bufferSize]);
+  }
+
+  /**
+   * Writes the contents of the {@code source} stream to the {@code destination} stream using the given
+   * {@code buffer}, so the buffer can be reused for several streams.
+   *
+   * @param source
+   *          The source stream to copy from.
+   * @param destination
+   *          The destination stream to copy to.
+   * @param buffer
+   *          The copy buffer.
+   * @throws IOException
+   *           If an error occurs while writing.
+   */
+  protected void write(InputStream source, OutputStream destination, byte[] buffer) throws IOException {
     if (source == null || destination == null) {
       throw new IllegalArgumentException("Must provide non-null source and destination streams.");
     }
 
     int read;
-    byte[] chunk = new byte[bufferSize];
-    while ((read = source.read(chunk)) > 0)
-      destination.write(chunk, 0, read);
+    while ((read = source.read(buffer)) > 0)
+      destination.write(buffer, 0, read);
   }
 
   /**
@@ -373,14 +632,7 @@ public class DefaultWebRequestor implements WebRequestor {
    * @return The form field name for the given binary attachment.
    */
   protected String createFormFieldName(BinaryAttachment binaryAttachment) {
-
-    if (binaryAttachment.getFieldName() != null) {
-      return binaryAttachment.getFieldName();
-    }
-
-    String name = binaryAttachment.getFilename();
-    return Optional.ofNullable(name).filter(f -> f.contains(".")).map(f -> f.substring(0, f.lastIndexOf('.')))
-      .orElse(name);
+    return MultipartFormData.createFormFieldName(binaryAttachment);
   }
 
   /**
@@ -405,6 +657,184 @@ public class DefaultWebRequestor implements WebRequestor {
     this.autocloseBinaryAttachmentStream = autocloseBinaryAttachmentStream;
   }
 
+  /**
+   * returns if connections are reused
+   *
+   * @return {@code true} if connections are returned to the keep-alive cache of the JDK, {@code false} if every
+   *         connection is disconnected after the request (default)
+   */
+  public boolean isConnectionReuse() {
+    return connectionReuse;
+  }
+
+  /**
+   * define if connections are reused.
+   * <p>
+   * By default, every connection is disconnected after the request, so every request pays a new TCP and TLS handshake.
+   * With connection reuse the response is read completely and the streams are closed, but the socket stays in the
+   * keep-alive cache of the JDK and is used again by the next request to the same host. The size of the cache and the
+   * idle timeout are configured with {@link #configureKeepAliveCache(int, int)}.
+   *
+   * @param connectionReuse
+   *          {@code true} if connections should be reused, {@code false} otherwise
+   */
+  public void setConnectionReuse(boolean connectionReuse) {
+    this.connectionReuse = connectionReuse;
+  }
+
+  /**
+   * returns if compressed responses are requested
+   *
+   * @return {@code true} if Facebook is asked for gzip or deflate compressed responses, {@code false} otherwise
+   *         (default)
+   */
+  public boolean isCompressionEnabled() {
+    return compressionEnabled;
+  }
+
+  /**
+   * define if compressed responses are requested.
+   * <p>
+   * If enabled, every request sends {@code Accept-Encoding: gzip, deflate} and compressed responses are decoded while
+   * they are read, so the caller always gets the plain body. Compare {@link #getReceivedBytes()} and
+   * {@link #getDecodedBytes()} to measure the savings.
+   *
+   * @param compressionEnabled
+   *          {@code true} if compressed responses should be requested, {@code false} otherwise
+   */
+  public void setCompressionEnabled(boolean compressionEnabled) {
+    this.compressionEnabled = compressionEnabled;
+  }
+
+  /**
+   * returns if concurrent identical {@code GET} requests are coalesced
+   *
+   * @return {@code true} if identical requests share one HTTP call, {@code false} otherwise (default)
+   */
+  public boolean isRequestCoalescing() {
+    return requestCoalescing;
+  }
+
+  /**
+   * define if concurrent identical {@code GET} requests are coalesced.
+   * <p>
+   * If enabled, a {@code GET} request to the same URL with the same access token as a request that is still in flight
+   * doesn't start a new HTTP call. It waits for the running call and gets a copy of its response. Only concurrent
+   * requests are coalesced, use the {@link ETagWebRequestor} for repeated requests. Coalesced responses are never
+   * streamed, because the body is shared.
+   *
+   * @param requestCoalescing
+   *          {@code true} if identical requests should share one HTTP call, {@code false} otherwise
+   */
+  public void setRequestCoalescing(boolean requestCoalescing) {
+    this.requestCoalescing = requestCoalescing;
+  }
+
+  /**
+   * returns the number of {@code GET} requests that were answered with the response of an identical request in flight
+   *
+   * @return number of coalesced requests
+   */
+  public long getCoalescingHitCount() {
+    return coalescingHitCount.get();
+  }
+
+  /**
+   * returns the number of {@code GET} requests that had to start their own HTTP call while coalescing was enabled
+   *
+   * @return number of requests without an identical request in flight
+   */
+  public long getCoalescingMissCount() {
+    return coalescingMissCount.get();
+  }
+
+  /**
+   * returns the number of response body bytes received from the network, compressed bodies are counted with their
+   * compressed size
+   *
+   * @return number of received response body bytes
+   */
+  public long getReceivedBytes() {
+    return receivedBytes.get();
+  }
+
+  /**
+   * returns the number of response body bytes after decoding, this is the size of the bodies without compression
+   *
+   * @return number of decoded response body bytes
+   */
+  public long getDecodedBytes() {
+    return decodedBytes.get();
+  }
+
+  /**
+   * returns if response bodies are streamed
+   *
+   * @return {@code true} if the responses contain a streamed body, {@code false} if the body is read into a String
+   *         before the request returns (default)
+   */
+  public boolean isStreamingResponseBody() {
+    return streamingResponseBody;
+  }
+
+  /**
+   * define if response bodies are streamed.
+   * <p>
+   * A streamed body is not read before the request returns, the {@link Response} carries a {@link Reader} that is
+   * still connected to the network instead. The {@link DefaultFacebookClient} feeds this reader straight into the JSON
+   * parser, so large connection pages never exist as one big String. Whoever consumes the response must read or close
+   * the body, otherwise the connection is not released.
+   *
+   * @param streamingResponseBody
+   *          {@code true} if response bodies should be streamed, {@code false} otherwise
+   */
+  public void setStreamingResponseBody(boolean streamingResponseBody) {
+    this.streamingResponseBody = streamingResponseBody;
+  }
+
+  /**
+   * Configures the keep-alive cache of the JDK {@link HttpURLConnection}, which is shared by all requestors in the JVM.
+   * <p>
+   * The values are passed as the system properties {@code http.maxConnections} and {@code http.keepAlive.time.server}.
+   * The JDK reads them when the first connection is opened, so call this method before any request is sent. The idle
+   * timeout is only supported by Java 19 and newer, older versions use the timeout sent by the server or 5 seconds.
+   *
+   * @param maxConnectionsPerDestination
+   *          maximum number of idle connections kept per host
+   * @param idleTimeoutInSeconds
+   *          how long an idle connection is kept in the cache
+   */
+  public static void configureKeepAliveCache(int maxConnectionsPerDestination, int idleTimeoutInSeconds) {
+    if (maxConnectionsPerDestination < 1 || idleTimeoutInSeconds < 1) {
+      throw new IllegalArgumentException("The keep-alive cache size and idle timeout must be positive");
+    }
+    System.setProperty("http.maxConnections", String.valueOf(maxConnectionsPerDestination));
+    System.setProperty("http.keepAlive.time.server", String.valueOf(idleTimeoutInSeconds));
+  }
+
+  /**
+   * returns the number of HTTPS connections this requestor had to open
+   * <p>
+   * Connections are only counted in connection reuse mode, see {@link #setConnectionReuse(boolean)}, and if a
+   * subclass doesn't replace the {@link SSLSocketFactory} in {@link #customizeConnection(HttpURLConnection)}.
+   *
+   * @return number of newly opened connections
+   */
+  public long getNewConnectionCount() {
+    return newConnectionCount.get();
+  }
+
+  /**
+   * returns the number of HTTPS requests that were sent over a reused connection from the keep-alive cache
+   * <p>
+   * Like {@link #getNewConnectionCount()}, requests are only counted in connection reuse mode.
+   *
+   * @return number of requests that didn't need a new connection
+   */
+  public long getReusedConnectionCount() {
+    return Math.max(0, httpsRequestCount.get() - newConnectionCount.get());
+  }
+
   /**
    * access to the current response headers
    * 
@@ -429,14 +859,17 @@ public class DefaultWebRequestor implements WebRequestor {
       request.getParameters());
 
     HttpURLConnection httpUrlConnection = null;
+    Response response = null;
 
     try {
       httpUrlConnection = openConnection(new URL(request.getFullUrl()));
+      trackConnection(httpUrlConnection);
       httpUrlConnection.setReadTimeout(DEFAULT_READ_TIMEOUT_IN_MS);
       httpUrlConnection.setUseCaches(false);
       httpUrlConnection.setRequestMethod(httpMethod.name());
 
       initHeaderAccessToken(httpUrlConnection, request);
+      initAcceptEncoding(httpUrlConnection);
 
       // Allow subclasses to customize the connection if they'd like to - set
       // their own headers, timeouts, etc.
@@ -446,24 +879,71 @@ public class DefaultWebRequestor implements WebRequestor {
 
       HTTP_LOGGER.trace("Response headers: {}", httpUrlConnection.getHeaderFields());
       fillHeaderAndDebugInfo(httpUrlConnection);
-      return fetchResponse(httpUrlConnection);
+      response = fetchResponse(httpUrlConnection);
+      fillResponseMetadata(httpUrlConnection, response);
+      return response;
     } finally {
-      closeQuietly(httpUrlConnection);
+      releaseConnection(httpUrlConnection, response);
     }
   }
 
   protected void fillHeaderAndDebugInfo(HttpURLConnection httpUrlConnection) {
     currentHeaders = Collections.unmodifiableMap(httpUrlConnection.getHeaderFields());
+    debugHeaderInfo = createDebugHeaderInfo(httpUrlConnection);
+    logUsedApiVersion(debugHeaderInfo);
+  }
+
+  /**
+   * Creates the {@link DebugHeaderInfo} of the response that is attached to the given connection.
+   *
+   * @param httpUrlConnection
+   *          the connection with the response headers
+   * @return the debug header info of this response
+   */
+  protected DebugHeaderInfo createDebugHeaderInfo(HttpURLConnection httpUrlConnection) {
+    return createDebugHeaderInfo(httpUrlConnection::getHeaderField);
+  }
 
-    String usedApiVersion = StringUtils.trimToEmpty(httpUrlConnection.getHeaderField("facebook-api-version"));
-    HTTP_LOGGER.debug("Facebook used the API {} to answer your request", usedApiVersion);
+  /**
+   * Attaches the headers and the debug info of this call to the response, so they don't have to be read from the
+   * shared state of the requestor.
+   */
+  private void fillResponseMetadata(HttpURLConnection httpUrlConnection, Response response) {
+    if (response == null) {
+      return;
+    }
+    response.setHeaders(httpUrlConnection.getHeaderFields());
+    response.setDebugHeaderInfo(createDebugHeaderInfo(httpUrlConnection));
+  }
 
+  /**
+   * Creates the {@link DebugHeaderInfo} from the Facebook response headers.
+   * <p>
+   * The header lookup is transport neutral, so every {@link WebRequestor} implementation can reuse it.
+   *
+   * @param headerLookup
+   *          returns the value of the given (case-insensitive) header field name, may return {@code null}
+   * @return the debug header info
+   */
+  static DebugHeaderInfo createDebugHeaderInfo(UnaryOperator<String> headerLookup) {
+    String usedApiVersion = StringUtils.trimToEmpty(headerLookup.apply("facebook-api-version"));
     Version usedVersion = Version.getVersionFromString(usedApiVersion);
     DebugHeaderInfo.DebugHeaderInfoFactory factory =
         DebugHeaderInfo.DebugHeaderInfoFactory.create().setVersion(usedVersion);
 
-    Arrays.stream(FbHeaderField.values()).forEach(f -> f.getPutHeader().accept(httpUrlConnection, factory));
-    debugHeaderInfo = factory.build();
+    Arrays.stream(FbHeaderField.values()).forEach(f -> f.getPutHeader().accept(headerLookup, factory));
+    return factory.build();
+  }
+
+  /**
+   * Logs the API version Facebook used to answer the request, every {@link WebRequestor} implementation logs it once
+   * per response with this method.
+   *
+   * @param responseDebugHeaderInfo
+   *          the debug header info of the response
+   */
+  static void logUsedApiVersion(DebugHeaderInfo responseDebugHeaderInfo) {
+    HTTP_LOGGER.debug("Facebook used the API {} to answer your request", responseDebugHeaderInfo.getUsedVersion());
   }
 
   protected Response fetchResponse(HttpURLConnection httpUrlConnection) throws IOException {
@@ -475,16 +955,187 @@ public class DefaultWebRequestor implements WebRequestor {
         httpUrlConnection.getURL(), e);
     }
 
+    inputStream = decodeInputStream(httpUrlConnection, inputStream);
+
+    if (streamingResponseBody && inputStream != null) {
+      Response response = Response.streaming(httpUrlConnection.getResponseCode(),
+        new InputStreamReader(new ConnectionReleasingInputStream(inputStream, httpUrlConnection),
+          StringUtils.ENCODING_CHARSET));
+      HTTP_LOGGER.debug("Facebook responded with {}", response);
+      return response;
+    }
+
     Response response = new Response(httpUrlConnection.getResponseCode(), StringUtils.fromInputStream(inputStream));
     HTTP_LOGGER.debug("Facebook responded with {}", response);
     return response;
   }
 
+  /**
+   * Wraps the response stream, so the bytes are counted and a compressed body is decoded while it is read.
+   */
+  private InputStream decodeInputStream(HttpURLConnection httpUrlConnection, InputStream inputStream)
+      throws IOException {
+    if (inputStream == null) {
+      return null;
+    }
+
+    InputStream countedStream = new CountingInputStream(inputStream, receivedBytes);
+    String contentEncoding = StringUtils.trimToEmpty(httpUrlConnection.getContentEncoding()).toLowerCase();
+
+    if ("gzip".equals(contentEncoding)) {
+      try {
+        return new CountingInputStream(new GZIPInputStream(countedStream, MULTIPART_DEFAULT_BUFFER_SIZE), decodedBytes);
+      } catch (EOFException e) {
+        // compressed, but empty body
+        return new CountingInputStream(new ByteArrayInputStream(new byte[0]), decodedBytes);
+      }
+    }
+
+    if ("deflate".equals(contentEncoding)) {
+      return new CountingInputStream(new InflaterInputStream(countedStream), decodedBytes);
+    }
+
+    return new CountingInputStream(countedStream, decodedBytes);
+  }
+
+  /**
+   * Input stream that counts the bytes read from the wrapped stream.
+   */
+  private static class CountingInputStream extends FilterInputStream {
+
+    private final AtomicLong counter;
+
+    CountingInputStream(InputStream inputStream, AtomicLong counter) {
+      super(inputStream);
+      this.counter = counter;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int read = super.read();
+      if (read != -1) {
+        counter.incrementAndGet();
+      }
+      return read;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      int read = super.read(b, off, len);
+      if (read > 0) {
+        counter.addAndGet(read);
+      }
+      return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      long skipped = super.skip(n);
+      counter.addAndGet(skipped);
+      return skipped;
+    }
+  }
+
+  /**
+   * Input stream of a streamed response body, that releases the connection when it's closed.
+   */
+  private class ConnectionReleasingInputStream extends FilterInputStream {
+
+    private final HttpURLConnection httpUrlConnection;
+
+    private boolean closed;
+
+    ConnectionReleasingInputStream(InputStream inputStream, HttpURLConnection httpUrlConnection) {
+      super(inputStream);
+      this.httpUrlConnection = httpUrlConnection;
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      try {
+        super.close();
+      } finally {
+        if (!connectionReuse) {
+          closeQuietly(httpUrlConnection);
+        }
+      }
+    }
+  }
+
   private InputStream getInputStreamFromUrlConnection(HttpURLConnection httpUrlConnection) throws IOException {
     return httpUrlConnection.getResponseCode() != HttpURLConnection.HTTP_OK ? httpUrlConnection.getErrorStream()
         : httpUrlConnection.getInputStream();
   }
 
+  /**
+   * Delegating {@link SSLSocketFactory} that counts the created sockets, every socket is a new connection.
+   */
+  private static class CountingSSLSocketFactory extends SSLSocketFactory {
+
+    private final SSLSocketFactory delegate;
+
+    private final AtomicLong counter;
+
+    CountingSSLSocketFactory(SSLSocketFactory delegate, AtomicLong counter) {
+      this.delegate = delegate;
+      this.counter = counter;
+    }
+
+    private <S extends Socket> S count(S socket) {
+      counter.incrementAndGet();
+      return socket;
+    }
+
+    @Override
+    public String[] getDefaultCipherSuites() {
+      return delegate.getDefaultCipherSuites();
+    }
+
+    @Override
+    public String[] getSupportedCipherSuites() {
+      return delegate.getSupportedCipherSuites();
+    }
+
+    @Override
+    public Socket createSocket() throws IOException {
+      return count(delegate.createSocket());
+    }
+
+    @Override
+    public Socket createSocket(Socket socket, String host, int port, boolean autoClose) throws IOException {
+      if (socket instanceof SSLSocket) {
+        // already counted when the unconnected socket was created
+        return delegate.createSocket(socket, host, port, autoClose);
+      }
+      return count(delegate.createSocket(socket, host, port, autoClose));
+    }
+
+    @Override
+    public Socket createSocket(String host, int port) throws IOException {
+      return count(delegate.createSocket(host, port));
+    }
+
+    @Override
+    public Socket createSocket(String host, int port, InetAddress localHost, int localPort) throws IOException {
+      return count(delegate.createSocket(host, port, localHost, localPort));
+    }
+
+    @Override
+    public Socket createSocket(InetAddress host, int port) throws IOException {
+      return count(delegate.createSocket(host, port));
+    }
+
+    @Override
+    public Socket createSocket(InetAddress address, int port, InetAddress localAddress, int localPort)
+        throws IOException {
+      return count(delegate.createSocket(address, port, localAddress, localPort));
+    }
+  }
+
   private enum FbHeaderField {
     X_FB_TRACE_ID((c, f) -> f.setTraceId(getHeaderOrEmpty(c, "x-fb-trace-id"))), //
     X_FB_REV((c, f) -> f.setRev(getHeaderOrEmpty(c, "x-fb-rev"))), //
@@ -494,18 +1145,18 @@ public class DefaultWebRequestor implements WebRequestor {
     X_AD_ACCOUNT_USAGE((c, f) -> f.setAdAccountUsage(getHeaderOrEmpty(c, "x-ad-account-usage"))), //
     X_BUSINESS_USE_CASE_USAGE((c, f) -> f.setBusinessUseCaseUsage(getHeaderOrEmpty(c, "x-business-use-case-usage")));
 
-    private final BiConsumer<HttpURLConnection, DebugHeaderInfo.DebugHeaderInfoFactory> putHeader;
+    private final BiConsumer<UnaryOperator<String>, DebugHeaderInfo.DebugHeaderInfoFactory> putHeader;
 
-    FbHeaderField(BiConsumer<HttpURLConnection, DebugHeaderInfo.DebugHeaderInfoFactory> headerFunction) {
+    FbHeaderField(BiConsumer<UnaryOperator<String>, DebugHeaderInfo.DebugHeaderInfoFactory> headerFunction) {
       this.putHeader = headerFunction;
     }
 
-    public BiConsumer<HttpURLConnection, DebugHeaderInfo.DebugHeaderInfoFactory> getPutHeader() {
+    public BiConsumer<UnaryOperator<String>, DebugHeaderInfo.DebugHeaderInfoFactory> getPutHeader() {
       return putHeader;
     }
 
-    private static String getHeaderOrEmpty(HttpURLConnection connection, String fieldName) {
-      return StringUtils.trimToEmpty(connection.getHeaderField(fieldName));
+    private static String getHeaderOrEmpty(UnaryOperator<String> headerLookup, String fieldName) {
+      return StringUtils.trimToEmpty(headerLookup.apply(fieldName));
     }
   }
 
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2010-2025 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+/**
+ * Keeps the responses the {@link ETagWebRequestor} sends the <code>If-None-Match</code> header for.
+ * <p>
+ * Implementations must be thread-safe, the requestor is used by several threads at once.
+ *
+ * @see InMemoryETagResponseStore
+ */
+public interface ETagResponseStore {
+
+  /**
+   * Returns the response that was stored for the URL.
+   *
+   * @param url
+   *          the requested URL
+   * @return the stored response, {@code null} if there is none
+   */
+  ETagWebRequestor.ETagResponse get(String url);
+
+  /**
+   * Stores the response for the URL, replacing an older one.
+   *
+   * @param url
+   *          the requested URL
+   * @param response
+   *          the response together with its ETag
+   */
+  void put(String url, ETagWebRequestor.ETagResponse response);
+
+  /**
+   * Removes the response stored for the URL.
+   *
+   * @param url
+   *          the requested URL
+   */
+  void remove(String url);
+
+  /**
+   * Removes all stored responses.
+   */
+  void clear();
+}
@@ -27,16 +27,20 @@ import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Supplier;
 
-import com.restfb.util.SoftHashMap;
+import com.restfb.util.DeflatedString;
+import com.restfb.util.ObjectUtil;
 
 /**
  * WebRequestor with ETag-support.
  *
  * <p>
- * The {@link ETagWebRequestor} caches all <tt>GET</tt>-requests with an ETag header field in a {@link SoftHashMap} and
- * uses the ETag on the next request as <code>If-None-Match</code> header field if the same URL is requested.
+ * The {@link ETagWebRequestor} caches all <tt>GET</tt>-requests with an ETag header field in an
+ * {@link ETagResponseStore} and uses the ETag on the next request as <code>If-None-Match</code> header field if the same
+ * URL is requested. By default the responses are kept in a bounded {@link InMemoryETagResponseStore}, use a
+ * {@link FileETagResponseStore} to keep them over a restart.
  * </p>
  *
  * <p>
@@ -53,23 +57,38 @@ import com.restfb.util.SoftHashMap;
  * <a href="https://developers.facebook.com/blog/post/627/">https://developers.facebook.com/blog/post/627/</a>
  * </p>
  *
- * <p>
- * <strong>Attention 2</strong>: If excessively used with a lot of URLs, the {@link SoftHashMap} can lead to a
- * performance degradation
- * </p>
  */
 public class ETagWebRequestor extends DefaultWebRequestor {
 
-  private static Supplier<Map<String, ETagResponse>> mapBuilder = SoftHashMap::new;
+  private static Supplier<Map<String, ETagResponse>> mapBuilder;
 
-  final Map<String, ETagResponse> etagCache = Collections.synchronizedMap(mapBuilder.get());
+  private final ETagResponseStore etagStore;
   private final ThreadLocal<ETagResponse> currentETagRespThreadLocal = new ThreadLocal<>();
+  private final LongAdder notModifiedCount = new LongAdder();
   private volatile boolean useCache = true;
 
+  /**
+   * Creates a requestor that keeps the responses in an {@link InMemoryETagResponseStore} with the default limits.
+   */
+  public ETagWebRequestor() {
+    this(mapBuilder != null ? new MapETagResponseStore(mapBuilder.get()) : new InMemoryETagResponseStore());
+  }
+
+  /**
+   * Creates a requestor that keeps the responses in the given store.
+   *
+   * @param etagStore
+   *          the store for the responses
+   */
+  public ETagWebRequestor(ETagResponseStore etagStore) {
+    ObjectUtil.verifyParameterPresence("etagStore", etagStore);
+    this.etagStore = etagStore;
+  }
+
   @Override
   protected void customizeConnection(HttpURLConnection connection) {
     if (isUseCache() && connection.getRequestMethod().equals(HttpMethod.GET.name())) {
-      ETagResponse resp = etagCache.get(connection.getURL().toString());
+      ETagResponse resp = etagStore.get(connection.getURL().toString());
       if (resp != null) {
         currentETagRespThreadLocal.set(resp);
         connection.addRequestProperty("If-None-Match", resp.getEtag());
@@ -83,11 +102,12 @@ public class ETagWebRequestor extends DefaultWebRequestor {
       if (httpUrlConnection.getRequestMethod().equals(HttpMethod.GET.name())) {
         if (httpUrlConnection.getResponseCode() == HTTP_NOT_MODIFIED && currentETagRespThreadLocal.get() != null) {
           ETagResponse etagResp = currentETagRespThreadLocal.get();
+          notModifiedCount.increment();
           return new Response(httpUrlConnection.getResponseCode(), etagResp.getBody());
         } else {
           Response resp = super.fetchResponse(httpUrlConnection);
           if (httpUrlConnection.getHeaderField("ETag") != null) {
-            etagCache.put(httpUrlConnection.getURL().toString(),
+            etagStore.put(httpUrlConnection.getURL().toString(),
               new ETagResponse(httpUrlConnection.getHeaderField("ETag"), resp.getBody()));
           }
           return resp;
@@ -123,6 +143,24 @@ public class ETagWebRequestor extends DefaultWebRequestor {
     this.useCache = useCache;
   }
 
+  /**
+   * The store that keeps the responses.
+   *
+   * @return the store
+   */
+  public ETagResponseStore getETagStore() {
+    return etagStore;
+  }
+
+  /**
+   * The number of requests Facebook answered with 304 (NOT MODIFIED), so the stored body was used.
+   *
+   * @return the number of not modified responses
+   */
+  public long getNotModifiedCount() {
+    return notModifiedCount.sum();
+  }
+
   /**
    * Override the mapSupplier, it needs to be some implementation of the {@link Map} interface.
    * <p>
@@ -130,8 +168,10 @@ public class ETagWebRequestor extends DefaultWebRequestor {
    * used
    * 
    * @param mapSupplier
-   *          the supplier, that returns a new Map,
+   *          the supplier, that returns a new Map, {@code null} to use the {@link InMemoryETagResponseStore} again
+   * @deprecated the map is synchronized with one global lock, use {@link #ETagWebRequestor(ETagResponseStore)} instead
    */
+  @Deprecated
   public static void setMapSupplier(Supplier<Map<String, ETagResponse>> mapSupplier) {
     ETagWebRequestor.mapBuilder = mapSupplier;
   }
@@ -141,18 +181,91 @@ public class ETagWebRequestor extends DefaultWebRequestor {
     public ETagResponse(String etag, String body) {
       this.etag = etag;
       this.body = body;
+      this.compressedBody = null;
+    }
+
+    private ETagResponse(String etag, DeflatedString compressedBody) {
+      this.etag = etag;
+      this.body = null;
+      this.compressedBody = compressedBody;
     }
 
     private final String etag;
     private final String body;
+    private final DeflatedString compressedBody;
 
     public String getEtag() {
       return etag;
     }
 
     public String getBody() {
+      if (compressedBody != null) {
+        return compressedBody.toString();
+      }
       return body;
     }
+
+    /**
+     * Returns a copy of this response that keeps the body deflated, the body is inflated on every
+     * {@link #getBody()}.
+     *
+     * @return the compressed response
+     */
+    public ETagResponse compress() {
+      if (compressedBody != null || body == null) {
+        return this;
+      }
+      return new ETagResponse(etag, DeflatedString.of(body));
+    }
+
+    public boolean isCompressed() {
+      return compressedBody != null;
+    }
+
+    /**
+     * The size of the stored body, the deflated size in bytes for a compressed body and the number of characters
+     * otherwise.
+     *
+     * @return the body size
+     */
+    public int getBodySize() {
+      if (compressedBody != null) {
+        return compressedBody.getDeflatedSize();
+      }
+      return body == null ? 0 : body.length();
+    }
+  }
+
+  /**
+   * Store on top of a map, for the maps set with {@link #setMapSupplier(Supplier)}.
+   */
+  private static class MapETagResponseStore implements ETagResponseStore {
+
+    private final Map<String, ETagResponse> etagCache;
+
+    MapETagResponseStore(Map<String, ETagResponse> map) {
+      this.etagCache = Collections.synchronizedMap(map);
+    }
+
+    @Override
+    public ETagResponse get(String url) {
+      return etagCache.get(url);
+    }
+
+    @Override
+    public void put(String url, ETagResponse response) {
+      etagCache.put(url, response);
+    }
+
+    @Override
+    public void remove(String url) {
+      etagCache.remove(url);
+    }
+
+    @Override
+    public void clear() {
+      etagCache.clear();
+    }
   }
 
 }
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2010-2025 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static com.restfb.logging.RestFBLogger.CLIENT_LOGGER;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.UUID;
+
+import com.restfb.util.ObjectUtil;
+import com.restfb.util.StringUtils;
+
+/**
+ * {@link ConnectionCheckpointStore} that keeps every checkpoint in a small properties file in the given directory.
+ * <p>
+ * The files are replaced atomically where the file system supports it, so a crash during a save leaves the previous
+ * checkpoint behind. Problems while saving are logged and don't interrupt the iteration, it just can't be resumed from
+ * that point.
+ */
+public class FileConnectionCheckpointStore implements ConnectionCheckpointStore {
+
+  private static final String NEXT_PAGE_URL = "next_page_url";
+
+  private static final String AFTER_CURSOR = "after_cursor";
+
+  private final Path directory;
+
+  public FileConnectionCheckpointStore(Path directory) {
+    ObjectUtil.verifyParameterPresence("directory", directory);
+    this.directory = directory;
+  }
+
+  @Override
+  public Optional<ConnectionCheckpoint> load(String key) {
+    Path checkpointFile = getCheckpointFile(key);
+    if (!Files.isRegularFile(checkpointFile)) {
+      return Optional.empty();
+    }
+
+    Properties properties = new Properties();
+    try (InputStream inputStream = Files.newInputStream(checkpointFile)) {
+      properties.load(inputStream);
+      return Optional.of(new ConnectionCheckpoint(properties.getProperty(NEXT_PAGE_URL),
+        StringUtils.trimToNull(properties.getProperty(AFTER_CURSOR))));
+    } catch (IOException | RuntimeException e) {
+      CLIENT_LOGGER.warn("Unable to load the connection checkpoint from {}", checkpointFile, e);
+      return Optional.empty();
+    }
+  }
+
+  @Override
+  public void save(String key, ConnectionCheckpoint checkpoint) {
+    Properties properties = new Properties();
+    properties.setProperty(NEXT_PAGE_URL, StringUtils.trimToEmpty(checkpoint.getNextPageUrl()));
+    properties.setProperty(AFTER_CURSOR, StringUtils.trimToEmpty(checkpoint.getAfterCursor()));
+
+    Path checkpointFile = getCheckpointFile(key);
+    try {
+      Files.createDirectories(directory);
+      Path tempFile = Files.createTempFile(directory, "checkpoint", ".tmp");
+      try {
+        try (OutputStream outputStream = Files.newOutputStream(tempFile)) {
+          properties.store(outputStream, key);
+        }
+        try {
+          Files.move(tempFile, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+          Files.move(tempFile, checkpointFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+      } finally {
+        Files.deleteIfExists(tempFile);
+      }
+    } catch (IOException e) {
+      CLIENT_LOGGER.warn("Unable to save the connection checkpoint to {}", checkpointFile, e);
+    }
+  }
+
+  @Override
+  public void remove(String key) {
+    Path checkpointFile = getCheckpointFile(key);
+    try {
+      Files.deleteIfExists(checkpointFile);
+    } catch (IOException e) {
+      CLIENT_LOGGER.warn("Unable to remove the connection checkpoint {}", checkpointFile, e);
+    }
+  }
+
+  private Path getCheckpointFile(String key) {
+    return directory.resolve(UUID.nameUUIDFromBytes(key.getBytes(StringUtils.ENCODING_CHARSET)) + ".checkpoint");
+  }
+}
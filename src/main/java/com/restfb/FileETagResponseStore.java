@@ -0,0 +1,546 @@
+/*
+ * Copyright (c) 2010-2025 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static com.restfb.logging.RestFBLogger.CLIENT_LOGGER;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+
+import com.restfb.ETagWebRequestor.ETagResponse;
+import com.restfb.util.EncodingUtils;
+import com.restfb.util.ObjectUtil;
+import com.restfb.util.StringUtils;
+
+/**
+ * {@link ETagResponseStore} that keeps the responses in append-only segment files, so the ETags survive a restart.
+ * <p>
+ * Every stored or removed response is appended to the newest segment. Only the keys and the positions of the records
+ * are kept in memory, the bodies are read from disk when they are needed. The index is built on the first access by
+ * reading the record headers and keys, the bodies are skipped.
+ * <p>
+ * The key of a record is the SHA-256 hash of the request URL, so the access token and the appsecret proof in the URL
+ * are never written to disk.
+ * <p>
+ * If a segment is full, a new one is started. If the oldest segment holds mostly outdated records, it is compacted by
+ * copying its live records to the newest segment. If the files grow beyond the maximum size, the oldest segment is
+ * dropped with all its responses.
+ * <p>
+ * Every record carries a checksum, a record that was torn by a crash is ignored. Problems with the files are logged and
+ * the store behaves like an empty cache then, so a request never fails because of the store.
+ */
+public class FileETagResponseStore implements ETagResponseStore, Closeable {
+
+  public static final long DEFAULT_MAX_TOTAL_SIZE = 256L * 1024 * 1024;
+
+  public static final long DEFAULT_MAX_SEGMENT_SIZE = 16L * 1024 * 1024;
+
+  private static final String SEGMENT_SUFFIX = ".etag";
+
+  private static final byte TYPE_PUT = 1;
+
+  private static final byte TYPE_REMOVE = 2;
+
+  /**
+   * type, length of key, ETag and body and the checksum
+   */
+  private static final int HEADER_SIZE = 1 + 4 * 4;
+
+  private final Path directory;
+
+  private final long maxTotalSize;
+
+  private final long maxSegmentSize;
+
+  private final Map<String, Location> index = new ConcurrentHashMap<>();
+
+  private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+
+  private final LongAdder hitCount = new LongAdder();
+
+  private final LongAdder missCount = new LongAdder();
+
+  private final LongAdder evictionCount = new LongAdder();
+
+  private volatile boolean indexed;
+
+  /**
+   * Creates a store with a maximum size of 256 MB in segments of 16 MB.
+   *
+   * @param directory
+   *          the directory that holds the segment files, it is created if it doesn't exist
+   */
+  public FileETagResponseStore(Path directory) {
+    this(directory, DEFAULT_MAX_TOTAL_SIZE, DEFAULT_MAX_SEGMENT_SIZE);
+  }
+
+  /**
+   * Creates a store.
+   *
+   * @param directory
+   *          the directory that holds the segment files, it is created if it doesn't exist
+   * @param maxTotalSize
+   *          the maximum size of all segment files in bytes
+   * @param maxSegmentSize
+   *          the size in bytes a segment file is closed at and a new one is started
+   */
+  public FileETagResponseStore(Path directory, long maxTotalSize, long maxSegmentSize) {
+    ObjectUtil.verifyParameterPresence("directory", directory);
+    if (maxSegmentSize <= 0 || maxTotalSize < 2 * maxSegmentSize) {
+      throw new IllegalArgumentException("The maximum size must hold at least two segments.");
+    }
+    this.directory = directory;
+    this.maxTotalSize = maxTotalSize;
+    this.maxSegmentSize = maxSegmentSize;
+  }
+
+  @Override
+  public ETagResponse get(String url) {
+    ensureIndexed();
+    String key = createKey(url);
+    Location location = index.get(key);
+    while (location != null) {
+      try {
+        ETagResponse response = readRecord(location, key);
+        if (response != null) {
+          hitCount.increment();
+          return response;
+        }
+        index.remove(key, location);
+        break;
+      } catch (IOException e) {
+        Location current = index.get(key);
+        if (current == location) {
+          CLIENT_LOGGER.warn("Unable to read the ETag response {} from {}", key, location.segment.path, e);
+          index.remove(key, location);
+          break;
+        }
+        // the record was moved by a compaction while it was read
+        location = current;
+      }
+    }
+    missCount.increment();
+    return null;
+  }
+
+  @Override
+  public synchronized void put(String url, ETagResponse response) {
+    ensureIndexed();
+    String key = createKey(url);
+    try {
+      ByteBuffer record = encode(TYPE_PUT, key, response.getEtag(), response.getBody());
+      if (record.remaining() > maxSegmentSize) {
+        // too large to keep, but the outdated response must not be used anymore
+        removeKey(key);
+        return;
+      }
+      append(key, record);
+      enforceLimits();
+    } catch (IOException e) {
+      CLIENT_LOGGER.warn("Unable to store the ETag response {} in {}", key, directory, e);
+      index.remove(key);
+    }
+  }
+
+  @Override
+  public synchronized void remove(String url) {
+    ensureIndexed();
+    removeKey(createKey(url));
+  }
+
+  private void removeKey(String key) {
+    if (!index.containsKey(key)) {
+      return;
+    }
+    try {
+      // the tombstone keeps the response from coming back after a restart
+      append(key, encode(TYPE_REMOVE, key, null, null));
+    } catch (IOException e) {
+      CLIENT_LOGGER.warn("Unable to remove the ETag response {} from {}", key, directory, e);
+      index.remove(key);
+    }
+  }
+
+  @Override
+  public synchronized void clear() {
+    index.clear();
+    for (Segment segment : segments.values()) {
+      deleteSegment(segment);
+    }
+    segments.clear();
+    indexed = true;
+  }
+
+  @Override
+  public synchronized void close() {
+    for (Segment segment : segments.values()) {
+      closeQuietly(segment);
+    }
+    segments.clear();
+    index.clear();
+    indexed = false;
+  }
+
+  /**
+   * The number of lookups that found a response.
+   *
+   * @return the hit count
+   */
+  public long getHitCount() {
+    return hitCount.sum();
+  }
+
+  /**
+   * The number of lookups that found no response, or a broken one.
+   *
+   * @return the miss count
+   */
+  public long getMissCount() {
+    return missCount.sum();
+  }
+
+  /**
+   * The number of responses that were dropped together with the oldest segment to stay within the maximum size.
+   *
+   * @return the eviction count
+   */
+  public long getEvictionCount() {
+    return evictionCount.sum();
+  }
+
+  /**
+   * The number of stored responses.
+   *
+   * @return the number of entries
+   */
+  public int size() {
+    ensureIndexed();
+    return index.size();
+  }
+
+  /**
+   * The size of all segment files in bytes.
+   *
+   * @return the size on disk
+   */
+  public synchronized long getDiskSize() {
+    ensureIndexed();
+    return segments.values().stream().mapToLong(segment -> segment.size).sum();
+  }
+
+  private void ensureIndexed() {
+    if (!indexed) {
+      synchronized (this) {
+        if (!indexed) {
+          buildIndex();
+          indexed = true;
+        }
+      }
+    }
+  }
+
+  private void buildIndex() {
+    try {
+      Files.createDirectories(directory);
+      List<Path> files = new ArrayList<>();
+      try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+        stream.forEach(files::add);
+      }
+
+      for (Path file : files) {
+        String name = file.getFileName().toString();
+        try {
+          int id = Integer.parseInt(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+          segments.put(id, openSegment(id));
+        } catch (NumberFormatException e) {
+          CLIENT_LOGGER.debug("Ignoring the unknown file {} in the ETag store", file);
+        }
+      }
+
+      for (Segment segment : segments.values()) {
+        indexSegment(segment);
+      }
+    } catch (IOException e) {
+      CLIENT_LOGGER.warn("Unable to read the ETag store in {}, starting with an empty store", directory, e);
+      index.clear();
+    }
+  }
+
+  /**
+   * Reads the headers and keys of all records in the segment, a torn record at the end is cut off.
+   */
+  private void indexSegment(Segment segment) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    long position = 0;
+    while (position + HEADER_SIZE <= segment.size) {
+      header.clear();
+      readFully(segment.channel, header, position);
+      header.flip();
+      byte type = header.get();
+      int keyLength = header.getInt();
+      int etagLength = header.getInt();
+      int bodyLength = header.getInt();
+      long recordLength = (long) HEADER_SIZE + keyLength + etagLength + bodyLength;
+
+      if ((type != TYPE_PUT && type != TYPE_REMOVE) || keyLength < 0 || etagLength < 0 || bodyLength < 0
+          || position + recordLength > segment.size) {
+        break;
+      }
+
+      ByteBuffer keyBuffer = ByteBuffer.allocate(keyLength);
+      readFully(segment.channel, keyBuffer, position + HEADER_SIZE);
+      String key = new String(keyBuffer.array(), StringUtils.ENCODING_CHARSET);
+      track(key, type == TYPE_PUT ? new Location(segment, position, (int) recordLength) : null, recordLength);
+      position += recordLength;
+    }
+
+    if (position < segment.size) {
+      CLIENT_LOGGER.warn("Cutting off a broken record at {} of the ETag store segment {}", position, segment.path);
+      segment.channel.truncate(position);
+      segment.size = position;
+    }
+  }
+
+  private void append(String key, ByteBuffer record) throws IOException {
+    Segment segment = segments.isEmpty() ? null : segments.lastEntry().getValue();
+    if (segment == null || segment.size + record.remaining() > maxSegmentSize) {
+      int id = segment == null ? 0 : segment.id + 1;
+      segment = openSegment(id);
+      segments.put(id, segment);
+    }
+
+    long position = segment.size;
+    int recordLength = record.remaining();
+    while (record.hasRemaining()) {
+      segment.channel.write(record, position + record.position());
+    }
+    segment.size += recordLength;
+
+    track(key, record.get(0) == TYPE_PUT ? new Location(segment, position, recordLength) : null, recordLength);
+  }
+
+  /**
+   * Points the key to its new record, the space of the old record becomes garbage.
+   */
+  private void track(String key, Location location, long recordLength) {
+    Location old = location == null ? index.remove(key) : index.put(key, location);
+    if (old != null) {
+      old.segment.liveSize -= old.length;
+    }
+    if (location != null) {
+      location.segment.liveSize += recordLength;
+    }
+  }
+
+  private void enforceLimits() throws IOException {
+    // only the oldest segment is compacted, the tombstones in it can't hide records in even older segments then
+    while (segments.size() > 1) {
+      Segment oldestSegment = segments.firstEntry().getValue();
+      if (oldestSegment.liveSize * 2 >= oldestSegment.size) {
+        break;
+      }
+      compact(oldestSegment);
+    }
+
+    long totalSize = segments.values().stream().mapToLong(segment -> segment.size).sum();
+    Iterator<Segment> oldest = segments.values().iterator();
+    while (totalSize > maxTotalSize && segments.size() > 1) {
+      Segment segment = oldest.next();
+      oldest.remove();
+      totalSize -= segment.size;
+      dropSegment(segment);
+    }
+  }
+
+  /**
+   * Copies the live records of the oldest segment to the newest one and deletes it.
+   */
+  private void compact(Segment segment) throws IOException {
+    List<Map.Entry<String, Location>> live = new ArrayList<>();
+    for (Map.Entry<String, Location> entry : index.entrySet()) {
+      if (entry.getValue().segment == segment) {
+        live.add(entry);
+      }
+    }
+
+    for (Map.Entry<String, Location> entry : live) {
+      Location location = entry.getValue();
+      ByteBuffer record = ByteBuffer.allocate(location.length);
+      readFully(segment.channel, record, location.offset);
+      record.flip();
+      append(entry.getKey(), record);
+    }
+
+    segments.remove(segment.id);
+    deleteSegment(segment);
+  }
+
+  private void dropSegment(Segment segment) {
+    Iterator<Location> locations = index.values().iterator();
+    while (locations.hasNext()) {
+      if (locations.next().segment == segment) {
+        locations.remove();
+        evictionCount.increment();
+      }
+    }
+    deleteSegment(segment);
+  }
+
+  private ETagResponse readRecord(Location location, String key) throws IOException {
+    ByteBuffer record = ByteBuffer.allocate(location.length);
+    readFully(location.segment.channel, record, location.offset);
+    record.flip();
+
+    byte type = record.get();
+    int keyLength = record.getInt();
+    int etagLength = record.getInt();
+    int bodyLength = record.getInt();
+    int checksum = record.getInt();
+
+    CRC32 crc = new CRC32();
+    crc.update(record.array(), HEADER_SIZE, location.length - HEADER_SIZE);
+    if (type != TYPE_PUT || (int) crc.getValue() != checksum) {
+      CLIENT_LOGGER.warn("Broken ETag response {} in {}", key, location.segment.path);
+      return null;
+    }
+
+    String storedKey = new String(record.array(), HEADER_SIZE, keyLength, StringUtils.ENCODING_CHARSET);
+    if (!storedKey.equals(key)) {
+      return null;
+    }
+
+    String etag = new String(record.array(), HEADER_SIZE + keyLength, etagLength, StringUtils.ENCODING_CHARSET);
+    String body =
+        new String(record.array(), HEADER_SIZE + keyLength + etagLength, bodyLength, StringUtils.ENCODING_CHARSET);
+    return new ETagResponse(etag, body);
+  }
+
+  /**
+   * The key of the URL in the index and in the records, the URL itself contains the access token.
+   */
+  private static String createKey(String url) {
+    return EncodingUtils.encodeSha256Hex(url);
+  }
+
+  private static ByteBuffer encode(byte type, String key, String etag, String body) {
+    byte[] keyBytes = key.getBytes(StringUtils.ENCODING_CHARSET);
+    byte[] etagBytes = StringUtils.trimToEmpty(etag).getBytes(StringUtils.ENCODING_CHARSET);
+    byte[] bodyBytes = body == null ? new byte[0] : body.getBytes(StringUtils.ENCODING_CHARSET);
+
+    CRC32 crc = new CRC32();
+    crc.update(keyBytes);
+    crc.update(etagBytes);
+    crc.update(bodyBytes);
+
+    ByteBuffer record = ByteBuffer.allocate(HEADER_SIZE + keyBytes.length + etagBytes.length + bodyBytes.length);
+    record.put(type).putInt(keyBytes.length).putInt(etagBytes.length).putInt(bodyBytes.length)
+      .putInt((int) crc.getValue());
+    record.put(keyBytes).put(etagBytes).put(bodyBytes);
+    record.flip();
+    return record;
+  }
+
+  private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        throw new EOFException("The ETag store segment ended unexpectedly");
+      }
+    }
+  }
+
+  private Segment openSegment(int id) throws IOException {
+    Path path = directory.resolve(String.format("%08d%s", id, SEGMENT_SUFFIX));
+    FileChannel channel =
+        FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    return new Segment(id, path, channel, channel.size());
+  }
+
+  private static void deleteSegment(Segment segment) {
+    closeQuietly(segment);
+    try {
+      Files.deleteIfExists(segment.path);
+    } catch (IOException e) {
+      CLIENT_LOGGER.warn("Unable to delete the ETag store segment {}", segment.path, e);
+    }
+  }
+
+  private static void closeQuietly(Segment segment) {
+    try {
+      segment.channel.close();
+    } catch (IOException e) {
+      CLIENT_LOGGER.debug("Unable to close the ETag store segment {}", segment.path, e);
+    }
+  }
+
+  private static class Segment {
+
+    private final int id;
+
+    private final Path path;
+
+    private final FileChannel channel;
+
+    private long size;
+
+    /**
+     * bytes of records that are still referenced by the index
+     */
+    private long liveSize;
+
+    Segment(int id, Path path, FileChannel channel, long size) {
+      this.id = id;
+      this.path = path;
+      this.channel = channel;
+      this.size = size;
+    }
+  }
+
+  private static class Location {
+
+    private final Segment segment;
+
+    private final long offset;
+
+    private final int length;
+
+    Location(Segment segment, long offset, int length) {
+      this.segment = segment;
+      this.offset = offset;
+      this.length = length;
+    }
+  }
+}
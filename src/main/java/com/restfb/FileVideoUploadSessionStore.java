@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2010-2025 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static com.restfb.logging.RestFBLogger.CLIENT_LOGGER;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.UUID;
+
+import com.restfb.util.ObjectUtil;
+import com.restfb.util.StringUtils;
+
+/**
+ * {@link VideoUploadSessionStore} that keeps every session in a small properties file in the given directory.
+ * <p>
+ * The files are replaced atomically where the file system supports it, so a crash during a save never leaves a broken
+ * session behind. Problems while saving are logged and don't interrupt the upload, the upload just can't be resumed
+ * from that point.
+ */
+public class FileVideoUploadSessionStore implements VideoUploadSessionStore {
+
+  private static final String UPLOAD_SESSION_ID = "upload_session_id";
+
+  private static final String VIDEO_ID = "video_id";
+
+  private static final String FILE_SIZE = "file_size";
+
+  private static final String START_OFFSET = "start_offset";
+
+  private static final String END_OFFSET = "end_offset";
+
+  private final Path directory;
+
+  public FileVideoUploadSessionStore(Path directory) {
+    ObjectUtil.verifyParameterPresence("directory", directory);
+    this.directory = directory;
+  }
+
+  @Override
+  public Optional<VideoUploadSession> load(String key) {
+    Path sessionFile = getSessionFile(key);
+    if (!Files.isRegularFile(sessionFile)) {
+      return Optional.empty();
+    }
+
+    Properties properties = new Properties();
+    try (InputStream inputStream = Files.newInputStream(sessionFile)) {
+      properties.load(inputStream);
+      return Optional.of(new VideoUploadSession(properties.getProperty(UPLOAD_SESSION_ID),
+        properties.getProperty(VIDEO_ID), Long.parseLong(properties.getProperty(FILE_SIZE)),
+        Long.parseLong(properties.getProperty(START_OFFSET)), Long.parseLong(properties.getProperty(END_OFFSET))));
+    } catch (IOException | RuntimeException e) {
+      CLIENT_LOGGER.warn("Unable to load the video upload session from {}", sessionFile, e);
+      return Optional.empty();
+    }
+  }
+
+  @Override
+  public void save(String key, VideoUploadSession session) {
+    Properties properties = new Properties();
+    properties.setProperty(UPLOAD_SESSION_ID, session.getUploadSessionId());
+    properties.setProperty(VIDEO_ID, StringUtils.trimToEmpty(session.getVideoId()));
+    properties.setProperty(FILE_SIZE, String.valueOf(session.getFileSize()));
+    properties.setProperty(START_OFFSET, String.valueOf(session.getStartOffset()));
+    properties.setProperty(END_OFFSET, String.valueOf(session.getEndOffset()));
+
+    Path sessionFile = getSessionFile(key);
+    try {
+      Files.createDirectories(directory);
+      Path tempFile = Files.createTempFile(directory, "upload", ".tmp");
+      try {
+        try (OutputStream outputStream = Files.newOutputStream(tempFile)) {
+          properties.store(outputStream, key);
+        }
+        try {
+          Files.move(tempFile, sessionFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+          Files.move(tempFile, sessionFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+      } finally {
+        Files.deleteIfExists(tempFile);
+      }
+    } catch (IOException e) {
+      CLIENT_LOGGER.warn("Unable to save the video upload session to {}", sessionFile, e);
+    }
+  }
+
+  @Override
+  public void remove(String key) {
+    Path sessionFile = getSessionFile(key);
+    try {
+      Files.deleteIfExists(sessionFile);
+    } catch (IOException e) {
+      CLIENT_LOGGER.warn("Unable to remove the video upload session {}", sessionFile, e);
+    }
+  }
+
+  private Path getSessionFile(String key) {
+    return directory.resolve(UUID.nameUUIDFromBytes(key.getBytes(StringUtils.ENCODING_CHARSET)) + ".properties");
+  }
+}
@@ -0,0 +1,328 @@
+/*
+ * Copyright (c) 2010-2025 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.restfb.ETagWebRequestor.ETagResponse;
+
+/**
+ * Bounded {@link ETagResponseStore} on the heap.
+ * <p>
+ * The store is split into segments with their own lock, so concurrent requests for different URLs rarely wait for
+ * each other. Every segment evicts its least recently used responses as soon as it holds more than its share of the
+ * maximum number of entries or of the maximum body size. Because of that, a single response is only stored if its body
+ * fits into the share of one segment, see {@link #getMaxEntryBodySize()}. All body sizes are measured in characters.
+ * Optionally, responses expire after a time to live.
+ * <p>
+ * With {@link #setCompressBodies(boolean)} the bodies are kept deflated and every deflated byte counts as one character
+ * against the maximum body size. Graph API JSON shrinks to a fraction, so several times more responses fit into the
+ * same limit, at the cost of inflating the body on every hit.
+ * <p>
+ * Unlike a {@link com.restfb.util.SoftHashMap}, the store never depends on the garbage collector to shrink.
+ */
+public class InMemoryETagResponseStore implements ETagResponseStore {
+
+  public static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+  public static final long DEFAULT_MAX_TOTAL_BODY_SIZE = 64L * 1024 * 1024;
+
+  private static final int MAX_SEGMENTS = 16;
+
+  private final Segment[] segments;
+
+  private final long ttlInMillis;
+
+  private final Clock clock;
+
+  private final LongAdder hitCount = new LongAdder();
+
+  private final LongAdder missCount = new LongAdder();
+
+  private final LongAdder evictionCount = new LongAdder();
+
+  private volatile boolean compressBodies;
+
+  /**
+   * Creates a store with {@value #DEFAULT_MAX_ENTRIES} entries, {@value #DEFAULT_MAX_TOTAL_BODY_SIZE} characters of
+   * bodies and no time to live. Responses with a body of more than 4 Mi characters are not stored.
+   */
+  public InMemoryETagResponseStore() {
+    this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_TOTAL_BODY_SIZE, null);
+  }
+
+  /**
+   * Creates a store.
+   * <p>
+   * The body size limit is split between up to 16 segments. A response whose body is larger than the share of one
+   * segment is not stored, so with many entries the largest storable body is about a sixteenth of
+   * {@code maxTotalBodySize}, see {@link #getMaxEntryBodySize()}.
+   *
+   * @param maxEntries
+   *          the maximum number of stored responses
+   * @param maxTotalBodySize
+   *          the maximum size of all stored bodies in characters
+   * @param timeToLive
+   *          the time a response is kept, {@code null} to keep it until it is evicted
+   */
+  public InMemoryETagResponseStore(int maxEntries, long maxTotalBodySize, Duration timeToLive) {
+    this(maxEntries, maxTotalBodySize, timeToLive, Clock.systemUTC());
+  }
+
+  InMemoryETagResponseStore(int maxEntries, long maxTotalBodySize, Duration timeToLive, Clock clock) {
+    if (maxEntries <= 0 || maxTotalBodySize <= 0) {
+      throw new IllegalArgumentException("The maximum number of entries and the maximum body size must be positive.");
+    }
+    if (timeToLive != null && (timeToLive.isNegative() || timeToLive.isZero())) {
+      throw new IllegalArgumentException("The time to live must be positive.");
+    }
+
+    // small stores get fewer segments, otherwise a segment could hold less than one entry
+    int segmentCount = Math.min(MAX_SEGMENTS, Integer.highestOneBit(Math.max(1, maxEntries / 8)));
+    this.segments = new Segment[segmentCount];
+    for (int i = 0; i < segmentCount; i++) {
+      segments[i] = new Segment(divideRoundingUp(maxEntries, segmentCount),
+        divideRoundingUp(maxTotalBodySize, segmentCount));
+    }
+    this.ttlInMillis = timeToLive == null ? 0 : timeToLive.toMillis();
+    this.clock = clock;
+  }
+
+  @Override
+  public ETagResponse get(String url) {
+    ETagResponse response = segmentFor(url).get(url, clock.millis());
+    if (response == null) {
+      missCount.increment();
+    } else {
+      hitCount.increment();
+    }
+    return response;
+  }
+
+  @Override
+  public void put(String url, ETagResponse response) {
+    long expiresAt = ttlInMillis > 0 ? clock.millis() + ttlInMillis : Long.MAX_VALUE;
+    ETagResponse storedResponse = compressBodies ? response.compress() : response;
+    segmentFor(url).put(url, new Entry(storedResponse, expiresAt));
+  }
+
+  @Override
+  public void remove(String url) {
+    segmentFor(url).remove(url);
+  }
+
+  @Override
+  public void clear() {
+    for (Segment segment : segments) {
+      segment.clear();
+    }
+  }
+
+  public boolean isCompressBodies() {
+    return compressBodies;
+  }
+
+  /**
+   * Keeps the bodies of responses stored from now on deflated.
+   *
+   * @param compressBodies
+   *          {@code true} to compress the bodies
+   */
+  public void setCompressBodies(boolean compressBodies) {
+    this.compressBodies = compressBodies;
+  }
+
+  /**
+   * The number of lookups that found a response.
+   *
+   * @return the hit count
+   */
+  public long getHitCount() {
+    return hitCount.sum();
+  }
+
+  /**
+   * The number of lookups that found no response, or an expired one.
+   *
+   * @return the miss count
+   */
+  public long getMissCount() {
+    return missCount.sum();
+  }
+
+  /**
+   * The number of responses that were removed to stay within the limits or because they expired.
+   *
+   * @return the eviction count
+   */
+  public long getEvictionCount() {
+    return evictionCount.sum();
+  }
+
+  /**
+   * The number of stored responses.
+   *
+   * @return the number of entries
+   */
+  public int size() {
+    int size = 0;
+    for (Segment segment : segments) {
+      size += segment.size();
+    }
+    return size;
+  }
+
+  /**
+   * The size of all stored bodies in characters, a deflated byte counts as one character.
+   *
+   * @return the total body size
+   */
+  public long getTotalBodySize() {
+    long totalBodySize = 0;
+    for (Segment segment : segments) {
+      totalBodySize += segment.totalBodySize();
+    }
+    return totalBodySize;
+  }
+
+  /**
+   * The largest body size in characters a single response may have to be stored, larger responses are not kept.
+   *
+   * @return the maximum body size of one entry
+   */
+  public long getMaxEntryBodySize() {
+    return segments[0].maxBodySize;
+  }
+
+  private Segment segmentFor(String url) {
+    int hash = url.hashCode();
+    // spread the high bits, the segment count is a power of two
+    hash ^= hash >>> 16;
+    return segments[hash & (segments.length - 1)];
+  }
+
+  private static int divideRoundingUp(int value, int divisor) {
+    return (value + divisor - 1) / divisor;
+  }
+
+  private static long divideRoundingUp(long value, int divisor) {
+    return (value + divisor - 1) / divisor;
+  }
+
+  private static class Entry {
+
+    private final ETagResponse response;
+
+    private final long expiresAt;
+
+    private final long bodySize;
+
+    Entry(ETagResponse response, long expiresAt) {
+      this.response = response;
+      this.expiresAt = expiresAt;
+      this.bodySize = response.getBodySize();
+    }
+  }
+
+  /**
+   * Part of the store with its own lock, the entries are kept in access order.
+   */
+  private class Segment {
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final int maxEntries;
+
+    private final long maxBodySize;
+
+    private long bodySize;
+
+    Segment(int maxEntries, long maxBodySize) {
+      this.maxEntries = maxEntries;
+      this.maxBodySize = maxBodySize;
+    }
+
+    synchronized ETagResponse get(String url, long now) {
+      Entry entry = entries.get(url);
+      if (entry == null) {
+        return null;
+      }
+      if (entry.expiresAt <= now) {
+        removeEntry(url);
+        evictionCount.increment();
+        return null;
+      }
+      return entry.response;
+    }
+
+    synchronized void put(String url, Entry entry) {
+      if (entry.bodySize > maxBodySize) {
+        // the response would push everything else out, so it is not stored at all
+        removeEntry(url);
+        return;
+      }
+
+      Entry old = entries.put(url, entry);
+      if (old != null) {
+        bodySize -= old.bodySize;
+      }
+      bodySize += entry.bodySize;
+
+      Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+      while (entries.size() > maxEntries || bodySize > maxBodySize) {
+        Entry evicted = eldest.next().getValue();
+        eldest.remove();
+        bodySize -= evicted.bodySize;
+        evictionCount.increment();
+      }
+    }
+
+    synchronized void remove(String url) {
+      removeEntry(url);
+    }
+
+    synchronized void clear() {
+      entries.clear();
+      bodySize = 0;
+    }
+
+    synchronized int size() {
+      return entries.size();
+    }
+
+    synchronized long totalBodySize() {
+      return bodySize;
+    }
+
+    private void removeEntry(String url) {
+      Entry removed = entries.remove(url);
+      if (removed != null) {
+        bodySize -= removed.bodySize;
+      }
+    }
+  }
+}
@@ -29,6 +29,7 @@ import java.lang.annotation.Target;
 import java.util.List;
 
 import com.restfb.exception.FacebookJsonMappingException;
+import com.restfb.json.JsonValue;
 
 /**
  * Specifies how a Facebook JSON-to-Java (and vice-versa) mapper must operate.
@@ -57,6 +58,30 @@ public interface JsonMapper {
    */
   <T> T toJavaObject(String json, Class<T> type);
 
+  /**
+   * Given an already parsed JSON value, create and return a new instance of a corresponding Java object of type
+   * {@code type}.
+   * <p>
+   * The default implementation serializes the value and calls {@link #toJavaObject(String, Class)}, implementors
+   * should map the value directly to avoid parsing it again.
+   *
+   * @param <T>
+   *          Java type to map to.
+   * @param json
+   *          The JSON value to be mapped to a Java type.
+   * @param type
+   *          Java type token.
+   * @return A Java object (of type {@code type}) representation of the JSON input.
+   * @throws FacebookJsonMappingException
+   *           If an error occurs while mapping JSON to Java.
+   */
+  default <T> T toJavaObject(JsonValue json, Class<T> type) {
+    if (json == null) {
+      throw new FacebookJsonMappingException("JSON value is null - can't map it.");
+    }
+    return toJavaObject(json.toString(), type);
+  }
+
   /**
    * Given a JSON string, create and return a new instance of a corresponding Java {@link java.util.List} which contains
    * elements of type {@code type}.
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2010-2025 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+import com.restfb.util.StringUtils;
+
+/**
+ * Builds the {@code multipart/form-data} framing RestFB uses when {@link BinaryAttachment}s are sent to Facebook.
+ * <p>
+ * Shared by all {@link WebRequestor} implementations, so every transport produces byte-identical request bodies.
+ */
+final class MultipartFormData {
+
+  /**
+   * Arbitrary unique boundary marker for multipart {@code POST}s.
+   */
+  static final String BOUNDARY = "**boundarystringwhichwill**neverbeencounteredinthewild**";
+
+  /**
+   * Line separator for multipart {@code POST}s.
+   */
+  static final String CARRIAGE_RETURN_AND_NEWLINE = "\r\n";
+
+  /**
+   * Hyphens for multipart {@code POST}s.
+   */
+  static final String TWO_HYPHENS = "--";
+
+  /**
+   * Value of the {@code Content-Type} header for multipart {@code POST}s.
+   */
+  static final String CONTENT_TYPE = "multipart/form-data;boundary=" + BOUNDARY;
+
+  private MultipartFormData() {
+    // prevent instantiation
+  }
+
+  /**
+   * Creates the part header that precedes the binary data of the given attachment.
+   *
+   * @param binaryAttachment
+   *          the attachment the header is created for
+   * @param formFieldName
+   *          the form field name used in the {@code Content-Disposition} header
+   * @return the part header as UTF-8 bytes
+   */
+  static byte[] createPartHeader(BinaryAttachment binaryAttachment, String formFieldName) {
+    StringBuilder stringBuilder = new StringBuilder();
+    stringBuilder.append(TWO_HYPHENS).append(BOUNDARY).append(CARRIAGE_RETURN_AND_NEWLINE)
+      .append("Content-Disposition: form-data; name=\"").append(formFieldName).append("\"; filename=\"")
+      .append(binaryAttachment.getFilename()).append("\"");
+
+    stringBuilder.append(CARRIAGE_RETURN_AND_NEWLINE).append("Content-Type: ")
+      .append(binaryAttachment.getContentType());
+
+    stringBuilder.append(CARRIAGE_RETURN_AND_NEWLINE).append(CARRIAGE_RETURN_AND_NEWLINE);
+    return stringBuilder.toString().getBytes(StringUtils.ENCODING_CHARSET);
+  }
+
+  /**
+   * Creates the part trailer that follows the binary data of an attachment.
+   *
+   * @return the part trailer as UTF-8 bytes
+   */
+  static byte[] createPartTrailer() {
+    return (CARRIAGE_RETURN_AND_NEWLINE + TWO_HYPHENS + BOUNDARY + TWO_HYPHENS + CARRIAGE_RETURN_AND_NEWLINE)
+      .getBytes(StringUtils.ENCODING_CHARSET);
+  }
+
+  /**
+   * Calculates the size of the complete multipart body, so it can be sent with a {@code Content-Length} header.
+   *
+   * @param binaryAttachments
+   *          the attachments of the request
+   * @param formFieldNameFactory
+   *          creates the form field name of an attachment
+   * @return the size of the body in bytes, or {@code -1} if the size of an attachment is unknown
+   */
+  static long calculateContentLength(List<BinaryAttachment> binaryAttachments,
+      Function<BinaryAttachment, String> formFieldNameFactory) {
+    long trailerLength = createPartTrailer().length;
+    long contentLength = 0;
+    for (BinaryAttachment binaryAttachment : binaryAttachments) {
+      long dataLength = binaryAttachment.getContentLength();
+      if (dataLength < 0) {
+        return -1;
+      }
+      contentLength += createPartHeader(binaryAttachment, formFieldNameFactory.apply(binaryAttachment)).length
+          + dataLength + trailerLength;
+    }
+    return contentLength;
+  }
+
+  /**
+   * Creates the form field name for the binary attachment filename by stripping off the file extension - for example,
+   * the filename "test.png" would return "test".
+   *
+   * @param binaryAttachment
+   *          The binary attachment for which to create the form field name.
+   * @return The form field name for the given binary attachment.
+   */
+  static String createFormFieldName(BinaryAttachment binaryAttachment) {
+    if (binaryAttachment.getFieldName() != null) {
+      return binaryAttachment.getFieldName();
+    }
+
+    String name = binaryAttachment.getFilename();
+    return Optional.ofNullable(name).filter(f -> f.contains(".")).map(f -> f.substring(0, f.lastIndexOf('.')))
+      .orElse(name);
+  }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2010-2025 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static com.restfb.util.ObjectUtil.verifyParameterPresence;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Iterator over connection pages that fetches the next pages in the background.
+ * <p>
+ * As soon as a page is handed out, the following pages are requested on the executor, so the caller can process a
+ * page while the next one is on its way. Because every page contains the URL of the next one, the pages are still
+ * fetched one after the other, the prefetch depth only limits how far the fetching runs ahead of the caller.
+ * <p>
+ * Stopping early should be done with {@link #close()} (or try-with-resources), this cancels the pages that are not
+ * fetched yet. A failed prefetch is thrown by {@link #next()}, the following call of {@link #next()} fetches the page
+ * again.
+ *
+ * <pre>
+ * try (PrefetchingConnectionIterator&lt;Post&gt; it = feed.prefetchingIterator(executor, 2)) {
+ *   while (it.hasNext()) {
+ *     process(it.next());
+ *   }
+ * }
+ * </pre>
+ *
+ * @param <T>
+ *          The Facebook type
+ */
+public class PrefetchingConnectionIterator<T> implements ConnectionIterator<T>, AutoCloseable {
+
+  private final Executor executor;
+
+  private final int prefetchDepth;
+
+  private final Deque<CompletableFuture<Connection<T>>> prefetchedPages = new ArrayDeque<>();
+
+  private Connection<T> connection;
+
+  private boolean initialPage = true;
+
+  private volatile boolean closed;
+
+  /**
+   * Creates a new iterator over the given {@code connection}.
+   *
+   * @param connection
+   *          The connection over which to iterate.
+   * @param executor
+   *          The executor that fetches the pages.
+   * @param prefetchDepth
+   *          The number of pages that are fetched ahead of the page the caller is processing.
+   */
+  protected PrefetchingConnectionIterator(Connection<T> connection, Executor executor, int prefetchDepth) {
+    verifyParameterPresence("connection", connection);
+    verifyParameterPresence("executor", executor);
+    if (prefetchDepth < 1) {
+      throw new IllegalArgumentException("The prefetch depth must be at least 1.");
+    }
+    this.connection = connection;
+    this.executor = executor;
+    this.prefetchDepth = prefetchDepth;
+  }
+
+  /**
+   * @see java.util.Iterator#hasNext()
+   */
+  @Override
+  public boolean hasNext() {
+    // Special case: initial page will always have data
+    return !closed && (initialPage || connection.hasNext());
+  }
+
+  /**
+   * @see java.util.Iterator#next()
+   */
+  @Override
+  public List<T> next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException("There are no more pages in the connection.");
+    }
+
+    if (initialPage) {
+      initialPage = false;
+      prefetch();
+      return connection.getData();
+    }
+
+    if (prefetchedPages.isEmpty()) {
+      prefetch();
+    }
+
+    try {
+      connection = prefetchedPages.poll().join();
+    } catch (CompletionException e) {
+      cancelPrefetchedPages();
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+
+    prefetch();
+    return connection.getData();
+  }
+
+  /**
+   * Fills the queue of prefetched pages up to the prefetch depth, every page is requested when the previous one is
+   * available.
+   */
+  private void prefetch() {
+    while (!closed && prefetchedPages.size() < prefetchDepth) {
+      CompletableFuture<Connection<T>> previous = prefetchedPages.isEmpty()
+          ? CompletableFuture.completedFuture(connection)
+          : prefetchedPages.peekLast();
+      if (previous.isDone() && !previous.isCompletedExceptionally() && !hasNextPage(previous.join())) {
+        return;
+      }
+      prefetchedPages.add(previous.thenApplyAsync(page -> hasNextPage(page) ? page.fetchNextPage() : null, executor));
+    }
+  }
+
+  private boolean hasNextPage(Connection<T> page) {
+    return !closed && page != null && page.hasNext();
+  }
+
+  private void cancelPrefetchedPages() {
+    prefetchedPages.forEach(page -> page.cancel(false));
+    prefetchedPages.clear();
+  }
+
+  /**
+   * @see java.util.Iterator#remove()
+   */
+  @Override
+  public void remove() {
+    throw new UnsupportedOperationException(
+      PrefetchingConnectionIterator.class.getSimpleName() + " doesn't support the remove() operation.");
+  }
+
+  /**
+   * @see ConnectionIterator#snapshot()
+   */
+  @Override
+  public Connection<T> snapshot() {
+    return connection;
+  }
+
+  /**
+   * Stops the iteration and cancels the pages that are not fetched yet. A page that is already requested is not
+   * interrupted, but no further page is requested.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    cancelPrefetchedPages();
+  }
+}
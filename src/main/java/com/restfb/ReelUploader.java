@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2010-2025 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static com.restfb.logging.RestFBLogger.CLIENT_LOGGER;
+import static com.restfb.util.ObjectUtil.verifyParameterPresence;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import com.restfb.exception.FacebookNetworkException;
+import com.restfb.exception.FacebookResponseContentException;
+import com.restfb.types.FacebookReelAttachment;
+import com.restfb.types.GraphResponse;
+import com.restfb.types.ReelsUploadStartResponse;
+import com.restfb.types.Video;
+
+/**
+ * Uploads reels with the <a href="https://developers.facebook.com/docs/video-api/guides/reels-publishing">Reels
+ * Publishing API</a> (start, upload and finish phase).
+ * <p>
+ * The reel file is streamed to the upload URL and never held in memory. If the upload is interrupted by a network
+ * error, the uploader asks Facebook how many bytes arrived and sends the rest of the file only, instead of starting
+ * again at byte zero.
+ *
+ * <pre>
+ * ReelUploader uploader = new ReelUploader(pageClient);
+ * String videoId = uploader.upload(pageId, Paths.get("reel.mp4"), Parameter.with("description", "My reel"));
+ * </pre>
+ */
+public class ReelUploader {
+
+  private static final String UPLOAD_PHASE = "upload_phase";
+
+  private static final String VIDEO_STATE = "video_state";
+
+  private final FacebookClient facebookClient;
+
+  private int maxResumeAttempts = 3;
+
+  /**
+   * Creates an uploader.
+   *
+   * @param facebookClient
+   *          the client used to send the requests, it needs a page access token
+   */
+  public ReelUploader(FacebookClient facebookClient) {
+    verifyParameterPresence("facebookClient", facebookClient);
+    this.facebookClient = facebookClient;
+  }
+
+  /**
+   * Uploads the reel and publishes it.
+   *
+   * @param pageId
+   *          the id of the page the reel is published on
+   * @param file
+   *          the reel file
+   * @param finishParameters
+   *          parameters sent with the finish phase, like {@code description}, the reel is published unless
+   *          {@code video_state} is given
+   * @return the id of the uploaded video
+   * @throws UncheckedIOException
+   *           if the file can't be read
+   * @throws com.restfb.exception.FacebookException
+   *           if Facebook rejected the upload or the upload failed more often than allowed
+   */
+  public String upload(String pageId, Path file, Parameter... finishParameters) {
+    verifyParameterPresence("pageId", pageId);
+    verifyParameterPresence("file", file);
+
+    long fileSize;
+    try {
+      fileSize = Files.size(file);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to read the reel file " + file, e);
+    }
+
+    String connection = pageId + "/video_reels";
+    String videoId = startUpload(connection);
+    transfer(videoId, file, fileSize);
+    finishUpload(connection, videoId, finishParameters);
+    return videoId;
+  }
+
+  public int getMaxResumeAttempts() {
+    return maxResumeAttempts;
+  }
+
+  /**
+   * Sets how often an interrupted upload is resumed before the upload fails, {@code 0} disables resuming.
+   *
+   * @param maxResumeAttempts
+   *          the number of attempts
+   */
+  public void setMaxResumeAttempts(int maxResumeAttempts) {
+    if (maxResumeAttempts < 0) {
+      throw new IllegalArgumentException("The number of resume attempts cannot be negative.");
+    }
+    this.maxResumeAttempts = maxResumeAttempts;
+  }
+
+  private String startUpload(String connection) {
+    ReelsUploadStartResponse response = facebookClient.publish(connection, ReelsUploadStartResponse.class,
+      Parameter.with(UPLOAD_PHASE, "start"));
+
+    if (response.getVideoId() == null) {
+      throw new FacebookResponseContentException("Facebook didn't start a reel upload: " + response, null);
+    }
+
+    return response.getVideoId();
+  }
+
+  private void transfer(String videoId, Path file, long fileSize) {
+    int attempts = 0;
+    while (true) {
+      try {
+        long offset = attempts == 0 ? 0 : fetchBytesTransferred(videoId, fileSize);
+        if (attempts > 0) {
+          CLIENT_LOGGER.debug("Resuming reel upload {} at offset {}", videoId, offset);
+        }
+
+        GraphResponse response = facebookClient.publish(videoId, GraphResponse.class,
+          FacebookReelAttachment.withFile(file).withOffset(offset));
+        if (!response.isSuccess()) {
+          throw new FacebookResponseContentException("Facebook didn't accept the reel upload " + videoId, null);
+        }
+        return;
+      } catch (FacebookNetworkException e) {
+        if (++attempts > maxResumeAttempts) {
+          throw e;
+        }
+        CLIENT_LOGGER.info("Reel upload {} was interrupted, resuming it", videoId, e);
+      }
+    }
+  }
+
+  /**
+   * Asks Facebook how many bytes of the reel arrived, the upload continues behind them.
+   */
+  private long fetchBytesTransferred(String videoId, long fileSize) {
+    Video video = facebookClient.fetchObject(videoId, Video.class, Parameter.withFields("status"));
+
+    long bytesTransferred = Optional.ofNullable(video.getStatus()) //
+      .map(Video.VideoStatus::getUploadingVideoPhase) //
+      .map(Video.VideoPhase::getBytesTransfered) //
+      .orElse(0L);
+
+    if (bytesTransferred < 0 || bytesTransferred > fileSize) {
+      throw new FacebookResponseContentException(String.format(
+        "Facebook reported %d transferred bytes for the reel upload %s of %d bytes", bytesTransferred, videoId,
+        fileSize), null);
+    }
+
+    return bytesTransferred;
+  }
+
+  private void finishUpload(String connection, String videoId, Parameter... finishParameters) {
+    Stream<Parameter> phaseParameters =
+        Stream.of(Parameter.with(UPLOAD_PHASE, "finish"), Parameter.with("video_id", videoId));
+    if (Arrays.stream(finishParameters).noneMatch(p -> VIDEO_STATE.equals(p.name))) {
+      phaseParameters = Stream.concat(phaseParameters, Stream.of(Parameter.with(VIDEO_STATE, "PUBLISHED")));
+    }
+    Parameter[] parameters = Stream.concat(Arrays.stream(finishParameters), phaseParameters).toArray(Parameter[]::new);
+
+    GraphResponse response = facebookClient.publish(connection, GraphResponse.class, parameters);
+    if (!response.isSuccess()) {
+      throw new FacebookResponseContentException("Facebook didn't publish the reel " + videoId, null);
+    }
+  }
+}
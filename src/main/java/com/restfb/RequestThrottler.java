@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2010-2025 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+/**
+ * Decides when a request may be sent to Facebook.
+ * <p>
+ * A throttler sees every request before it is dispatched and every response afterwards, so it can slow down the
+ * dispatch before Facebook starts rejecting requests with a rate limit error. It is used by the
+ * {@link ThrottlingWebRequestor}.
+ *
+ * @see UsageHeaderThrottler
+ */
+public interface RequestThrottler {
+
+  /**
+   * Returns how long the given request has to wait before it may be sent.
+   *
+   * @param request
+   *          the request that is about to be sent
+   * @return the delay in milliseconds, {@code 0} if the request may be sent immediately
+   */
+  long getDelayInMillis(WebRequestor.Request request);
+
+  /**
+   * Records the information of the response that was received for the given request.
+   *
+   * @param request
+   *          the request that was sent
+   * @param response
+   *          the response Facebook sent for the request
+   */
+  void update(WebRequestor.Request request, WebRequestor.Response response);
+}
@@ -0,0 +1,542 @@
+/*
+ * Copyright (c) 2010-2025 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static com.restfb.logging.RestFBLogger.CLIENT_LOGGER;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import com.restfb.util.DeflatedString;
+import com.restfb.util.EncodingUtils;
+import com.restfb.util.ObjectUtil;
+
+/**
+ * Time based cache for the JSON returned by {@link DefaultFacebookClient#fetchObject(String, Class, Parameter...)} and
+ * {@link DefaultFacebookClient#fetchConnection(String, Class, Parameter...)}.
+ * <p>
+ * A response is cached per endpoint, parameters and access token. The {@code fields} parameter is normalized, so
+ * {@code fields=name,id} and {@code fields=id,name} share one entry. The access token is only kept as SHA-256 hash.
+ * <p>
+ * The time to live is configured per endpoint, per type or as default, in this order. The endpoint is matched by its
+ * last path element, for example {@code adaccounts} for <code>me/adaccounts</code>. A time to live of zero disables
+ * caching, so with the default of zero only the configured endpoints and types are cached.
+ * <p>
+ * With stale-while-revalidate, an expired response is still returned for the given time, while a fresh one is fetched
+ * in the background. So hot objects are always served from memory.
+ * <p>
+ * A {@code POST} or {@code DELETE} to an endpoint invalidates the responses cached for it, before and after the request
+ * is sent. Responses whose request started before the latest invalidation of their endpoint are not cached, so a
+ * slow read or background refresh can't bring back the state from before a write. The cache may be shared by several
+ * clients.
+ * <p>
+ * With {@link #setCompressBodies(boolean)} the JSON is kept deflated and inflated on every hit, which trades some CPU
+ * for a much smaller heap footprint, see {@link #getTotalBodySize()}.
+ */
+public class ResponseCache {
+
+  public static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+  private static final String FIELDS = "fields";
+
+  private static final int GENERATION_STRIPES = 64;
+
+  private final Map<String, Map<String, Entry>> entries = new ConcurrentHashMap<>();
+
+  private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+  private final Map<String, Long> endpointTtls = new ConcurrentHashMap<>();
+
+  private final Map<Class<?>, Long> typeTtls = new ConcurrentHashMap<>();
+
+  /**
+   * Counts the invalidations per endpoint, endpoints share a counter by their hash so the memory stays bounded. A
+   * shared counter only makes a response of another endpoint not cached now and then.
+   */
+  private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+  private final AtomicInteger size = new AtomicInteger();
+
+  private final AtomicLong totalBodySize = new AtomicLong();
+
+  private final Executor executor;
+
+  private final Clock clock;
+
+  private final LongAdder hitCount = new LongAdder();
+
+  private final LongAdder staleHitCount = new LongAdder();
+
+  private final LongAdder missCount = new LongAdder();
+
+  private final LongAdder refreshCount = new LongAdder();
+
+  private volatile long defaultTtlInMillis;
+
+  private volatile long staleWhileRevalidateInMillis;
+
+  private volatile int maxEntries = DEFAULT_MAX_ENTRIES;
+
+  private volatile boolean compressBodies;
+
+  /**
+   * Creates a cache that refreshes stale responses in the {@code ForkJoinPool.commonPool()}.
+   */
+  public ResponseCache() {
+    this(ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Creates a cache.
+   *
+   * @param executor
+   *          the executor that refreshes stale responses in the background
+   */
+  public ResponseCache(Executor executor) {
+    this(executor, Clock.systemUTC());
+  }
+
+  ResponseCache(Executor executor, Clock clock) {
+    ObjectUtil.verifyParameterPresence("executor", executor);
+    this.executor = executor;
+    this.clock = clock;
+  }
+
+  /**
+   * Returns the cached JSON or loads and caches it.
+   *
+   * @param endpoint
+   *          the requested object or connection
+   * @param type
+   *          the type the JSON is mapped to
+   * @param accessToken
+   *          the access token of the request, may be {@code null}
+   * @param parameters
+   *          the parameters of the request
+   * @param loader
+   *          sends the request
+   * @return the JSON
+   */
+  public String get(String endpoint, Class<?> type, String accessToken, Parameter[] parameters,
+      Supplier<String> loader) {
+    String normalizedEndpoint = normalizeEndpoint(endpoint);
+    long ttl = getTimeToLiveInMillis(normalizedEndpoint, type);
+    if (ttl <= 0) {
+      return loader.get();
+    }
+
+    String variant = createVariantKey(accessToken, parameters);
+    Entry entry = entries.getOrDefault(normalizedEndpoint, Collections.emptyMap()).get(variant);
+    long now = clock.millis();
+
+    if (entry != null) {
+      long age = now - entry.storedAt;
+      if (age < ttl) {
+        hitCount.increment();
+        return entry.getJson();
+      }
+      if (age < ttl + staleWhileRevalidateInMillis) {
+        staleHitCount.increment();
+        refreshInBackground(normalizedEndpoint, variant, loader);
+        return entry.getJson();
+      }
+    }
+
+    missCount.increment();
+    long generation = getGeneration(normalizedEndpoint);
+    String json = loader.get();
+    store(normalizedEndpoint, variant, json, generation);
+    return json;
+  }
+
+  /**
+   * Removes all responses cached for the endpoint.
+   *
+   * @param endpoint
+   *          the object or connection that was changed
+   */
+  public void invalidate(String endpoint) {
+    String normalizedEndpoint = normalizeEndpoint(endpoint);
+    // the generation is raised first, so a response that is loaded right now is not stored after the removal
+    generations.incrementAndGet(generationIndex(normalizedEndpoint));
+    Map<String, Entry> removed = entries.remove(normalizedEndpoint);
+    if (removed != null) {
+      size.addAndGet(-removed.size());
+      totalBodySize.addAndGet(-removed.values().stream().mapToLong(entry -> entry.bodySize).sum());
+    }
+  }
+
+  /**
+   * Removes all cached responses.
+   */
+  public void clear() {
+    for (String endpoint : new ArrayList<>(entries.keySet())) {
+      invalidate(endpoint);
+    }
+  }
+
+  /**
+   * Sets the time to live for all endpoints and types without an own time to live.
+   *
+   * @param timeToLive
+   *          the time to live, zero to cache the configured endpoints and types only
+   */
+  public void setDefaultTimeToLive(Duration timeToLive) {
+    this.defaultTtlInMillis = toMillis(timeToLive);
+  }
+
+  /**
+   * Sets the time to live for an endpoint, it is matched against the last path element of the requested endpoint.
+   *
+   * @param endpoint
+   *          the endpoint, for example {@code adaccounts}
+   * @param timeToLive
+   *          the time to live, zero to never cache the endpoint
+   */
+  public void setTimeToLive(String endpoint, Duration timeToLive) {
+    ObjectUtil.verifyParameterPresence("endpoint", endpoint);
+    endpointTtls.put(lastPathElement(normalizeEndpoint(endpoint)), toMillis(timeToLive));
+  }
+
+  /**
+   * Sets the time to live for a type the response is mapped to.
+   *
+   * @param type
+   *          the type, for example {@code Page.class}
+   * @param timeToLive
+   *          the time to live, zero to never cache the type
+   */
+  public void setTimeToLive(Class<?> type, Duration timeToLive) {
+    ObjectUtil.verifyParameterPresence("type", type);
+    typeTtls.put(type, toMillis(timeToLive));
+  }
+
+  /**
+   * Sets how long an expired response is still returned while it is refreshed in the background.
+   *
+   * @param staleWhileRevalidate
+   *          the time, zero to fetch expired responses synchronously
+   */
+  public void setStaleWhileRevalidate(Duration staleWhileRevalidate) {
+    this.staleWhileRevalidateInMillis = toMillis(staleWhileRevalidate);
+  }
+
+  public boolean isCompressBodies() {
+    return compressBodies;
+  }
+
+  /**
+   * Keeps the JSON of responses cached from now on deflated.
+   *
+   * @param compressBodies
+   *          {@code true} to compress the JSON
+   */
+  public void setCompressBodies(boolean compressBodies) {
+    this.compressBodies = compressBodies;
+  }
+
+  public int getMaxEntries() {
+    return maxEntries;
+  }
+
+  /**
+   * Sets the maximum number of cached responses, the oldest responses are removed if there are more.
+   *
+   * @param maxEntries
+   *          the maximum number of responses
+   */
+  public void setMaxEntries(int maxEntries) {
+    if (maxEntries <= 0) {
+      throw new IllegalArgumentException("The maximum number of entries must be positive.");
+    }
+    this.maxEntries = maxEntries;
+  }
+
+  /**
+   * The number of requests that were answered with a fresh cached response.
+   *
+   * @return the hit count
+   */
+  public long getHitCount() {
+    return hitCount.sum();
+  }
+
+  /**
+   * The number of requests that were answered with an expired response while it was refreshed.
+   *
+   * @return the stale hit count
+   */
+  public long getStaleHitCount() {
+    return staleHitCount.sum();
+  }
+
+  /**
+   * The number of requests that were sent to Facebook synchronously.
+   *
+   * @return the miss count
+   */
+  public long getMissCount() {
+    return missCount.sum();
+  }
+
+  /**
+   * The number of responses that were refreshed in the background.
+   *
+   * @return the refresh count
+   */
+  public long getRefreshCount() {
+    return refreshCount.sum();
+  }
+
+  /**
+   * The number of cached responses.
+   *
+   * @return the number of entries
+   */
+  public int size() {
+    return size.get();
+  }
+
+  /**
+   * The size of all cached JSON, this is the heap footprint of the bodies in bytes for mostly ASCII JSON. Compressed
+   * bodies count with their deflated size.
+   *
+   * @return the total body size
+   */
+  public long getTotalBodySize() {
+    return totalBodySize.get();
+  }
+
+  private void refreshInBackground(String endpoint, String variant, Supplier<String> loader) {
+    String key = endpoint + '\n' + variant;
+    if (!refreshing.add(key)) {
+      return;
+    }
+
+    try {
+      executor.execute(() -> {
+        try {
+          long generation = getGeneration(endpoint);
+          store(endpoint, variant, loader.get(), generation);
+          refreshCount.increment();
+        } catch (RuntimeException e) {
+          CLIENT_LOGGER.debug("Unable to refresh the cached response of {}, keeping the stale one", endpoint, e);
+        } finally {
+          refreshing.remove(key);
+        }
+      });
+    } catch (RuntimeException e) {
+      refreshing.remove(key);
+      CLIENT_LOGGER.debug("Unable to schedule the refresh of {}", endpoint, e);
+    }
+  }
+
+  private long getGeneration(String endpoint) {
+    return generations.get(generationIndex(endpoint));
+  }
+
+  private static int generationIndex(String endpoint) {
+    return Math.floorMod(endpoint.hashCode(), GENERATION_STRIPES);
+  }
+
+  /**
+   * Stores the response, unless the endpoint was invalidated after the request was started in the given generation.
+   */
+  private void store(String endpoint, String variant, String json, long generation) {
+    Entry entry = compressBodies ? new Entry(endpoint, variant, DeflatedString.of(json), clock.millis())
+        : new Entry(endpoint, variant, json, clock.millis());
+    Entry[] replaced = new Entry[1];
+    boolean[] stored = new boolean[1];
+    // the variants are changed inside compute, so an endpoint is never removed while a response is added to it
+    entries.compute(endpoint, (e, variants) -> {
+      if (getGeneration(endpoint) != generation) {
+        return variants;
+      }
+      Map<String, Entry> target = variants == null ? new ConcurrentHashMap<>() : variants;
+      replaced[0] = target.put(variant, entry);
+      stored[0] = true;
+      return target;
+    });
+    if (!stored[0]) {
+      CLIENT_LOGGER.debug("Not caching the response of {}, it was invalidated while the request was sent", endpoint);
+      return;
+    }
+    totalBodySize.addAndGet(entry.bodySize - (replaced[0] == null ? 0 : replaced[0].bodySize));
+    if (replaced[0] == null && size.incrementAndGet() > maxEntries) {
+      evictOldest();
+    }
+  }
+
+  /**
+   * Removes the oldest tenth of the responses, so the scan is not repeated for every new response.
+   */
+  private synchronized void evictOldest() {
+    int excess = size.get() - maxEntries;
+    if (excess <= 0) {
+      return;
+    }
+
+    List<Entry> candidates = new ArrayList<>();
+    entries.values().forEach(variants -> candidates.addAll(variants.values()));
+    candidates.sort(Comparator.comparingLong(entry -> entry.storedAt));
+
+    int toRemove = Math.min(candidates.size(), excess + maxEntries / 10);
+    for (Entry entry : candidates.subList(0, toRemove)) {
+      entries.computeIfPresent(entry.endpoint, (endpoint, variants) -> {
+        if (variants.remove(entry.variant, entry)) {
+          size.decrementAndGet();
+          totalBodySize.addAndGet(-entry.bodySize);
+        }
+        return variants.isEmpty() ? null : variants;
+      });
+    }
+  }
+
+  private long getTimeToLiveInMillis(String endpoint, Class<?> type) {
+    Long endpointTtl = endpointTtls.get(lastPathElement(endpoint));
+    if (endpointTtl != null) {
+      return endpointTtl;
+    }
+    return Optional.ofNullable(typeTtls.get(type)).orElse(defaultTtlInMillis);
+  }
+
+  private static String createVariantKey(String accessToken, Parameter[] parameters) {
+    String parameterString = Arrays.stream(parameters) //
+      .map(parameter -> parameter.name + '=' + (FIELDS.equals(parameter.name)
+          ? normalizeFields(parameter.value) : parameter.value)) //
+      .sorted() //
+      .collect(Collectors.joining("&"));
+    return hashAccessToken(accessToken) + '?' + parameterString;
+  }
+
+  /**
+   * Sorts the top level fields and removes duplicates, nested field lists like <code>likes{id,name}</code> are kept
+   * as they are.
+   */
+  static String normalizeFields(String fields) {
+    TreeSet<String> normalized = new TreeSet<>();
+    int depth = 0;
+    int start = 0;
+    for (int i = 0; i < fields.length(); i++) {
+      char c = fields.charAt(i);
+      if (c == '{' || c == '(') {
+        depth++;
+      } else if (c == '}' || c == ')') {
+        depth--;
+      } else if (c == ',' && depth == 0) {
+        addField(normalized, fields.substring(start, i));
+        start = i + 1;
+      }
+    }
+    addField(normalized, fields.substring(start));
+    return String.join(",", normalized);
+  }
+
+  private static void addField(TreeSet<String> fields, String field) {
+    String trimmed = field.trim();
+    if (!trimmed.isEmpty()) {
+      fields.add(trimmed);
+    }
+  }
+
+  private static String hashAccessToken(String accessToken) {
+    return accessToken == null ? "" : EncodingUtils.encodeSha256Hex(accessToken);
+  }
+
+  private static String normalizeEndpoint(String endpoint) {
+    String normalized = endpoint;
+    while (normalized.startsWith("/")) {
+      normalized = normalized.substring(1);
+    }
+    while (normalized.endsWith("/")) {
+      normalized = normalized.substring(0, normalized.length() - 1);
+    }
+    return normalized;
+  }
+
+  private static String lastPathElement(String endpoint) {
+    return endpoint.substring(endpoint.lastIndexOf('/') + 1);
+  }
+
+  private static long toMillis(Duration duration) {
+    ObjectUtil.verifyParameterPresence("duration", duration);
+    if (duration.isNegative()) {
+      throw new IllegalArgumentException("The duration cannot be negative.");
+    }
+    return duration.toMillis();
+  }
+
+  private static class Entry {
+
+    private final String endpoint;
+
+    private final String variant;
+
+    private final String json;
+
+    private final DeflatedString compressedJson;
+
+    private final long storedAt;
+
+    private final long bodySize;
+
+    Entry(String endpoint, String variant, String json, long storedAt) {
+      this.endpoint = endpoint;
+      this.variant = variant;
+      this.json = json;
+      this.compressedJson = null;
+      this.storedAt = storedAt;
+      this.bodySize = json.length();
+    }
+
+    Entry(String endpoint, String variant, DeflatedString compressedJson, long storedAt) {
+      this.endpoint = endpoint;
+      this.variant = variant;
+      this.json = null;
+      this.compressedJson = compressedJson;
+      this.storedAt = storedAt;
+      this.bodySize = compressedJson.getDeflatedSize();
+    }
+
+    String getJson() {
+      return compressedJson != null ? compressedJson.toString() : json;
+    }
+  }
+}
@@ -0,0 +1,280 @@
+/*
+ * Copyright (c) 2010-2025 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static com.restfb.logging.RestFBLogger.CLIENT_LOGGER;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import com.restfb.exception.FacebookException;
+import com.restfb.exception.FacebookGraphException;
+import com.restfb.exception.FacebookNetworkException;
+
+/**
+ * Retries failed Facebook API calls with exponential backoff and jitter.
+ * <p>
+ * Only idempotent requests are retried. A request is retried if it failed with a network error, with one of the HTTP
+ * status codes 429, 500, 502, 503 or 504, or with a Graph API error code that marks a temporary problem (1, 2, 4, 17,
+ * 341 and 368 by default, and every error Facebook flags as transient).
+ * <p>
+ * The delay between two attempts uses "decorrelated jitter": it is a random value between the base delay and three
+ * times the previous delay, capped by the maximum delay. So retries of many clients don't hit Facebook at the same
+ * moment.
+ * <p>
+ * A retry budget prevents retries from amplifying an outage. Every retry costs one token and every successful call
+ * earns a fraction of a token ({@link #setBudgetTokenRatio(double)}). Without tokens, failures are thrown immediately.
+ * The budget belongs to the policy, so clients sharing one policy share the budget as well.
+ */
+public class RetryPolicy {
+
+  /**
+   * Graph API error codes that mark a temporary problem.
+   */
+  public static final Set<Integer> DEFAULT_RETRYABLE_ERROR_CODES =
+      Collections.unmodifiableSet(new HashSet<>(Arrays.asList(1, 2, 4, 17, 341, 368)));
+
+  private static final Set<Integer> RETRYABLE_HTTP_STATUS_CODES =
+      Collections.unmodifiableSet(new HashSet<>(Arrays.asList(429, 500, 502, 503, 504)));
+
+  /**
+   * The budget is stored in thousandths of a token, so it can be updated atomically.
+   */
+  private static final long TOKEN = 1000L;
+
+  private volatile int maxAttempts = 3;
+
+  private volatile long baseDelayInMillis = 200L;
+
+  private volatile long maxDelayInMillis = 10000L;
+
+  private volatile Set<Integer> retryableErrorCodes = DEFAULT_RETRYABLE_ERROR_CODES;
+
+  private volatile long maxBudgetTokens = 10 * TOKEN;
+
+  private volatile long budgetTokenRatio = TOKEN / 10;
+
+  private final AtomicLong budget = new AtomicLong(maxBudgetTokens);
+
+  /**
+   * Calls the given supplier and retries it as long as this policy allows it.
+   *
+   * @param idempotent
+   *          {@code true} if the call may be repeated without side effects, only those calls are retried
+   * @param call
+   *          the call to execute
+   * @param <T>
+   *          the result type of the call
+   * @return the result of the first successful attempt
+   * @throws FacebookException
+   *           the error of the last attempt, if no attempt was successful
+   */
+  public <T> T execute(boolean idempotent, Supplier<T> call) {
+    long delay = baseDelayInMillis;
+    int attempt = 1;
+
+    while (true) {
+      try {
+        T result = call.get();
+        depositToken();
+        return result;
+      } catch (FacebookException e) {
+        if (!idempotent || attempt >= maxAttempts || !isRetryable(e) || !withdrawToken()) {
+          throw e;
+        }
+
+        delay = nextDelayInMillis(delay);
+        CLIENT_LOGGER.debug("Attempt {} failed with {}, retrying in {} ms", attempt, e.getMessage(), delay);
+        try {
+          sleep(delay);
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+          throw e;
+        }
+        attempt++;
+      }
+    }
+  }
+
+  /**
+   * Checks if the call that failed with the given exception may be repeated.
+   * <p>
+   * Override this method to add your own classification.
+   *
+   * @param exception
+   *          the exception the call failed with
+   * @return {@code true} if the call may be repeated, {@code false} otherwise
+   */
+  public boolean isRetryable(FacebookException exception) {
+    if (exception instanceof FacebookNetworkException) {
+      Integer httpStatusCode = ((FacebookNetworkException) exception).getHttpStatusCode();
+      return httpStatusCode == null || RETRYABLE_HTTP_STATUS_CODES.contains(httpStatusCode);
+    }
+
+    if (exception instanceof FacebookGraphException) {
+      FacebookGraphException graphException = (FacebookGraphException) exception;
+      return Boolean.TRUE.equals(graphException.getIsTransient())
+          || retryableErrorCodes.contains(graphException.getErrorCode());
+    }
+
+    return false;
+  }
+
+  /**
+   * Calculates the delay before the next attempt ("decorrelated jitter").
+   *
+   * @param previousDelayInMillis
+   *          the delay before the previous attempt, the base delay for the first retry
+   * @return the delay in milliseconds
+   */
+  protected long nextDelayInMillis(long previousDelayInMillis) {
+    long base = baseDelayInMillis;
+    long upperBound = Math.max(base, previousDelayInMillis * 3);
+    long delay = upperBound > base ? ThreadLocalRandom.current().nextLong(base, upperBound + 1) : base;
+    return Math.min(maxDelayInMillis, delay);
+  }
+
+  /**
+   * Waits the given time before the next attempt.
+   *
+   * @param delayInMillis
+   *          the delay in milliseconds
+   * @throws InterruptedException
+   *           if the thread was interrupted while waiting
+   */
+  protected void sleep(long delayInMillis) throws InterruptedException {
+    Thread.sleep(delayInMillis);
+  }
+
+  private void depositToken() {
+    long max = maxBudgetTokens;
+    budget.updateAndGet(current -> Math.min(max, current + budgetTokenRatio));
+  }
+
+  private boolean withdrawToken() {
+    long current;
+    do {
+      current = budget.get();
+      if (current < TOKEN) {
+        CLIENT_LOGGER.debug("Retry budget exhausted, not retrying");
+        return false;
+      }
+    } while (!budget.compareAndSet(current, current - TOKEN));
+    return true;
+  }
+
+  public int getMaxAttempts() {
+    return maxAttempts;
+  }
+
+  /**
+   * Sets the maximum number of attempts, including the first one (default: 3).
+   *
+   * @param maxAttempts
+   *          the maximum number of attempts
+   */
+  public void setMaxAttempts(int maxAttempts) {
+    if (maxAttempts < 1) {
+      throw new IllegalArgumentException("At least one attempt is needed");
+    }
+    this.maxAttempts = maxAttempts;
+  }
+
+  public long getBaseDelayInMillis() {
+    return baseDelayInMillis;
+  }
+
+  /**
+   * Sets the minimal delay between two attempts (default: 200 ms).
+   *
+   * @param baseDelayInMillis
+   *          the base delay in milliseconds
+   */
+  public void setBaseDelayInMillis(long baseDelayInMillis) {
+    this.baseDelayInMillis = baseDelayInMillis;
+  }
+
+  public long getMaxDelayInMillis() {
+    return maxDelayInMillis;
+  }
+
+  /**
+   * Sets the maximal delay between two attempts (default: 10 seconds).
+   *
+   * @param maxDelayInMillis
+   *          the maximum delay in milliseconds
+   */
+  public void setMaxDelayInMillis(long maxDelayInMillis) {
+    this.maxDelayInMillis = maxDelayInMillis;
+  }
+
+  public Set<Integer> getRetryableErrorCodes() {
+    return retryableErrorCodes;
+  }
+
+  /**
+   * Sets the Graph API error codes that are retried (default: {@link #DEFAULT_RETRYABLE_ERROR_CODES}).
+   *
+   * @param retryableErrorCodes
+   *          the retryable error codes
+   */
+  public void setRetryableErrorCodes(Set<Integer> retryableErrorCodes) {
+    this.retryableErrorCodes = Collections.unmodifiableSet(new HashSet<>(retryableErrorCodes));
+  }
+
+  /**
+   * Sets the maximum number of retries that can be saved in the budget (default: 10). The budget is refilled
+   * completely.
+   *
+   * @param maxBudgetTokens
+   *          the maximum number of tokens
+   */
+  public void setMaxBudgetTokens(int maxBudgetTokens) {
+    this.maxBudgetTokens = maxBudgetTokens * TOKEN;
+    budget.set(this.maxBudgetTokens);
+  }
+
+  /**
+   * Sets the fraction of a retry that every successful call adds to the budget (default: 0.1, so one retry per ten
+   * successful calls).
+   *
+   * @param budgetTokenRatio
+   *          the token ratio
+   */
+  public void setBudgetTokenRatio(double budgetTokenRatio) {
+    this.budgetTokenRatio = (long) (budgetTokenRatio * TOKEN);
+  }
+
+  /**
+   * Returns the number of retries that are currently available.
+   *
+   * @return the available retries
+   */
+  public double getAvailableBudget() {
+    return (double) budget.get() / TOKEN;
+  }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2010-2025 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static com.restfb.logging.RestFBLogger.HTTP_LOGGER;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * {@link WebRequestor} that asks a {@link RequestThrottler} before every request and delays the dispatch if necessary.
+ * <p>
+ * The real work is delegated to another {@link WebRequestor}, so the throttling can be combined with every
+ * implementation:
+ *
+ * <pre>
+ * WebRequestor webRequestor = new ThrottlingWebRequestor(new DefaultWebRequestor(), new UsageHeaderThrottler());
+ * FacebookClient client = new DefaultFacebookClient(accessToken, webRequestor, new DefaultJsonMapper(), version);
+ * </pre>
+ * <p>
+ * Synchronous requests wait in the calling thread. Asynchronous requests never block a thread while they are
+ * throttled, their dispatch is scheduled on a {@link ScheduledExecutorService} instead.
+ */
+public class ThrottlingWebRequestor implements WebRequestor {
+
+  private final WebRequestor delegate;
+
+  private final RequestThrottler throttler;
+
+  private final ScheduledExecutorService scheduler;
+
+  /**
+   * Creates a throttling web requestor that schedules delayed asynchronous requests on a shared daemon thread.
+   *
+   * @param delegate
+   *          the web requestor that sends the requests
+   * @param throttler
+   *          the throttler that decides when a request may be sent
+   */
+  public ThrottlingWebRequestor(WebRequestor delegate, RequestThrottler throttler) {
+    this(delegate, throttler, DefaultScheduler.INSTANCE);
+  }
+
+  /**
+   * Creates a throttling web requestor.
+   *
+   * @param delegate
+   *          the web requestor that sends the requests
+   * @param throttler
+   *          the throttler that decides when a request may be sent
+   * @param scheduler
+   *          the scheduler that dispatches delayed asynchronous requests, the delegate's asynchronous execution is
+   *          started on its thread
+   */
+  public ThrottlingWebRequestor(WebRequestor delegate, RequestThrottler throttler,
+      ScheduledExecutorService scheduler) {
+    if (delegate == null || throttler == null || scheduler == null) {
+      throw new IllegalArgumentException("The delegate web requestor, the throttler and the scheduler must not be null");
+    }
+    this.delegate = delegate;
+    this.throttler = throttler;
+    this.scheduler = scheduler;
+  }
+
+  @Override
+  public Response executeGet(Request request) throws IOException {
+    awaitDispatch(request);
+    return update(request, delegate.executeGet(request));
+  }
+
+  @Override
+  public Response executePost(Request request) throws IOException {
+    awaitDispatch(request);
+    return update(request, delegate.executePost(request));
+  }
+
+  @Override
+  public Response executeDelete(Request request) throws IOException {
+    awaitDispatch(request);
+    return update(request, delegate.executeDelete(request));
+  }
+
+  @Override
+  public CompletableFuture<Response> executeGetAsync(Request request) {
+    return executeAsync(request, () -> delegate.executeGetAsync(request));
+  }
+
+  @Override
+  public CompletableFuture<Response> executePostAsync(Request request) {
+    return executeAsync(request, () -> delegate.executePostAsync(request));
+  }
+
+  @Override
+  public CompletableFuture<Response> executeDeleteAsync(Request request) {
+    return executeAsync(request, () -> delegate.executeDeleteAsync(request));
+  }
+
+  @Override
+  public Executor getAsyncExecutor() {
+    return delegate.getAsyncExecutor();
+  }
+
+  @Override
+  public DebugHeaderInfo getDebugHeaderInfo() {
+    return delegate.getDebugHeaderInfo();
+  }
+
+  /**
+   * Returns the {@link WebRequestor} that sends the requests.
+   *
+   * @return the delegate web requestor
+   */
+  public WebRequestor getDelegate() {
+    return delegate;
+  }
+
+  /**
+   * Returns the throttler that decides when a request may be sent.
+   *
+   * @return the throttler
+   */
+  public RequestThrottler getThrottler() {
+    return throttler;
+  }
+
+  private CompletableFuture<Response> executeAsync(Request request, Supplier<CompletableFuture<Response>> execution) {
+    long delay = throttler.getDelayInMillis(request);
+    CompletableFuture<Response> responseFuture;
+    if (delay > 0) {
+      HTTP_LOGGER.debug("Throttling request to {} for {} ms", request.getUrl(), delay);
+      responseFuture = scheduleDispatch(delay).thenCompose(ignored -> execution.get());
+    } else {
+      responseFuture = execution.get();
+    }
+    return responseFuture.thenApply(response -> update(request, response));
+  }
+
+  private CompletableFuture<Void> scheduleDispatch(long delay) {
+    CompletableFuture<Void> dispatch = new CompletableFuture<>();
+    try {
+      Runnable complete = () -> dispatch.complete(null);
+      scheduler.schedule(complete, delay, TimeUnit.MILLISECONDS);
+    } catch (RejectedExecutionException e) {
+      dispatch.completeExceptionally(e);
+    }
+    return dispatch;
+  }
+
+  private void awaitDispatch(Request request) throws InterruptedIOException {
+    long delay = throttler.getDelayInMillis(request);
+    if (delay <= 0) {
+      return;
+    }
+
+    HTTP_LOGGER.debug("Throttling request to {} for {} ms", request.getUrl(), delay);
+    try {
+      Thread.sleep(delay);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      InterruptedIOException interruptedException = new InterruptedIOException("Throttled request interrupted");
+      interruptedException.initCause(e);
+      throw interruptedException;
+    }
+  }
+
+  private Response update(Request request, Response response) {
+    if (response != null) {
+      throttler.update(request, response);
+    }
+    return response;
+  }
+
+  /**
+   * Holds the scheduler that is shared by all throttling web requestors without an own scheduler, it is only created
+   * if such a requestor exists.
+   */
+  private static final class DefaultScheduler {
+
+    private static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "restfb-throttling");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+}
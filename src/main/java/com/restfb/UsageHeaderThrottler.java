@@ -0,0 +1,371 @@
+/*
+ * Copyright (c) 2010-2025 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static com.restfb.logging.RestFBLogger.HTTP_LOGGER;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.restfb.util.EncodingUtils;
+import com.restfb.util.StringUtils;
+import com.restfb.util.UrlUtils;
+
+/**
+ * {@link RequestThrottler} that is driven by the usage headers Facebook sends with every response.
+ * <p>
+ * The <code>x-app-usage</code>, <code>x-page-usage</code>, <code>x-ad-account-usage</code> and
+ * <code>x-business-use-case-usage</code> headers are tracked separately for the app, the page (identified by the access
+ * token), the ad account and the business object the request is directed to. As long as the usage is below the
+ * slow-down threshold, requests are sent immediately. Above the threshold, the delay grows linearly up to the maximum
+ * delay. If the usage reaches 100%, requests are paused until the <code>estimated_time_to_regain_access</code>
+ * Facebook advertised, or for the default pause if there is no such information.
+ * <p>
+ * Pages are keyed by the SHA-256 hash of their access token, so the throttler never keeps or logs tokens in plain text.
+ * A recorded usage expires once its pause has passed, or after one hour (the window Facebook computes the usage for)
+ * if it didn't pause requests, and the number of tracked keys is bounded.
+ * <p>
+ * The throttler is thread-safe and may be shared by several clients that use the same app.
+ */
+public class UsageHeaderThrottler implements RequestThrottler {
+
+  private static final double FULL_USAGE = 100.0;
+
+  private static final String APP_KEY = "app";
+
+  private static final String PAGE_KEY_PREFIX = "page:";
+
+  private static final String AD_ACCOUNT_KEY_PREFIX = "ad_account:";
+
+  private static final String BUSINESS_KEY_PREFIX = "business:";
+
+  private static final String AD_ACCOUNT_ID_PREFIX = "act_";
+
+  private static final String ACCESS_TOKEN_PARAMETER = "access_token=";
+
+  private static final long USAGE_WINDOW_IN_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+  static final int MAX_TRACKED_KEYS = 10_000;
+
+  private final Map<String, Usage> usages = new ConcurrentHashMap<>();
+
+  private final Clock clock;
+
+  private volatile double slowDownThreshold = 75.0;
+
+  private volatile long maxDelayInMillis = TimeUnit.SECONDS.toMillis(5);
+
+  private volatile long defaultPauseInMillis = TimeUnit.MINUTES.toMillis(1);
+
+  public UsageHeaderThrottler() {
+    this(Clock.systemUTC());
+  }
+
+  UsageHeaderThrottler(Clock clock) {
+    this.clock = clock;
+  }
+
+  @Override
+  public long getDelayInMillis(WebRequestor.Request request) {
+    long now = clock.millis();
+    return getKeys(request).stream() //
+      .map(key -> getUsage(key, now)) //
+      .filter(Objects::nonNull) //
+      .mapToLong(usage -> getDelay(usage, now)) //
+      .max().orElse(0L);
+  }
+
+  @Override
+  public void update(WebRequestor.Request request, WebRequestor.Response response) {
+    DebugHeaderInfo debugHeaderInfo = response.getDebugHeaderInfo();
+    if (debugHeaderInfo == null) {
+      return;
+    }
+
+    long now = clock.millis();
+    record(APP_KEY, toPercentage(debugHeaderInfo.getAppUsage()), 0L, now);
+    record(getPageKey(request), toPercentage(debugHeaderInfo.getPageUsage()), 0L, now);
+
+    String objectId = getObjectId(request.getUrl());
+    if (objectId != null && objectId.startsWith(AD_ACCOUNT_ID_PREFIX)) {
+      record(AD_ACCOUNT_KEY_PREFIX + objectId.substring(AD_ACCOUNT_ID_PREFIX.length()),
+        toPercentage(debugHeaderInfo.getAdAccountUsage()), 0L, now);
+    }
+
+    DebugHeaderInfo.BusinessUseCaseUsage businessUseCaseUsage = debugHeaderInfo.getBusinessUseCaseUsage();
+    if (businessUseCaseUsage != null) {
+      for (String businessId : businessUseCaseUsage.getBusinessIds()) {
+        List<DebugHeaderInfo.InnerBusinessUseCaseUsage> usageList =
+            Optional.ofNullable(businessUseCaseUsage.get(businessId)).orElseGet(ArrayList::new);
+        Double percentage = usageList.stream() //
+          .map(u -> max(u.getCallCount(), u.getTotalTime(), u.getTotalCputime())) //
+          .filter(Objects::nonNull) //
+          .max(Double::compare).orElse(null);
+        long regainInMillis = usageList.stream() //
+          .map(DebugHeaderInfo.InnerBusinessUseCaseUsage::getEstimatedTimeToRegainAccess) //
+          .filter(Objects::nonNull) //
+          .mapToLong(minutes -> TimeUnit.MINUTES.toMillis(minutes)) //
+          .max().orElse(0L);
+        record(BUSINESS_KEY_PREFIX + businessId, percentage, regainInMillis, now);
+      }
+    }
+  }
+
+  /**
+   * Returns the usage percentage above which requests are slowed down.
+   *
+   * @return the slow-down threshold in percent
+   */
+  public double getSlowDownThreshold() {
+    return slowDownThreshold;
+  }
+
+  /**
+   * Sets the usage percentage above which requests are slowed down (default: 75).
+   *
+   * @param slowDownThreshold
+   *          the slow-down threshold in percent, between 0 (inclusive) and 100 (exclusive)
+   */
+  public void setSlowDownThreshold(double slowDownThreshold) {
+    if (slowDownThreshold < 0 || slowDownThreshold >= FULL_USAGE) {
+      throw new IllegalArgumentException("The slow-down threshold has to be between 0 and 100");
+    }
+    this.slowDownThreshold = slowDownThreshold;
+  }
+
+  /**
+   * Returns the delay that is used right before the usage reaches 100%.
+   *
+   * @return the maximum delay in milliseconds
+   */
+  public long getMaxDelayInMillis() {
+    return maxDelayInMillis;
+  }
+
+  /**
+   * Sets the delay that is used right before the usage reaches 100% (default: 5 seconds).
+   *
+   * @param maxDelayInMillis
+   *          the maximum delay in milliseconds
+   */
+  public void setMaxDelayInMillis(long maxDelayInMillis) {
+    this.maxDelayInMillis = maxDelayInMillis;
+  }
+
+  /**
+   * Returns how long requests are paused if the usage reached 100% and Facebook didn't advertise a regain time.
+   *
+   * @return the default pause in milliseconds
+   */
+  public long getDefaultPauseInMillis() {
+    return defaultPauseInMillis;
+  }
+
+  /**
+   * Sets how long requests are paused if the usage reached 100% and Facebook didn't advertise a regain time (default:
+   * 1 minute).
+   *
+   * @param defaultPauseInMillis
+   *          the default pause in milliseconds
+   */
+  public void setDefaultPauseInMillis(long defaultPauseInMillis) {
+    this.defaultPauseInMillis = defaultPauseInMillis;
+  }
+
+  private void record(String key, Double percentage, long regainInMillis, long now) {
+    if (percentage == null) {
+      return;
+    }
+
+    long pausedUntil = 0L;
+    if (regainInMillis > 0) {
+      pausedUntil = now + regainInMillis;
+    } else if (percentage >= FULL_USAGE) {
+      pausedUntil = now + defaultPauseInMillis;
+    }
+
+    if (pausedUntil > 0) {
+      // page keys are derived from the access token, so only the kind of key is logged for them
+      HTTP_LOGGER.debug("Usage of {} reached {}%, pausing requests for {} ms",
+        key.startsWith(PAGE_KEY_PREFIX) ? "page" : key, percentage, pausedUntil - now);
+    }
+    usages.put(key, new Usage(percentage, pausedUntil, now));
+    if (usages.size() > MAX_TRACKED_KEYS) {
+      removeExpiredUsages(now);
+    }
+  }
+
+  private Usage getUsage(String key, long now) {
+    Usage usage = usages.get(key);
+    if (usage != null && usage.isExpired(now)) {
+      usages.remove(key, usage);
+      return null;
+    }
+    return usage;
+  }
+
+  private void removeExpiredUsages(long now) {
+    usages.values().removeIf(usage -> usage.isExpired(now));
+
+    int excess = usages.size() - MAX_TRACKED_KEYS;
+    if (excess > 0) {
+      // still too many recent keys, the oldest usages are dropped
+      usages.entrySet().stream() //
+        .sorted(Comparator.comparingLong(entry -> entry.getValue().recordedAt)) //
+        .limit(excess) //
+        .collect(Collectors.toList()) //
+        .forEach(entry -> usages.remove(entry.getKey(), entry.getValue()));
+    }
+  }
+
+  int getTrackedKeyCount() {
+    return usages.size();
+  }
+
+  private long getDelay(Usage usage, long now) {
+    if (usage.pausedUntil > 0) {
+      return Math.max(0L, usage.pausedUntil - now);
+    }
+
+    double threshold = slowDownThreshold;
+    if (usage.percentage <= threshold) {
+      return 0L;
+    }
+
+    double factor = Math.min(1.0, (usage.percentage - threshold) / (FULL_USAGE - threshold));
+    return (long) (maxDelayInMillis * factor);
+  }
+
+  private List<String> getKeys(WebRequestor.Request request) {
+    List<String> keys = new ArrayList<>();
+    keys.add(APP_KEY);
+    keys.add(getPageKey(request));
+
+    String objectId = getObjectId(request.getUrl());
+    if (objectId != null) {
+      if (objectId.startsWith(AD_ACCOUNT_ID_PREFIX)) {
+        objectId = objectId.substring(AD_ACCOUNT_ID_PREFIX.length());
+        keys.add(AD_ACCOUNT_KEY_PREFIX + objectId);
+      }
+      keys.add(BUSINESS_KEY_PREFIX + objectId);
+    }
+    return keys;
+  }
+
+  private String getPageKey(WebRequestor.Request request) {
+    if (request.hasHeaderAccessToken()) {
+      return PAGE_KEY_PREFIX + EncodingUtils.encodeSha256Hex(request.getHeaderAccessToken());
+    }
+
+    String parameters = StringUtils.trimToEmpty(request.getParameters());
+    return Stream.of(parameters.split("&")) //
+      .filter(p -> p.startsWith(ACCESS_TOKEN_PARAMETER)) //
+      .map(p -> UrlUtils.urlDecode(p.substring(ACCESS_TOKEN_PARAMETER.length()))) //
+      .map(accessToken -> PAGE_KEY_PREFIX + EncodingUtils.encodeSha256Hex(accessToken)) //
+      .findFirst().orElse(PAGE_KEY_PREFIX);
+  }
+
+  /**
+   * Extracts the id of the object the request is directed to, the first path element after the API version.
+   */
+  static String getObjectId(String url) {
+    if (url == null) {
+      return null;
+    }
+
+    String path = url;
+    int queryStart = path.indexOf('?');
+    if (queryStart >= 0) {
+      path = path.substring(0, queryStart);
+    }
+    int schemeEnd = path.indexOf("://");
+    if (schemeEnd >= 0) {
+      int pathStart = path.indexOf('/', schemeEnd + 3);
+      path = pathStart >= 0 ? path.substring(pathStart) : "";
+    }
+
+    return Stream.of(path.split("/")) //
+      .filter(segment -> !segment.isEmpty()) //
+      .filter(segment -> !segment.matches("v\\d+\\.\\d+")) //
+      .findFirst().orElse(null);
+  }
+
+  private static Double toPercentage(DebugHeaderInfo.HeaderUsage headerUsage) {
+    if (headerUsage == null) {
+      return null;
+    }
+
+    if (headerUsage.isAdAccountHeader()) {
+      return headerUsage.getAccIdUtilPct();
+    }
+
+    if (headerUsage.isPercentageOnly()) {
+      try {
+        return Double.valueOf(StringUtils.trimToEmpty(headerUsage.getPercentage()).replace("%", ""));
+      } catch (NumberFormatException e) {
+        return null;
+      }
+    }
+
+    return max(headerUsage.getCallCount(), headerUsage.getTotalTime(), headerUsage.getTotalCputime());
+  }
+
+  private static Double max(Integer... values) {
+    return Stream.of(values) //
+      .filter(Objects::nonNull) //
+      .filter(value -> value >= 0) //
+      .map(Integer::doubleValue) //
+      .max(Double::compare).orElse(null);
+  }
+
+  private static class Usage {
+
+    private final double percentage;
+
+    private final long pausedUntil;
+
+    private final long recordedAt;
+
+    Usage(double percentage, long pausedUntil, long recordedAt) {
+      this.percentage = percentage;
+      this.pausedUntil = pausedUntil;
+      this.recordedAt = recordedAt;
+    }
+
+    boolean isExpired(long now) {
+      if (pausedUntil > 0) {
+        // after the pause the usage is unknown until the next response arrives
+        return pausedUntil <= now;
+      }
+      return recordedAt + USAGE_WINDOW_IN_MILLIS <= now;
+    }
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2010-2025 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import java.io.Serializable;
+
+/**
+ * State of a resumable video upload, as far as Facebook acknowledged it.
+ * <p>
+ * The session is saved by a {@link VideoUploadSessionStore} after every transferred chunk, so an interrupted upload can
+ * continue with the chunk Facebook asked for last.
+ */
+public class VideoUploadSession implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final String uploadSessionId;
+
+  private final String videoId;
+
+  private final long fileSize;
+
+  private final long startOffset;
+
+  private final long endOffset;
+
+  public VideoUploadSession(String uploadSessionId, String videoId, long fileSize, long startOffset, long endOffset) {
+    this.uploadSessionId = uploadSessionId;
+    this.videoId = videoId;
+    this.fileSize = fileSize;
+    this.startOffset = startOffset;
+    this.endOffset = endOffset;
+  }
+
+  /**
+   * Creates a copy of this session with the offsets of the next chunk Facebook asked for.
+   *
+   * @param startOffset
+   *          start offset of the next chunk
+   * @param endOffset
+   *          end offset (exclusive) of the next chunk
+   * @return the updated session
+   */
+  public VideoUploadSession withOffsets(long startOffset, long endOffset) {
+    return new VideoUploadSession(uploadSessionId, videoId, fileSize, startOffset, endOffset);
+  }
+
+  public String getUploadSessionId() {
+    return uploadSessionId;
+  }
+
+  public String getVideoId() {
+    return videoId;
+  }
+
+  public long getFileSize() {
+    return fileSize;
+  }
+
+  /**
+   * @return start offset of the next chunk Facebook expects
+   */
+  public long getStartOffset() {
+    return startOffset;
+  }
+
+  /**
+   * @return end offset (exclusive) of the next chunk Facebook expects
+   */
+  public long getEndOffset() {
+    return endOffset;
+  }
+
+  /**
+   * Checks if Facebook received the complete file.
+   *
+   * @return {@code true} if no more chunks have to be sent
+   */
+  public boolean isTransferred() {
+    return startOffset == endOffset;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("[uploadSessionId=%s, videoId=%s, fileSize=%d, startOffset=%d, endOffset=%d]", uploadSessionId,
+      videoId, fileSize, startOffset, endOffset);
+  }
+}
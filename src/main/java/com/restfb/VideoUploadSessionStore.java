@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2010-2025 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import java.util.Optional;
+
+/**
+ * Persists the state of resumable video uploads, so an upload can be continued after a crash.
+ *
+ * @see FileVideoUploadSessionStore
+ */
+public interface VideoUploadSessionStore {
+
+  /**
+   * Loads the session that was saved with the given key.
+   *
+   * @param key
+   *          identifies the upload
+   * @return the saved session, empty if there is none
+   */
+  Optional<VideoUploadSession> load(String key);
+
+  /**
+   * Saves the session under the given key, replacing an older state.
+   *
+   * @param key
+   *          identifies the upload
+   * @param session
+   *          the current state of the upload
+   */
+  void save(String key, VideoUploadSession session);
+
+  /**
+   * Removes the session with the given key, the upload is finished or can't be resumed.
+   *
+   * @param key
+   *          identifies the upload
+   */
+  void remove(String key);
+}
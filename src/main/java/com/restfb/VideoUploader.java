@@ -0,0 +1,294 @@
+/*
+ * Copyright (c) 2010-2025 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static com.restfb.logging.RestFBLogger.CLIENT_LOGGER;
+import static com.restfb.util.ObjectUtil.verifyParameterPresence;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+import com.restfb.exception.FacebookGraphException;
+import com.restfb.exception.FacebookResponseContentException;
+import com.restfb.types.GraphResponse;
+import com.restfb.types.ResumableUploadStartResponse;
+import com.restfb.types.ResumableUploadTransferResponse;
+
+/**
+ * Uploads large videos with the resumable upload protocol of the Graph API (start, transfer and finish phase).
+ * <p>
+ * The file is sent in the chunks Facebook asks for and every response is checked, so a chunk is never skipped or sent
+ * twice by accident. After every acknowledged chunk the state is saved in a {@link VideoUploadSessionStore}. If the
+ * upload of the same file to the same connection is started again, it continues with the chunk Facebook asked for
+ * last. Use a {@link FileVideoUploadSessionStore} to resume uploads after the JVM was restarted, by default the state
+ * is kept in memory only.
+ * <p>
+ * Facebook dictates the offset of the next chunk in the response of the previous one, so the chunks of one video are
+ * always sent one after the other. Several videos are uploaded in parallel with
+ * {@link #uploadAsync(String, Path, Parameter...)}, the parallelism is bounded by the executor.
+ *
+ * <pre>
+ * VideoUploader uploader = new VideoUploader(facebookClient, Executors.newFixedThreadPool(4));
+ * uploader.setSessionStore(new FileVideoUploadSessionStore(Paths.get("upload-sessions")));
+ * String videoId = uploader.upload(pageId + "/videos", Paths.get("video.mp4"), Parameter.with("title", "My video"));
+ * </pre>
+ */
+public class VideoUploader {
+
+  private static final String UPLOAD_PHASE = "upload_phase";
+
+  private static final String UPLOAD_SESSION_ID = "upload_session_id";
+
+  private static final String VIDEO_FILE_CHUNK = "video_file_chunk";
+
+  private final FacebookClient facebookClient;
+
+  private final Executor executor;
+
+  private VideoUploadSessionStore sessionStore = new InMemorySessionStore();
+
+  /**
+   * Creates an uploader that runs asynchronous uploads in the {@code ForkJoinPool.commonPool()}.
+   *
+   * @param facebookClient
+   *          the client used to send the requests
+   */
+  public VideoUploader(FacebookClient facebookClient) {
+    this(facebookClient, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Creates an uploader.
+   *
+   * @param facebookClient
+   *          the client used to send the requests
+   * @param executor
+   *          the executor that runs asynchronous uploads, its size bounds the number of parallel uploads
+   */
+  public VideoUploader(FacebookClient facebookClient, Executor executor) {
+    verifyParameterPresence("facebookClient", facebookClient);
+    verifyParameterPresence("executor", executor);
+    this.facebookClient = facebookClient;
+    this.executor = executor;
+  }
+
+  /**
+   * Uploads the video and publishes it.
+   *
+   * @param connection
+   *          the video connection of the target, for example <code>{page-id}/videos</code>
+   * @param file
+   *          the video file
+   * @param finishParameters
+   *          parameters sent with the finish phase, like {@code title} or {@code description}
+   * @return the id of the uploaded video
+   * @throws UncheckedIOException
+   *           if the file can't be read
+   * @throws com.restfb.exception.FacebookException
+   *           if Facebook rejected the upload
+   */
+  public String upload(String connection, Path file, Parameter... finishParameters) {
+    verifyParameterPresence("connection", connection);
+    verifyParameterPresence("file", file);
+
+    try (FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long fileSize = fileChannel.size();
+      String fileName = file.getFileName().toString();
+      String key = createSessionKey(connection, file, fileSize);
+
+      VideoUploadSession session = sessionStore.load(key).filter(s -> s.getFileSize() == fileSize).orElse(null);
+      if (session != null && !session.isTransferred()) {
+        CLIENT_LOGGER.debug("Resuming video upload {} at offset {}", session.getUploadSessionId(),
+          session.getStartOffset());
+        try {
+          session = transferNextChunk(connection, fileChannel, fileName, key, session);
+        } catch (FacebookGraphException | FacebookResponseContentException e) {
+          // an expired session is rejected, a session whose offsets don't match the server any more is answered with
+          // invalid offsets, the upload is restarted in both cases
+          CLIENT_LOGGER.info("Facebook rejected the saved upload session, restarting the upload", e);
+          sessionStore.remove(key);
+          session = null;
+        }
+      }
+
+      if (session == null) {
+        session = startSession(connection, key, fileSize);
+      }
+
+      while (!session.isTransferred()) {
+        session = transferNextChunk(connection, fileChannel, fileName, key, session);
+      }
+
+      finishSession(connection, session, finishParameters);
+      sessionStore.remove(key);
+      return session.getVideoId();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to read the video file " + file, e);
+    }
+  }
+
+  /**
+   * Uploads the video and publishes it asynchronously with the executor of this uploader.
+   *
+   * @param connection
+   *          the video connection of the target, for example <code>{page-id}/videos</code>
+   * @param file
+   *          the video file
+   * @param finishParameters
+   *          parameters sent with the finish phase, like {@code title} or {@code description}
+   * @return future completed with the id of the uploaded video
+   */
+  public CompletableFuture<String> uploadAsync(String connection, Path file, Parameter... finishParameters) {
+    return CompletableFuture.supplyAsync(() -> upload(connection, file, finishParameters), executor);
+  }
+
+  public VideoUploadSessionStore getSessionStore() {
+    return sessionStore;
+  }
+
+  /**
+   * Sets the store that keeps the state of running uploads.
+   *
+   * @param sessionStore
+   *          the session store
+   */
+  public void setSessionStore(VideoUploadSessionStore sessionStore) {
+    verifyParameterPresence("sessionStore", sessionStore);
+    this.sessionStore = sessionStore;
+  }
+
+  private VideoUploadSession startSession(String connection, String key, long fileSize) {
+    ResumableUploadStartResponse response = facebookClient.publish(connection, ResumableUploadStartResponse.class,
+      Parameter.with(UPLOAD_PHASE, "start"), Parameter.with("file_size", fileSize));
+
+    if (response.getUploadSessionId() == null) {
+      throw new FacebookResponseContentException("Facebook didn't start an upload session: " + response, null);
+    }
+
+    VideoUploadSession session =
+        verifyOffsets(new VideoUploadSession(response.getUploadSessionId(), response.getVideoId(), fileSize, -1, -1),
+          response);
+    sessionStore.save(key, session);
+    return session;
+  }
+
+  private VideoUploadSession transferNextChunk(String connection, FileChannel fileChannel, String fileName, String key,
+      VideoUploadSession session) throws IOException {
+    byte[] chunk = readChunk(fileChannel, session.getStartOffset(), session.getEndOffset());
+
+    ResumableUploadTransferResponse response = facebookClient.publish(connection,
+      ResumableUploadTransferResponse.class,
+      BinaryAttachment.with(VIDEO_FILE_CHUNK, fileName, chunk, "application/octet-stream"),
+      Parameter.with(UPLOAD_PHASE, "transfer"), Parameter.with(UPLOAD_SESSION_ID, session.getUploadSessionId()),
+      Parameter.with("start_offset", session.getStartOffset()));
+
+    VideoUploadSession next = verifyOffsets(session, response);
+    sessionStore.save(key, next);
+    return next;
+  }
+
+  private void finishSession(String connection, VideoUploadSession session, Parameter... finishParameters) {
+    Parameter[] parameters = Stream.concat(Arrays.stream(finishParameters),
+      Stream.of(Parameter.with(UPLOAD_PHASE, "finish"), Parameter.with(UPLOAD_SESSION_ID, session.getUploadSessionId())))
+      .toArray(Parameter[]::new);
+
+    GraphResponse response = facebookClient.publish(connection, GraphResponse.class, parameters);
+    if (!response.isSuccess()) {
+      throw new FacebookResponseContentException(
+        "Facebook didn't finish the upload session " + session.getUploadSessionId(), null);
+    }
+  }
+
+  /**
+   * Checks that Facebook asks for a chunk behind the one that was sent and inside the file.
+   */
+  private static VideoUploadSession verifyOffsets(VideoUploadSession session,
+      ResumableUploadTransferResponse response) {
+    Long startOffset = response.getStartOffset();
+    Long endOffset = response.getEndOffset();
+
+    if (startOffset == null || endOffset == null || startOffset <= session.getStartOffset() || startOffset > endOffset
+        || endOffset > session.getFileSize()) {
+      throw new FacebookResponseContentException(String.format(
+        "Facebook answered with the invalid offsets %d-%d for the upload session %s", startOffset, endOffset, session),
+        null);
+    }
+
+    return session.withOffsets(startOffset, endOffset);
+  }
+
+  private static byte[] readChunk(FileChannel fileChannel, long startOffset, long endOffset) throws IOException {
+    long length = endOffset - startOffset;
+    if (length > Integer.MAX_VALUE) {
+      throw new IOException("Facebook asked for a chunk of " + length + " bytes, that is too large");
+    }
+
+    ByteBuffer buffer = ByteBuffer.allocate((int) length);
+    while (buffer.hasRemaining()) {
+      if (fileChannel.read(buffer, startOffset + buffer.position()) < 0) {
+        throw new EOFException("The video file ended before offset " + endOffset);
+      }
+    }
+    return buffer.array();
+  }
+
+  private static String createSessionKey(String connection, Path file, long fileSize) throws IOException {
+    return connection + '|' + file.toAbsolutePath() + '|' + fileSize + '|' + Files.getLastModifiedTime(file).toMillis();
+  }
+
+  /**
+   * Keeps the sessions as long as the uploader lives.
+   */
+  private static class InMemorySessionStore implements VideoUploadSessionStore {
+
+    private final Map<String, VideoUploadSession> sessions = new ConcurrentHashMap<>();
+
+    @Override
+    public Optional<VideoUploadSession> load(String key) {
+      return Optional.ofNullable(sessions.get(key));
+    }
+
+    @Override
+    public void save(String key, VideoUploadSession session) {
+      sessions.put(key, session);
+    }
+
+    @Override
+    public void remove(String key) {
+      sessions.remove(key);
+    }
+  }
+}
@@ -26,9 +26,17 @@ import static com.restfb.util.StringUtils.trimToEmpty;
 import static java.lang.String.format;
 
 import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 import com.restfb.types.FacebookReelAttachment;
 import com.restfb.util.StringUtils;
@@ -41,6 +49,10 @@ import com.restfb.util.StringUtils;
 public interface WebRequestor {
   /**
    * Encapsulates an HTTP response body and status code.
+   * <p>
+   * The body is either available as text or, if the response is streamed, as a {@link Reader} that is still connected
+   * to the network. A streamed body can be read only once: either with {@link #getBodyReader()}, or as text with
+   * {@link #getBody()}.
    * 
    * @author <a href="http://restfb.com">Mark Allen</a>
    */
@@ -53,7 +65,22 @@ public interface WebRequestor {
     /**
      * HTTP response body as text.
      */
-    private final String body;
+    private String body;
+
+    /**
+     * Streamed HTTP response body, {@code null} if the body is available as text.
+     */
+    private Reader bodyReader;
+
+    /**
+     * HTTP response headers of this call.
+     */
+    private Map<String, List<String>> headers = Collections.emptyMap();
+
+    /**
+     * Facebook debug header information of this call, may be {@code null}.
+     */
+    private DebugHeaderInfo debugHeaderInfo;
 
     /**
      * Creates a response with the given HTTP status code and response body as text.
@@ -68,6 +95,23 @@ public interface WebRequestor {
       this.body = trimToEmpty(body);
     }
 
+    /**
+     * Creates a response with the given HTTP status code and a streamed response body.
+     * <p>
+     * Closing the reader releases the underlying connection.
+     *
+     * @param statusCode
+     *          The HTTP status code of the response.
+     * @param bodyReader
+     *          The response body as reader.
+     * @return the response with the streamed body
+     */
+    public static Response streaming(Integer statusCode, Reader bodyReader) {
+      Response response = new Response(statusCode, (String) null);
+      response.bodyReader = bodyReader;
+      return response;
+    }
+
     /**
      * Gets the HTTP status code.
      * 
@@ -82,15 +126,109 @@ public interface WebRequestor {
      * 
      * @return The HTTP response body as text.
      */
-    public String getBody() {
+    public synchronized String getBody() {
+      if (bodyReader != null) {
+        try (Reader reader = bodyReader) {
+          bodyReader = null;
+          body = trimToEmpty(StringUtils.fromReader(reader));
+        } catch (IOException e) {
+          throw new UncheckedIOException("Unable to read the streamed response body", e);
+        }
+      }
       return body;
     }
 
+    /**
+     * Gets the HTTP response body as reader.
+     * <p>
+     * For a streamed response the caller is responsible for closing the reader, this releases the underlying
+     * connection.
+     *
+     * @return The HTTP response body as reader.
+     */
+    public synchronized Reader getBodyReader() {
+      if (bodyReader != null) {
+        Reader reader = bodyReader;
+        bodyReader = null;
+        return reader;
+      }
+      return new StringReader(trimToEmpty(body));
+    }
+
+    /**
+     * Checks if the body of this response is streamed and wasn't read yet.
+     *
+     * @return {@code true} if the body is available as an unread stream, {@code false} otherwise
+     */
+    public synchronized boolean isStreamingBody() {
+      return bodyReader != null;
+    }
+
+    /**
+     * Gets the HTTP response headers of this call.
+     * <p>
+     * In contrast to {@link WebRequestor#getDebugHeaderInfo()} the headers belong to this response only, so they are
+     * safe to use if the same {@link WebRequestor} is shared between threads.
+     *
+     * @return the unmodifiable HTTP response headers, never {@code null}
+     */
+    public Map<String, List<String>> getHeaders() {
+      return headers;
+    }
+
+    /**
+     * Sets the HTTP response headers of this call.
+     *
+     * @param headers
+     *          the HTTP response headers, may be {@code null}
+     */
+    public void setHeaders(Map<String, List<String>> headers) {
+      this.headers = headers == null ? Collections.emptyMap() : Collections.unmodifiableMap(headers);
+    }
+
+    /**
+     * Gets the first value of the given HTTP response header.
+     *
+     * @param name
+     *          the (case-insensitive) header field name
+     * @return the first value of the header, {@code null} if the response doesn't contain the header
+     */
+    public String getHeader(String name) {
+      return headers.entrySet().stream() //
+        .filter(e -> e.getKey() != null && e.getKey().equalsIgnoreCase(name)) //
+        .map(Map.Entry::getValue) //
+        .filter(values -> values != null && !values.isEmpty()) //
+        .map(values -> values.get(0)) //
+        .findFirst().orElse(null);
+    }
+
+    /**
+     * Gets the Facebook debug header information of this call.
+     *
+     * @return the debug header information, may be {@code null} if the {@link WebRequestor} doesn't provide it
+     */
+    public DebugHeaderInfo getDebugHeaderInfo() {
+      return debugHeaderInfo;
+    }
+
+    /**
+     * Sets the Facebook debug header information of this call.
+     *
+     * @param debugHeaderInfo
+     *          the debug header information
+     */
+    public void setDebugHeaderInfo(DebugHeaderInfo debugHeaderInfo) {
+      this.debugHeaderInfo = debugHeaderInfo;
+    }
+
     /**
      * @see java.lang.Object#toString()
      */
     @Override
     public String toString() {
+      if (isStreamingBody()) {
+        return format("HTTP status code %d and a streamed response body.", getStatusCode());
+      }
       if (isBlank(getBody())) {
         return format("HTTP status code %d and an empty response body.", getStatusCode());
       }
@@ -262,11 +400,94 @@ public interface WebRequestor {
    */
   Response executeDelete(Request request) throws IOException;
 
+  /**
+   * Given a Facebook API endpoint URL, execute a {@code GET} against it without blocking the calling thread.
+   * <p>
+   * This default implementation runs {@link #executeGet(Request)} in the {@link #getAsyncExecutor() async executor},
+   * so the blocking I/O only moves to another thread. Implementations with a non-blocking transport should override
+   * it.
+   *
+   * @param request
+   *          The request data for the {@code GET} request
+   * @return future completed with the HTTP response data, or exceptionally with the {@link IOException} that occurred
+   *         while performing the {@code GET} operation.
+   */
+  default CompletableFuture<Response> executeGetAsync(Request request) {
+    return CompletableFuture.supplyAsync(() -> {
+      try {
+        return executeGet(request);
+      } catch (IOException e) {
+        throw new CompletionException(e);
+      }
+    }, getAsyncExecutor());
+  }
+
+  /**
+   * Given a Facebook API endpoint URL and parameter string, execute a {@code POST} to the endpoint URL without blocking
+   * the calling thread.
+   * <p>
+   * This default implementation runs {@link #executePost(Request)} in the {@link #getAsyncExecutor() async executor},
+   * so the blocking I/O only moves to another thread. Implementations with a non-blocking transport should override
+   * it.
+   *
+   * @param request
+   *          The request data used for the {@code POST} request.
+   * @return future completed with the HTTP response data, or exceptionally with the {@link IOException} that occurred
+   *         while performing the {@code POST}.
+   */
+  default CompletableFuture<Response> executePostAsync(Request request) {
+    return CompletableFuture.supplyAsync(() -> {
+      try {
+        return executePost(request);
+      } catch (IOException e) {
+        throw new CompletionException(e);
+      }
+    }, getAsyncExecutor());
+  }
+
+  /**
+   * Given a Facebook API endpoint URL and parameter string, execute a {@code DELETE} to the endpoint URL without
+   * blocking the calling thread.
+   * <p>
+   * This default implementation runs {@link #executeDelete(Request)} in the {@link #getAsyncExecutor() async executor},
+   * so the blocking I/O only moves to another thread. Implementations with a non-blocking transport should override
+   * it.
+   *
+   * @param request
+   *          The request data used for the {@code DELETE} request.
+   * @return future completed with the HTTP response data, or exceptionally with the {@link IOException} that occurred
+   *         while performing the {@code DELETE}.
+   */
+  default CompletableFuture<Response> executeDeleteAsync(Request request) {
+    return CompletableFuture.supplyAsync(() -> {
+      try {
+        return executeDelete(request);
+      } catch (IOException e) {
+        throw new CompletionException(e);
+      }
+    }, getAsyncExecutor());
+  }
+
+  /**
+   * Returns the executor the default asynchronous methods run the blocking requests in.
+   * <p>
+   * By default, this is a shared pool of at most 16 daemon threads, so blocking I/O never runs in the
+   * {@code ForkJoinPool.commonPool()}. Override it to use an executor of the application.
+   *
+   * @return the executor for the blocking requests of the asynchronous methods
+   */
+  default Executor getAsyncExecutor() {
+    return BlockingRequestExecutor.INSTANCE;
+  }
+
   /**
    * Provides access to the facebook header information.
    * <p>
    * The fields <code>x-fb-rev</code>, <code>x-fb-trace-id</code> and <code>x-fb-debug</code> are checked and returned
    * in a single container of the type {@link DebugHeaderInfo}
+   * <p>
+   * The information belongs to the last response this requestor received. If the requestor is used by several threads,
+   * use {@link Response#getDebugHeaderInfo()} instead.
    * 
    * @return container with the explained facebook debug header information
    */
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2010-2025 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb.util;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Immutable string that is kept as deflated UTF-8.
+ * <p>
+ * Graph API responses are JSON with many repeated keys, they shrink to a fraction of their size. A preset dictionary
+ * with the most common Graph API keys helps small responses, where deflate alone has too little context. Deflater and
+ * inflater are reused per thread, so their native memory is not allocated for every string.
+ */
+public final class DeflatedString {
+
+  private static final byte[] DICTIONARY = ("\"paging\":{\"cursors\":{\"before\":\"\",\"after\":\"\"},"
+      + "\"next\":\"https://graph.facebook.com/\",\"previous\":\"\"}"
+      + "{\"data\":[{\"id\":\"\",\"name\":\"\",\"created_time\":\"\",\"updated_time\":\"\",\"message\":\"\","
+      + "\"from\":{\"name\":\"\",\"id\":\"\"},\"type\":\"\",\"link\":\"\",\"picture\":\"\",\"url\":\"\","
+      + "\"summary\":{\"total_count\":},\"can_comment\":\"is_hidden\":\"is_published\":true,false,null}]}")
+        .getBytes(StandardCharsets.UTF_8);
+
+  private static final ThreadLocal<Deflater> DEFLATER = ThreadLocal.withInitial(Deflater::new);
+
+  private static final ThreadLocal<Inflater> INFLATER = ThreadLocal.withInitial(Inflater::new);
+
+  private final byte[] data;
+
+  private final int length;
+
+  private DeflatedString(byte[] data, int length) {
+    this.data = data;
+    this.length = length;
+  }
+
+  /**
+   * Deflates the string.
+   *
+   * @param string
+   *          the string
+   * @return the deflated string
+   */
+  public static DeflatedString of(String string) {
+    ObjectUtil.verifyParameterPresence("string", (Object) string);
+    byte[] utf8 = string.getBytes(StandardCharsets.UTF_8);
+
+    Deflater deflater = DEFLATER.get();
+    deflater.reset();
+    deflater.setDictionary(DICTIONARY);
+    deflater.setInput(utf8);
+    deflater.finish();
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, utf8.length / 4));
+    byte[] buffer = new byte[4096];
+    while (!deflater.finished()) {
+      out.write(buffer, 0, deflater.deflate(buffer));
+    }
+    return new DeflatedString(out.toByteArray(), utf8.length);
+  }
+
+  /**
+   * The number of bytes kept on the heap for the string.
+   *
+   * @return the deflated size
+   */
+  public int getDeflatedSize() {
+    return data.length;
+  }
+
+  /**
+   * The size of the string as UTF-8.
+   *
+   * @return the size in bytes
+   */
+  public int getUtf8Size() {
+    return length;
+  }
+
+  /**
+   * Inflates the string.
+   *
+   * @return the original string
+   */
+  @Override
+  public String toString() {
+    Inflater inflater = INFLATER.get();
+    inflater.reset();
+    inflater.setInput(data);
+
+    byte[] utf8 = new byte[length];
+    try {
+      int offset = 0;
+      while (offset < length) {
+        int inflated = inflater.inflate(utf8, offset, length - offset);
+        if (inflated == 0 && inflater.needsDictionary()) {
+          inflater.setDictionary(DICTIONARY);
+        } else if (inflated == 0 && (inflater.finished() || inflater.needsInput())) {
+          throw new IllegalStateException("The deflated string is truncated");
+        }
+        offset += inflated;
+      }
+    } catch (DataFormatException e) {
+      throw new IllegalStateException("The deflated string is broken", e);
+    }
+    return new String(utf8, StandardCharsets.UTF_8);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof DeflatedString)) {
+      return false;
+    }
+    DeflatedString other = (DeflatedString) obj;
+    return length == other.length && Arrays.equals(data, other.data);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * length + Arrays.hashCode(data);
+  }
+}
@@ -22,6 +22,8 @@
 package com.restfb.util;
 
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
 import java.util.Objects;
 import java.util.Optional;
@@ -94,6 +96,26 @@ public final class EncodingUtils {
     return new String(out).getBytes(StandardCharsets.UTF_8);
   }
 
+  /**
+   * Creates the hex encoded SHA-256 hash of the given string, so secrets like access tokens can be used as keys without
+   * keeping them in plain text.
+   *
+   * @param value
+   *          the string to hash
+   * @return the hex encoded SHA-256 hash of the UTF-8 bytes of {@code value}
+   * @throws NullPointerException
+   *           If {@code value} is {@code null}.
+   */
+  public static String encodeSha256Hex(String value) {
+    Objects.requireNonNull(value, "Parameter 'value' cannot be null.");
+    try {
+      byte[] hash = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+      return new String(encodeHex(hash), StandardCharsets.UTF_8);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
   /**
    * Generates an appsecret_proof for facebook.
    * <p>
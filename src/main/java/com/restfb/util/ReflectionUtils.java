@@ -28,6 +28,7 @@ import static java.util.Collections.unmodifiableList;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.*;
 import java.util.*;
+import java.util.function.Supplier;
 
 import com.restfb.annotation.OriginalJson;
 import com.restfb.exception.FacebookJsonMappingException;
@@ -66,6 +67,22 @@ public final class ReflectionUtils {
     annotatedFields.stream().map(FieldWithAnnotation::getField).filter(f -> String.class.equals(f.getType())).forEach(f -> setFieldData(f, cls, obj));
   }
 
+  /**
+   * Sets the original JSON on the fields annotated with {@link OriginalJson}, the JSON is only created if there is such
+   * a field.
+   *
+   * @param cls
+   *          the object with the annotated fields
+   * @param json
+   *          creates the original JSON
+   */
+  public static void setJson(Object cls, Supplier<String> json) {
+    if (cls == null || json == null) return; // if some object is null we skip this step
+    List<FieldWithAnnotation<OriginalJson>> annotatedFields = findFieldsWithAnnotation(cls.getClass(), OriginalJson.class);
+    if (annotatedFields.isEmpty()) return;
+    setJson(cls, json.get());
+  }
+
   private static void setFieldData(Field field, Object obj, Object data) {
     try {
       field.setAccessible(true);
@@ -25,6 +25,7 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.Objects;
@@ -44,6 +45,11 @@ public final class StringUtils {
    */
   public static final Charset ENCODING_CHARSET = StandardCharsets.UTF_8;
 
+  /**
+   * Buffer size used to read character streams.
+   */
+  private static final int BUFFER_SIZE = 8192;
+
   /**
    * Prevents instantiation.
    */
@@ -161,6 +167,31 @@ public final class StringUtils {
     }
   }
 
+  /**
+   * Reads all the characters of the given {@code reader}, without splitting the content into lines first.
+   * <p>
+   * It is the responsibility of the caller to close {@code reader}.
+   *
+   * @param reader
+   *          The reader to process.
+   * @return The content of {@code reader} as a String, or {@code null} if {@code reader} is {@code null}.
+   * @throws IOException
+   *           If an error occurs while processing the {@code reader}.
+   */
+  public static String fromReader(Reader reader) throws IOException {
+    if (reader == null) {
+      return null;
+    }
+
+    StringBuilder stringBuilder = new StringBuilder();
+    char[] buffer = new char[BUFFER_SIZE];
+    int read;
+    while ((read = reader.read(buffer)) != -1) {
+      stringBuilder.append(buffer, 0, read);
+    }
+    return stringBuilder.toString();
+  }
+
   /**
    * Returns an {@code Integer} representation of the given {@code string}, or {@code null} if it's not a valid
    * {@code Integer}.
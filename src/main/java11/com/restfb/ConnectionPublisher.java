@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2010-2025 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static com.restfb.util.ObjectUtil.verifyParameterPresence;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes the items of all connection pages to {@link Flow.Subscriber}s.
+ * <p>
+ * The demand of the subscriber drives the paging: a page is fetched only if the items of the previous page are
+ * delivered and the subscriber requests more. So a slow subscriber throttles the Graph API calls and at most one page
+ * is buffered. With a prefetch depth, up to that many pages are fetched ahead of the demand, see
+ * {@link PrefetchingConnectionIterator}. The prefetched pages are fetched on the same executor, while the subscriber
+ * waits for them, so the executor needs more than one thread then.
+ * <p>
+ * Every subscriber starts with the items of the given connection. The pages are fetched and the subscriber is called
+ * on the executor.
+ *
+ * @param <T>
+ *          The Facebook type
+ */
+public class ConnectionPublisher<T> implements Flow.Publisher<T> {
+
+  private final Connection<T> connection;
+
+  private final Executor executor;
+
+  private final int prefetchDepth;
+
+  /**
+   * Creates a publisher that fetches a page only when it is requested.
+   *
+   * @param connection
+   *          The first page of the connection.
+   * @param executor
+   *          The executor that fetches the pages and calls the subscribers.
+   */
+  public ConnectionPublisher(Connection<T> connection, Executor executor) {
+    this(connection, executor, 0);
+  }
+
+  /**
+   * Creates a publisher.
+   *
+   * @param connection
+   *          The first page of the connection.
+   * @param executor
+   *          The executor that fetches the pages and calls the subscribers.
+   * @param prefetchDepth
+   *          The number of pages that are fetched ahead of the demand, {@code 0} to fetch a page only when it is
+   *          requested.
+   */
+  public ConnectionPublisher(Connection<T> connection, Executor executor, int prefetchDepth) {
+    verifyParameterPresence("connection", connection);
+    verifyParameterPresence("executor", executor);
+    if (prefetchDepth < 0) {
+      throw new IllegalArgumentException("The prefetch depth must not be negative.");
+    }
+    this.connection = connection;
+    this.executor = executor;
+    this.prefetchDepth = prefetchDepth;
+  }
+
+  @Override
+  public void subscribe(Flow.Subscriber<? super T> subscriber) {
+    verifyParameterPresence("subscriber", subscriber);
+    ConnectionSubscription<T> subscription = new ConnectionSubscription<>(this, subscriber);
+    subscriber.onSubscribe(subscription);
+  }
+
+  private static class ConnectionSubscription<T> implements Flow.Subscription {
+
+    private final ConnectionPublisher<T> publisher;
+
+    private final Flow.Subscriber<? super T> subscriber;
+
+    private final AtomicLong requested = new AtomicLong();
+
+    private final AtomicInteger pendingDrains = new AtomicInteger();
+
+    private volatile boolean cancelled;
+
+    private volatile Throwable invalidRequest;
+
+    // only accessed by the drain loop
+    private Iterator<List<T>> pages;
+
+    private Iterator<T> items = Collections.emptyIterator();
+
+    private boolean terminated;
+
+    ConnectionSubscription(ConnectionPublisher<T> publisher, Flow.Subscriber<? super T> subscriber) {
+      this.publisher = publisher;
+      this.subscriber = subscriber;
+    }
+
+    @Override
+    public void request(long n) {
+      if (n <= 0) {
+        invalidRequest = new IllegalArgumentException("The number of requested items must be positive, got " + n);
+      } else {
+        requested.accumulateAndGet(n, (current, add) -> current + add < 0 ? Long.MAX_VALUE : current + add);
+      }
+      schedule();
+    }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+      schedule();
+    }
+
+    private void schedule() {
+      if (pendingDrains.getAndIncrement() == 0) {
+        try {
+          publisher.executor.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+          cancelled = true;
+          subscriber.onError(e);
+        }
+      }
+    }
+
+    /**
+     * Delivers the requested items, only one thread runs this loop at a time.
+     */
+    private void drain() {
+      int missed = 1;
+      do {
+        if (terminated) {
+          return;
+        }
+
+        long demand = requested.get();
+        long emitted = 0;
+        while (!isCancelledOrInvalid()) {
+          T item;
+          try {
+            item = nextItem(emitted < demand);
+          } catch (RuntimeException e) {
+            terminate();
+            subscriber.onError(e);
+            return;
+          }
+
+          if (item == null) {
+            if (pages != null && !items.hasNext() && !pages.hasNext()) {
+              terminate();
+              subscriber.onComplete();
+              return;
+            }
+            break;
+          }
+
+          subscriber.onNext(item);
+          emitted++;
+        }
+
+        if (isCancelledOrInvalid()) {
+          boolean signalInvalidRequest = !cancelled;
+          terminate();
+          if (signalInvalidRequest) {
+            subscriber.onError(invalidRequest);
+          }
+          return;
+        }
+
+        if (emitted > 0 && demand != Long.MAX_VALUE) {
+          requested.addAndGet(-emitted);
+        }
+        missed = pendingDrains.addAndGet(-missed);
+      } while (missed != 0);
+    }
+
+    /**
+     * Returns the next item, a new page is only fetched if there is demand.
+     */
+    private T nextItem(boolean hasDemand) {
+      if (!hasDemand) {
+        return null;
+      }
+
+      while (!items.hasNext()) {
+        if (pages == null) {
+          pages = publisher.prefetchDepth > 0
+              ? publisher.connection.prefetchingIterator(publisher.executor, publisher.prefetchDepth)
+              : publisher.connection.iterator();
+        }
+        if (!pages.hasNext()) {
+          return null;
+        }
+        items = pages.next().iterator();
+      }
+
+      T item = items.next();
+      // a Flow.Subscriber must not receive null
+      return item != null ? item : nextItem(true);
+    }
+
+    private boolean isCancelledOrInvalid() {
+      return cancelled || invalidRequest != null;
+    }
+
+    private void terminate() {
+      terminated = true;
+      cancelled = true;
+      items = Collections.emptyIterator();
+      if (pages instanceof PrefetchingConnectionIterator) {
+        ((PrefetchingConnectionIterator<T>) pages).close();
+      }
+      pages = null;
+    }
+  }
+}
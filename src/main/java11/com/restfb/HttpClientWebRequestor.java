@@ -0,0 +1,412 @@
+/*
+ * Copyright (c) 2010-2025 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static com.restfb.logging.RestFBLogger.HTTP_LOGGER;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import com.restfb.types.FacebookReelAttachment;
+import com.restfb.util.StringUtils;
+import com.restfb.util.UrlUtils;
+
+/**
+ * {@link WebRequestor} implementation backed by the {@code java.net.http.HttpClient} of Java 11+.
+ * <p>
+ * In contrast to the {@link DefaultWebRequestor}, all requests are sent through one long-living {@link HttpClient}
+ * that negotiates HTTP/2 with the Facebook endpoints. Concurrent requests are multiplexed as streams over a small set
+ * of pooled connections, so TLS handshakes and socket counts stay low even with many threads sharing this requestor.
+ * <p>
+ * If you create several requestors, pass the same {@link HttpClient} to all of them to share one connection pool.
+ * <p>
+ * The asynchronous methods use {@link HttpClient#sendAsync} and don't block any thread while waiting for Facebook.
+ * <p>
+ * This class is part of the multi-release section of the RestFB jar and only available on Java 11 and newer.
+ */
+public class HttpClientWebRequestor implements WebRequestor {
+
+  /**
+   * By default, how long should we wait for a response (in ms)?
+   */
+  private static final int DEFAULT_READ_TIMEOUT_IN_MS = 180000;
+
+  /**
+   * By default, how long should we wait for a connection to be established (in ms)?
+   */
+  private static final int DEFAULT_CONNECT_TIMEOUT_IN_MS = 30000;
+
+  private final HttpClient httpClient;
+
+  private final Duration readTimeout;
+
+  private volatile DebugHeaderInfo debugHeaderInfo;
+
+  /**
+   * By default, this is true, to behave like the {@link DefaultWebRequestor}
+   */
+  private boolean autocloseBinaryAttachmentStream = true;
+
+  /**
+   * Creates a requestor with its own HTTP/2 capable {@link HttpClient} using the default timeouts and the default
+   * executor of the {@link HttpClient}.
+   */
+  public HttpClientWebRequestor() {
+    this(null, Duration.ofMillis(DEFAULT_CONNECT_TIMEOUT_IN_MS), Duration.ofMillis(DEFAULT_READ_TIMEOUT_IN_MS));
+  }
+
+  /**
+   * Creates a requestor with its own HTTP/2 capable {@link HttpClient}.
+   *
+   * @param executor
+   *          the executor the {@link HttpClient} uses for asynchronous tasks, {@code null} to use the default one
+   * @param connectTimeout
+   *          the timeout used to establish new connections
+   * @param readTimeout
+   *          the timeout used to wait for a response
+   */
+  public HttpClientWebRequestor(Executor executor, Duration connectTimeout, Duration readTimeout) {
+    this(createHttpClient(executor, connectTimeout), readTimeout);
+  }
+
+  /**
+   * Creates a requestor using the given {@link HttpClient}.
+   * <p>
+   * Use this constructor to share one connection pool between several requestors or to configure proxies, SSL
+   * settings and other details of the client yourself.
+   *
+   * @param httpClient
+   *          the client used to send the requests
+   * @param readTimeout
+   *          the timeout used to wait for a response
+   */
+  public HttpClientWebRequestor(HttpClient httpClient, Duration readTimeout) {
+    this.httpClient = httpClient;
+    this.readTimeout = readTimeout;
+  }
+
+  private static HttpClient createHttpClient(Executor executor, Duration connectTimeout) {
+    HttpClient.Builder builder =
+        HttpClient.newBuilder().version(HttpClient.Version.HTTP_2).followRedirects(HttpClient.Redirect.NORMAL);
+    Optional.ofNullable(executor).ifPresent(builder::executor);
+    Optional.ofNullable(connectTimeout).ifPresent(builder::connectTimeout);
+    return builder.build();
+  }
+
+  @Override
+  public Response executeGet(Request request) throws IOException {
+    return send(createGetRequest(request));
+  }
+
+  @Override
+  public CompletableFuture<Response> executeGetAsync(Request request) {
+    return sendAsync(createGetRequest(request));
+  }
+
+  @Override
+  public Response executeDelete(Request request) throws IOException {
+    return send(createDeleteRequest(request));
+  }
+
+  @Override
+  public CompletableFuture<Response> executeDeleteAsync(Request request) {
+    return sendAsync(createDeleteRequest(request));
+  }
+
+  @Override
+  public Response executePost(Request request) throws IOException {
+    try {
+      return send(createPostRequest(request));
+    } finally {
+      closeAttachmentsOnAutoClose(request.getBinaryAttachments());
+    }
+  }
+
+  @Override
+  public CompletableFuture<Response> executePostAsync(Request request) {
+    try {
+      return sendAsync(createPostRequest(request))
+        .whenComplete((response, throwable) -> closeAttachmentsOnAutoClose(request.getBinaryAttachments()));
+    } catch (RuntimeException e) {
+      closeAttachmentsOnAutoClose(request.getBinaryAttachments());
+      throw e;
+    }
+  }
+
+  private HttpRequest createGetRequest(Request request) {
+    HTTP_LOGGER.debug("Making a GET request to {} with parameters {}", request.getUrl(), request.getParameters());
+    return createRequestBuilder(request.getFullUrl(), request).GET().build();
+  }
+
+  private HttpRequest createDeleteRequest(Request request) {
+    HTTP_LOGGER.debug("Making a DELETE request to {} with parameters {}", request.getUrl(), request.getParameters());
+    return createRequestBuilder(request.getFullUrl(), request).DELETE().build();
+  }
+
+  private HttpRequest createPostRequest(Request request) {
+    if (request.isReelUpload()) {
+      return createReelUploadRequest(request);
+    }
+
+    List<BinaryAttachment> binaryAttachments = request.getBinaryAttachments();
+    logRequestAndAttachmentOnDebug(request, binaryAttachments);
+
+    String url =
+        request.getUrl() + ((!binaryAttachments.isEmpty() || request.hasBody()) ? "?" + request.getParameters() : "");
+    HttpRequest.Builder builder = createRequestBuilder(url, request);
+
+    if (!binaryAttachments.isEmpty()) {
+      builder.header("Content-Type", MultipartFormData.CONTENT_TYPE);
+      builder.POST(withContentLength(
+        HttpRequest.BodyPublishers.ofInputStream(() -> createMultipartStream(binaryAttachments)),
+        MultipartFormData.calculateContentLength(binaryAttachments, this::createFormFieldName)));
+    } else if (request.hasBody()) {
+      builder.header("Content-Type", "application/json");
+      builder.POST(HttpRequest.BodyPublishers.ofString(request.getBody().getData(), StringUtils.ENCODING_CHARSET));
+    } else {
+      builder.header("Content-Type", "application/x-www-form-urlencoded");
+      builder.POST(HttpRequest.BodyPublishers.ofString(request.getParameters(), StringUtils.ENCODING_CHARSET));
+    }
+
+    return builder.build();
+  }
+
+  private HttpRequest createReelUploadRequest(Request request) {
+    FacebookReelAttachment reel = request.getReel()
+      .orElseThrow(() -> new IllegalArgumentException("Try uploading reel with corrupt request"));
+
+    logRequestAndAttachmentOnDebug(request, request.getBinaryAttachments());
+
+    HttpRequest.Builder builder = createRequestBuilder(request.getUrl(), request);
+    if (reel.isBinary()) {
+      builder.header("offset", String.valueOf(reel.getOffset()));
+      builder.header("file_size", String.valueOf(reel.getFileSize()));
+      builder.POST(withContentLength(HttpRequest.BodyPublishers.ofInputStream(() -> openReelStream(reel)),
+        reel.getFileSize() - reel.getOffset()));
+    } else {
+      builder.header("file_url", reel.getReelUrl());
+      builder.POST(HttpRequest.BodyPublishers.noBody());
+    }
+
+    return builder.build();
+  }
+
+  private HttpRequest.Builder createRequestBuilder(String url, Request request) {
+    HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url));
+    Optional.ofNullable(readTimeout).ifPresent(builder::timeout);
+
+    if (request.isReelUpload()) {
+      builder.header("Authorization", "OAuth " + request.getHeaderAccessToken());
+    } else if (request.hasHeaderAccessToken()) {
+      builder.header("Authorization", "Bearer " + request.getHeaderAccessToken());
+    }
+
+    // Allow subclasses to customize the request if they'd like to - set
+    // their own headers, timeouts, etc.
+    customizeRequest(builder);
+    return builder;
+  }
+
+  private Response send(HttpRequest httpRequest) throws IOException {
+    try {
+      return createResponse(
+        httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofString(StringUtils.ENCODING_CHARSET)));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      InterruptedIOException interruptedException = new InterruptedIOException("Request to Facebook interrupted");
+      interruptedException.initCause(e);
+      throw interruptedException;
+    }
+  }
+
+  private CompletableFuture<Response> sendAsync(HttpRequest httpRequest) {
+    return httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofString(StringUtils.ENCODING_CHARSET))
+      .thenApply(this::createResponse);
+  }
+
+  private Response createResponse(HttpResponse<String> httpResponse) {
+    HttpHeaders headers = httpResponse.headers();
+    HTTP_LOGGER.debug("Response headers: {}", headers.map());
+    DebugHeaderInfo responseDebugHeaderInfo =
+        DefaultWebRequestor.createDebugHeaderInfo(name -> headers.firstValue(name).orElse(null));
+    DefaultWebRequestor.logUsedApiVersion(responseDebugHeaderInfo);
+    debugHeaderInfo = responseDebugHeaderInfo;
+
+    Response response = new Response(httpResponse.statusCode(), httpResponse.body());
+    response.setHeaders(headers.map());
+    response.setDebugHeaderInfo(responseDebugHeaderInfo);
+    HTTP_LOGGER.debug("Facebook responded with {}", response);
+    return response;
+  }
+
+  /**
+   * Opens the reel at its offset, the bytes Facebook already received are skipped.
+   */
+  private static InputStream openReelStream(FacebookReelAttachment reel) {
+    try {
+      if (reel.getFile() != null) {
+        FileChannel fileChannel = FileChannel.open(reel.getFile(), StandardOpenOption.READ);
+        return Channels.newInputStream(fileChannel.position(reel.getOffset()));
+      }
+
+      InputStream reelStream = reel.getData();
+      long remaining = reel.getOffset();
+      while (remaining > 0) {
+        long skipped = reelStream.skip(remaining);
+        if (skipped <= 0) {
+          if (reelStream.read() < 0) {
+            throw new EOFException("The reel ended before the offset " + reel.getOffset());
+          }
+          skipped = 1;
+        }
+        remaining -= skipped;
+      }
+      return reelStream;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to read the reel", e);
+    }
+  }
+
+  /**
+   * Sends the body with a {@code Content-Length} header if its size is known, chunked otherwise.
+   */
+  private static HttpRequest.BodyPublisher withContentLength(HttpRequest.BodyPublisher publisher, long contentLength) {
+    if (contentLength > 0) {
+      return HttpRequest.BodyPublishers.fromPublisher(publisher, contentLength);
+    }
+    return publisher;
+  }
+
+  private InputStream createMultipartStream(List<BinaryAttachment> binaryAttachments) {
+    List<InputStream> parts = new ArrayList<>();
+    for (BinaryAttachment binaryAttachment : binaryAttachments) {
+      parts.add(new ByteArrayInputStream(
+        MultipartFormData.createPartHeader(binaryAttachment, createFormFieldName(binaryAttachment))));
+      parts.add(binaryAttachment.getData());
+      parts.add(new ByteArrayInputStream(MultipartFormData.createPartTrailer()));
+    }
+    return new SequenceInputStream(Collections.enumeration(parts));
+  }
+
+  private static void logRequestAndAttachmentOnDebug(Request request, List<BinaryAttachment> binaryAttachments) {
+    if (HTTP_LOGGER.isDebugEnabled()) {
+      HTTP_LOGGER.debug("Executing a POST to " + request.getUrl() + " with parameters "
+          + (!binaryAttachments.isEmpty() ? "" : "(sent in request body): ")
+          + UrlUtils.urlDecode(request.getParameters())
+          + (!binaryAttachments.isEmpty() ? " and " + binaryAttachments.size() + " binary attachment[s]." : ""));
+    }
+  }
+
+  private void closeAttachmentsOnAutoClose(List<BinaryAttachment> binaryAttachments) {
+    if (autocloseBinaryAttachmentStream && !binaryAttachments.isEmpty()) {
+      binaryAttachments.stream().filter(BinaryAttachment::hasBinaryData).map(BinaryAttachment::getData)
+        .forEach(this::closeQuietly);
+    }
+  }
+
+  private void closeQuietly(InputStream inputStream) {
+    try {
+      inputStream.close();
+    } catch (Exception t) {
+      HTTP_LOGGER.warn("Unable to close {}: ", inputStream, t);
+    }
+  }
+
+  /**
+   * Hook method which allows subclasses to easily customize the {@link HttpRequest}s created by this requestor - for
+   * example, setting a custom timeout or request header.
+   * <p>
+   * This implementation is a no-op.
+   *
+   * @param requestBuilder
+   *          The request builder to customize.
+   */
+  protected void customizeRequest(HttpRequest.Builder requestBuilder) {
+    // This implementation is a no-op
+  }
+
+  /**
+   * Creates the form field name for the binary attachment filename by stripping off the file extension - for example,
+   * the filename "test.png" would return "test".
+   *
+   * @param binaryAttachment
+   *          The binary attachment for which to create the form field name.
+   * @return The form field name for the given binary attachment.
+   */
+  protected String createFormFieldName(BinaryAttachment binaryAttachment) {
+    return MultipartFormData.createFormFieldName(binaryAttachment);
+  }
+
+  /**
+   * returns the {@link HttpClient} used by this requestor
+   *
+   * @return the http client
+   */
+  public HttpClient getHttpClient() {
+    return httpClient;
+  }
+
+  /**
+   * returns if the binary attachment stream is closed automatically
+   *
+   * @return {@code true} if the binary stream should be closed automatically, {@code false} otherwise
+   */
+  public boolean isAutocloseBinaryAttachmentStream() {
+    return autocloseBinaryAttachmentStream;
+  }
+
+  /**
+   * define if the binary attachment stream is closed automatically after sending the content to facebook
+   *
+   * @param autocloseBinaryAttachmentStream
+   *          {@code true} if the {@link BinaryAttachment} stream should be closed automatically, {@code false}
+   *          otherwise
+   */
+  public void setAutocloseBinaryAttachmentStream(boolean autocloseBinaryAttachmentStream) {
+    this.autocloseBinaryAttachmentStream = autocloseBinaryAttachmentStream;
+  }
+
+  @Override
+  public DebugHeaderInfo getDebugHeaderInfo() {
+    return debugHeaderInfo;
+  }
+}
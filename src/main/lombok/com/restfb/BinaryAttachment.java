@@ -26,7 +26,10 @@ import static java.lang.String.format;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import com.restfb.util.ObjectUtil;
 import com.restfb.util.ReflectionUtils;
@@ -53,6 +56,11 @@ public class BinaryAttachment {
 
   private InputStream dataStream;
 
+  /**
+   * File on disk that holds the data, the file is read while the request is sent.
+   */
+  private Path file;
+
   private String contentType;
 
   @Getter
@@ -237,6 +245,31 @@ public class BinaryAttachment {
     this.fieldName = fieldName;
   }
 
+  /**
+   * Creates a new binary attachment that is backed by a file.
+   * <p>
+   * The file is not loaded into memory, its content is transferred while the request is sent.
+   *
+   * @param fieldName
+   *          The field name the binary belongs to, may be {@code null}
+   * @param file
+   *          The file that contains the attachment's data.
+   * @param contentType
+   *          The attachment's contentType, may be {@code null} to guess it from the file name
+   * @throws IllegalArgumentException
+   *           If {@code file} is {@code null} or not a regular file.
+   */
+  protected BinaryAttachment(String fieldName, Path file, String contentType) {
+    ObjectUtil.verifyParameterPresence("file", file);
+    if (!Files.isRegularFile(file)) {
+      throw new IllegalArgumentException("Binary attachment file " + file + " is not a readable file.");
+    }
+    this.filename = file.getFileName().toString();
+    this.file = file;
+    this.fieldName = fieldName;
+    this.contentType = contentType;
+  }
+
   /**
    * Creates a binary attachment.
    * 
@@ -383,6 +416,52 @@ public class BinaryAttachment {
     return new BinaryAttachment(fieldName, filename, data, contentType);
   }
 
+  /**
+   * Creates a binary attachment that is backed by a file, the file name is used as attachment filename.
+   *
+   * @param file
+   *          The file that contains the attachment's data.
+   * @return A binary attachment.
+   * @throws IllegalArgumentException
+   *           If {@code file} is {@code null} or not a regular file.
+   */
+  public static BinaryAttachment with(Path file) {
+    return new BinaryAttachment(null, file, null);
+  }
+
+  /**
+   * Creates a binary attachment that is backed by a file, the file name is used as attachment filename.
+   *
+   * @param file
+   *          The file that contains the attachment's data.
+   * @param contentType
+   *          The attachment's contentType.
+   * @return A binary attachment.
+   * @throws IllegalArgumentException
+   *           If {@code file} is {@code null} or not a regular file.
+   */
+  public static BinaryAttachment with(Path file, String contentType) {
+    return new BinaryAttachment(null, file, contentType);
+  }
+
+  /**
+   * Creates a binary attachment that is backed by a file, the file name is used as attachment filename.
+   *
+   * @param fieldName
+   *          The field name the binary belongs to
+   * @param file
+   *          The file that contains the attachment's data.
+   * @param contentType
+   *          The attachment's contentType.
+   * @return A binary attachment.
+   * @throws IllegalArgumentException
+   *           If {@code file} is {@code null} or not a regular file, or {@code fieldName} is blank.
+   */
+  public static BinaryAttachment with(String fieldName, Path file, String contentType) {
+    ObjectUtil.requireNotEmpty(fieldName, FIELD_NAME_CANNOT_BE_NULL);
+    return new BinaryAttachment(fieldName, file, contentType);
+  }
+
   @Override
   public int hashCode() {
     return ReflectionUtils.hashCode(this);
@@ -408,6 +487,12 @@ public class BinaryAttachment {
       return new ByteArrayInputStream(data);
     } else if (dataStream != null) {
       return dataStream;
+    } else if (file != null) {
+      try {
+        return Files.newInputStream(file);
+      } catch (IOException e) {
+        throw new UncheckedIOException("Unable to read the binary attachment file " + file, e);
+      }
     } else {
       throw new IllegalStateException("Either the byte[] or the stream mustn't be null at this point.");
     }
@@ -431,7 +516,7 @@ public class BinaryAttachment {
       }
     }
 
-    if (data != null) {
+    if (data != null || file != null) {
       contentType = URLConnection.getFileNameMap().getContentTypeFor(filename);
     }
 
@@ -446,4 +531,34 @@ public class BinaryAttachment {
   public boolean hasBinaryData() {
     return data != null;
   }
+
+  /**
+   * The size of the attachment's data in bytes, if it is known before the data is read.
+   * 
+   * @return the size in bytes, or {@code -1} if the data is a stream of unknown length
+   */
+  public long getContentLength() {
+    if (data != null) {
+      return data.length;
+    }
+
+    if (file != null) {
+      try {
+        return Files.size(file);
+      } catch (IOException e) {
+        return -1;
+      }
+    }
+
+    return -1;
+  }
+
+  /**
+   * The file that holds the attachment's data, if the attachment is backed by a file.
+   * 
+   * @return the file, or {@code null} if the data is held in memory or provided as stream
+   */
+  public Path getFile() {
+    return file;
+  }
 }
\ No newline at end of file
@@ -58,19 +58,33 @@ public class DebugHeaderInfo implements Serializable {
   /**
    * x-app-usage
    */
-  private final HeaderUsage appUsage;
+  private final String rawAppUsage;
 
   /**
    * x-page-usage
    */
-  private final HeaderUsage pageUsage;
+  private final String rawPageUsage;
 
   /**
    * x-ad-account-usage
    */
-  private final HeaderUsage adAccountUsage;
+  private final String rawAdAccountUsage;
 
-  private final BusinessUseCaseUsage businessUseCaseUsage;
+  /**
+   * x-business-use-case-usage
+   */
+  private final String rawBusinessUseCaseUsage;
+
+  /*
+   * the usage headers contain JSON, they are parsed on first access only
+   */
+  private transient volatile HeaderUsage appUsage;
+
+  private transient volatile HeaderUsage pageUsage;
+
+  private transient volatile HeaderUsage adAccountUsage;
+
+  private transient volatile BusinessUseCaseUsage businessUseCaseUsage;
 
   private DebugHeaderInfo(String debug, String rev, String traceId, Version version, String appUsage, String pageUsage,
       String adAccountUsage, String businessUsage) {
@@ -78,10 +92,10 @@ public class DebugHeaderInfo implements Serializable {
     this.rev = rev;
     this.traceId = traceId;
     this.usedVersion = version;
-    this.appUsage = createUsage(appUsage);
-    this.pageUsage = createUsage(pageUsage);
-    this.adAccountUsage = createUsage(adAccountUsage);
-    this.businessUseCaseUsage = createBusinessUsage(businessUsage);
+    this.rawAppUsage = appUsage;
+    this.rawPageUsage = pageUsage;
+    this.rawAdAccountUsage = adAccountUsage;
+    this.rawBusinessUseCaseUsage = businessUsage;
   }
 
   /**
@@ -126,6 +140,9 @@ public class DebugHeaderInfo implements Serializable {
    * @return the Facebook response header field x-app-usage
    */
   public HeaderUsage getAppUsage() {
+    if (appUsage == null) {
+      appUsage = createUsage(rawAppUsage);
+    }
     return appUsage;
   }
 
@@ -135,6 +152,9 @@ public class DebugHeaderInfo implements Serializable {
    * @return the Facebook response header field x-page-usage
    */
   public HeaderUsage getPageUsage() {
+    if (pageUsage == null) {
+      pageUsage = createUsage(rawPageUsage);
+    }
     return pageUsage;
   }
 
@@ -144,10 +164,16 @@ public class DebugHeaderInfo implements Serializable {
    * @return the Facebook response header field x-ad-account-usage
    */
   public HeaderUsage getAdAccountUsage() {
+    if (adAccountUsage == null) {
+      adAccountUsage = createUsage(rawAdAccountUsage);
+    }
     return adAccountUsage;
   }
 
   public BusinessUseCaseUsage getBusinessUseCaseUsage() {
+    if (businessUseCaseUsage == null) {
+      businessUseCaseUsage = createBusinessUsage(rawBusinessUseCaseUsage);
+    }
     return businessUseCaseUsage;
   }
 
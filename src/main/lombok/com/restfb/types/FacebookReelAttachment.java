@@ -21,7 +21,14 @@
  */
 package com.restfb.types;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 import com.restfb.BinaryAttachment;
+import com.restfb.util.ObjectUtil;
 
 import lombok.Getter;
 
@@ -29,13 +36,29 @@ import lombok.Getter;
  * Attachment object for uploading a Reel to Facebook.
  *
  * <p>
- * use {@code withByteContent} for sending a binary attachment and {@code withUrl} if the URL is given instead
+ * use {@code withByteContent} for sending a binary attachment and {@code withUrl} if the URL is given instead. Large
+ * reels should be sent with {@code withFile} or {@code withStream}, so they are streamed and never held in memory.
+ *
+ * <p>
+ * An interrupted upload is continued with {@link #withOffset(long)}, only the bytes behind the offset are sent then.
  */
 public class FacebookReelAttachment extends BinaryAttachment {
 
   @Getter
   private String reelUrl;
 
+  private InputStream reelStream;
+
+  private long streamSize;
+
+  /**
+   * The number of bytes Facebook already received, the upload starts behind them.
+   *
+   * @return the offset in bytes
+   */
+  @Getter
+  private long offset;
+
   protected FacebookReelAttachment(byte[] byteData) {
     data = byteData;
   }
@@ -44,6 +67,19 @@ public class FacebookReelAttachment extends BinaryAttachment {
     this.reelUrl = reelUrl;
   }
 
+  protected FacebookReelAttachment(Path reelFile) {
+    super(null, reelFile, null);
+  }
+
+  protected FacebookReelAttachment(InputStream reelStream, long size) {
+    ObjectUtil.verifyParameterPresence("reelStream", reelStream);
+    if (size < 0) {
+      throw new IllegalArgumentException("The size of the reel cannot be negative.");
+    }
+    this.reelStream = reelStream;
+    this.streamSize = size;
+  }
+
   public static FacebookReelAttachment withByteContent(byte[] reelData) {
     return new FacebookReelAttachment(reelData);
   }
@@ -52,20 +88,109 @@ public class FacebookReelAttachment extends BinaryAttachment {
     return new FacebookReelAttachment(reelUrl);
   }
 
+  /**
+   * Creates a reel attachment that is read from the file while it is uploaded.
+   *
+   * @param reelFile
+   *          the reel file
+   * @return the reel attachment
+   */
+  public static FacebookReelAttachment withFile(Path reelFile) {
+    return new FacebookReelAttachment(reelFile);
+  }
+
+  /**
+   * Creates a reel attachment that is read from the stream while it is uploaded.
+   * <p>
+   * A stream can be read once only, to resume an interrupted upload create a new attachment with a fresh stream and set
+   * the offset, the bytes in front of the offset are skipped.
+   *
+   * @param reelStream
+   *          the stream that provides the reel, starting with the first byte of the reel
+   * @param size
+   *          the size of the reel in bytes
+   * @return the reel attachment
+   */
+  public static FacebookReelAttachment withStream(InputStream reelStream, long size) {
+    return new FacebookReelAttachment(reelStream, size);
+  }
+
+  /**
+   * Sets the offset the upload starts at, use the number of bytes Facebook already received to resume an interrupted
+   * upload.
+   *
+   * @param offset
+   *          the offset in bytes
+   * @return this attachment
+   * @throws IllegalArgumentException
+   *           if the offset is outside the reel
+   */
+  public FacebookReelAttachment withOffset(long offset) {
+    if (offset < 0 || offset > getFileSize()) {
+      throw new IllegalArgumentException("The offset " + offset + " is outside the reel.");
+    }
+    this.offset = offset;
+    return this;
+  }
+
   @Override
   public boolean isFacebookReel() {
     return true;
   }
 
   public boolean isBinary() {
-    return data != null;
+    return data != null || reelStream != null || getFile() != null;
   }
 
-  public int getFileSizeInBytes() {
+  @Override
+  public InputStream getData() {
+    if (reelStream != null) {
+      return reelStream;
+    }
+
+    return super.getData();
+  }
+
+  @Override
+  public long getContentLength() {
+    return getFileSize();
+  }
+
+  /**
+   * The size of the reel in bytes.
+   *
+   * @return the size in bytes, {@code 0} if the reel is uploaded from a URL
+   * @throws UncheckedIOException
+   *           if the size of the reel file can't be read
+   */
+  public long getFileSize() {
     if (data != null) {
       return data.length;
     }
 
+    if (reelStream != null) {
+      return streamSize;
+    }
+
+    if (getFile() != null) {
+      try {
+        return Files.size(getFile());
+      } catch (IOException e) {
+        throw new UncheckedIOException("Unable to read the size of the reel file " + getFile(), e);
+      }
+    }
+
     return 0;
   }
+
+  /**
+   * The size of the reel in bytes.
+   *
+   * @return the size in bytes, {@code 0} if the reel is uploaded from a URL
+   * @deprecated reels may be larger than 2 GB, use {@link #getFileSize()} instead
+   */
+  @Deprecated
+  public int getFileSizeInBytes() {
+    return Math.toIntExact(getFileSize());
+  }
 }
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2010-2025 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import com.restfb.WebRequestor.Response;
+import com.restfb.batch.BatchRequest;
+import com.restfb.batch.BatchResponse;
+import com.restfb.exception.FacebookNetworkException;
+import com.restfb.exception.FacebookOAuthException;
+import com.restfb.types.User;
+
+class AsyncFacebookClientTest {
+
+  @Test
+  void fetchObject() {
+    FakeWebRequestor webRequestor = new FakeWebRequestor(new Response(200, "{\"id\":\"12345\",\"name\":\"Test\"}"));
+    AsyncFacebookClient client = asyncClient(webRequestor);
+
+    User user = client.fetchObject("me", User.class).join();
+
+    assertThat(user.getId()).isEqualTo("12345");
+    assertThat(user.getName()).isEqualTo("Test");
+    assertThat(webRequestor.getMethod()).isEqualTo("GET");
+    assertThat(webRequestor.getSavedUrl()).startsWith("https://graph.facebook.com/").contains("/me?");
+  }
+
+  @Test
+  void fetchConnection() {
+    AsyncFacebookClient client =
+        asyncClient(new FakeWebRequestor(new Response(200, "{\"data\":[{\"id\":\"1\"},{\"id\":\"2\"}]}")));
+
+    Connection<User> connection = client.fetchConnection("me/friends", User.class).join();
+
+    assertThat(connection.getData()).extracting(User::getId).containsExactly("1", "2");
+  }
+
+  @Test
+  void publish() {
+    FakeWebRequestor webRequestor = new FakeWebRequestor(new Response(200, "{\"id\":\"999\"}"));
+    AsyncFacebookClient client = asyncClient(webRequestor);
+
+    User user = client.publish("me/feed", User.class, Parameter.with("message", "hello")).join();
+
+    assertThat(user.getId()).isEqualTo("999");
+    assertThat(webRequestor.getMethod()).isEqualTo("POST");
+    assertThat(webRequestor.getParameters()).contains("message=hello");
+  }
+
+  @Test
+  void deleteObject() {
+    FakeWebRequestor webRequestor = new FakeWebRequestor(new Response(200, "{\"success\":true}"));
+    AsyncFacebookClient client = asyncClient(webRequestor);
+
+    assertThat(client.deleteObject("12345").join()).isTrue();
+    assertThat(webRequestor.getMethod()).isEqualTo("DELETE");
+  }
+
+  @Test
+  void executeBatch() {
+    AsyncFacebookClient client = asyncClient(new FakeWebRequestor(
+      new Response(200, "[{\"code\":200,\"headers\":[],\"body\":\"{\\\"id\\\":\\\"1\\\"}\"}]")));
+
+    List<BatchResponse> responses = client
+      .executeBatch(Collections.singletonList(new BatchRequest.BatchRequestBuilder("me").build())).join();
+
+    assertThat(responses).hasSize(1);
+    assertThat(responses.get(0).getCode()).isEqualTo(200);
+  }
+
+  @Test
+  void facebookErrorCompletesExceptionally() {
+    AsyncFacebookClient client = asyncClient(new FakeWebRequestor(new Response(403,
+      "{\"error\":{\"message\":\"(#210) User not visible\",\"type\":\"OAuthException\",\"code\":210}}")));
+
+    CompletableFuture<User> future = client.fetchObject("me", User.class);
+
+    CompletionException exception = assertThrows(CompletionException.class, future::join);
+    assertThat(exception.getCause()).isInstanceOf(FacebookOAuthException.class);
+  }
+
+  @Test
+  void networkErrorCompletesExceptionally() {
+    WebRequestor webRequestor = new FakeWebRequestor() {
+      @Override
+      public Response executeGet(Request request) {
+        throw new IllegalStateException("connection refused");
+      }
+    };
+
+    CompletableFuture<User> future = asyncClient(webRequestor).fetchObject("me", User.class);
+
+    CompletionException exception = assertThrows(CompletionException.class, future::join);
+    assertThat(exception.getCause()).isInstanceOf(FacebookNetworkException.class);
+  }
+
+  @Test
+  void mappingRunsOnConfiguredExecutor() {
+    AtomicInteger executions = new AtomicInteger();
+    DefaultFacebookClient facebookClient = new DefaultFacebookClient(null,
+      new FakeWebRequestor(new Response(200, "{\"id\":\"12345\"}")), new DefaultJsonMapper(), Version.LATEST);
+    AsyncFacebookClient client = new DefaultAsyncFacebookClient(facebookClient, command -> {
+      executions.incrementAndGet();
+      command.run();
+    });
+
+    assertThat(client.fetchObject("me", User.class).join().getId()).isEqualTo("12345");
+    assertThat(executions.get()).isEqualTo(1);
+  }
+
+  @Test
+  void blockingRequestRunsOnAsyncExecutor() {
+    AtomicReference<String> threadName = new AtomicReference<>();
+    WebRequestor webRequestor = new FakeWebRequestor(new Response(200, "{\"id\":\"12345\"}")) {
+      @Override
+      public Response executeGet(Request request) {
+        threadName.set(Thread.currentThread().getName());
+        return super.executeGet(request);
+      }
+    };
+
+    assertThat(asyncClient(webRequestor).fetchObject("me", User.class).join().getId()).isEqualTo("12345");
+    assertThat(threadName.get()).startsWith("restfb-web-requestor-");
+  }
+
+  @Test
+  void invalidArgumentsFailImmediately() {
+    AsyncFacebookClient client = asyncClient(new FakeWebRequestor());
+    assertThrows(NullPointerException.class, () -> client.fetchObject(null, User.class));
+    assertThrows(IllegalArgumentException.class, () -> client.executeBatch(Collections.emptyList()));
+  }
+
+  private AsyncFacebookClient asyncClient(WebRequestor webRequestor) {
+    return new DefaultAsyncFacebookClient(
+      new DefaultFacebookClient(null, webRequestor, new DefaultJsonMapper(), Version.LATEST));
+  }
+}
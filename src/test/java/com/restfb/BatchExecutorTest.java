@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2010-2025 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.restfb.batch.BatchRequest;
+import com.restfb.batch.BatchResponse;
+import com.restfb.exception.FacebookNetworkException;
+import com.restfb.json.Json;
+import com.restfb.json.JsonArray;
+import com.restfb.json.JsonObject;
+import com.restfb.json.JsonValue;
+import com.restfb.util.UrlUtils;
+
+class BatchExecutorTest {
+
+  private final ExecutorService executorService = Executors.newFixedThreadPool(4);
+
+  private final EchoWebRequestor webRequestor = new EchoWebRequestor();
+
+  private final FacebookClient client =
+      new DefaultFacebookClient("token", webRequestor, new DefaultJsonMapper(), Version.LATEST);
+
+  @AfterEach
+  void shutdown() {
+    executorService.shutdownNow();
+  }
+
+  @Test
+  void splitLargeListAndKeepOrder() {
+    List<BatchRequest> requests = new ArrayList<>();
+    for (int i = 0; i < 120; i++) {
+      requests.add(new BatchRequest.BatchRequestBuilder("object" + i).build());
+    }
+
+    List<BatchResponse> responses = new BatchExecutor(client, executorService, 3).execute(requests);
+
+    assertThat(responses).hasSize(120);
+    for (int i = 0; i < 120; i++) {
+      assertThat(responses.get(i).getBody()).contains("object" + i);
+    }
+    assertThat(webRequestor.batchSizes).hasSize(3).allMatch(size -> size <= 50);
+    assertThat(webRequestor.maxParallelBatches.get()).isLessThanOrEqualTo(3);
+  }
+
+  @Test
+  void keepDependentRequestsInOneChunk() {
+    List<BatchRequest> requests = new ArrayList<>();
+    for (int i = 0; i < 49; i++) {
+      requests.add(new BatchRequest.BatchRequestBuilder("object" + i).build());
+    }
+    requests.add(new BatchRequest.BatchRequestBuilder("me/friends").name("friends").build());
+    requests.add(new BatchRequest.BatchRequestBuilder("me/likes").dependsOn("friends").build());
+    requests.add(new BatchRequest.BatchRequestBuilder("")
+      .parameters(Parameter.with("ids", "{result=friends:$.data.*.id}")).build());
+
+    List<List<Integer>> chunks = BatchExecutor.createChunks(requests);
+
+    assertThat(chunks).hasSize(2);
+    assertThat(chunks.get(0)).hasSize(49);
+    assertThat(chunks.get(1)).containsExactly(49, 50, 51);
+  }
+
+  @Test
+  void rejectTooManyDependentRequests() {
+    List<BatchRequest> requests = new ArrayList<>();
+    requests.add(new BatchRequest.BatchRequestBuilder("me").name("me").build());
+    for (int i = 0; i < 50; i++) {
+      requests.add(new BatchRequest.BatchRequestBuilder("object" + i).dependsOn("me").build());
+    }
+
+    assertThrows(IllegalArgumentException.class, () -> BatchExecutor.createChunks(requests));
+  }
+
+  @Test
+  void emptyList() {
+    assertThat(new BatchExecutor(client).execute(Collections.emptyList())).isEmpty();
+    assertThat(webRequestor.batchSizes).isEmpty();
+  }
+
+  @Test
+  void failedBatch() {
+    webRequestor.fail = true;
+    List<BatchRequest> requests = new ArrayList<>();
+    for (int i = 0; i < 60; i++) {
+      requests.add(new BatchRequest.BatchRequestBuilder("object" + i).build());
+    }
+
+    assertThrows(FacebookNetworkException.class,
+      () -> new BatchExecutor(client, executorService, 2).execute(requests));
+  }
+
+  @Test
+  void sendAttachmentsWithChunksThatAttachFiles() {
+    List<BatchRequest> requests = new ArrayList<>();
+    for (int i = 0; i < 60; i++) {
+      requests.add(new BatchRequest.BatchRequestBuilder("object" + i).build());
+    }
+    requests.set(55, new BatchRequest.BatchRequestBuilder("me/photos").method("POST").attachedFiles("photo").build());
+    List<BinaryAttachment> attachments =
+        Collections.singletonList(BinaryAttachment.with("photo", "photo.png", new byte[] { 1, 2, 3 }));
+
+    List<BatchResponse> responses = new BatchExecutor(client, executorService, 1).execute(requests, attachments);
+
+    assertThat(responses).hasSize(60);
+    assertThat(webRequestor.attachmentCounts).containsExactly(0, 1);
+  }
+
+  @Test
+  void rejectAttachedFilesWithoutAttachments() {
+    List<BatchRequest> requests = Collections
+      .singletonList(new BatchRequest.BatchRequestBuilder("me/photos").method("POST").attachedFiles("photo").build());
+
+    assertThrows(IllegalArgumentException.class, () -> new BatchExecutor(client).execute(requests));
+    assertThat(webRequestor.batchSizes).isEmpty();
+  }
+
+  private static class EchoWebRequestor extends FakeWebRequestor {
+
+    private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+
+    private final List<Integer> attachmentCounts = Collections.synchronizedList(new ArrayList<>());
+
+    private final AtomicInteger parallelBatches = new AtomicInteger();
+
+    private final AtomicInteger maxParallelBatches = new AtomicInteger();
+
+    private volatile boolean fail;
+
+    @Override
+    public Response executePost(Request request) {
+      if (fail) {
+        return new Response(503, "");
+      }
+
+      maxParallelBatches.accumulateAndGet(parallelBatches.incrementAndGet(), Math::max);
+      try {
+        JsonArray batch = null;
+        for (String parameter : request.getParameters().split("&")) {
+          if (parameter.startsWith("batch=")) {
+            batch = Json.parse(UrlUtils.urlDecode(parameter.substring(6))).asArray();
+          }
+        }
+        batchSizes.add(batch.size());
+        attachmentCounts.add(request.getBinaryAttachments().size());
+
+        JsonArray responses = new JsonArray();
+        for (JsonValue batchRequest : batch) {
+          String relativeUrl = batchRequest.asObject().getString("relative_url", "");
+          responses.add(new JsonObject().add("code", 200)
+            .add("body", new JsonObject().add("id", relativeUrl).toString()));
+        }
+        Thread.sleep(10);
+        return new Response(200, responses.toString());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return new Response(503, "");
+      } finally {
+        parallelBatches.decrementAndGet();
+      }
+    }
+  }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2010-2025 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.restfb.exception.FacebookOAuthException;
+import com.restfb.types.Page;
+import com.restfb.types.User;
+
+class BatchingFacebookClientTest {
+
+  private static final String PAGE_BODY = "{\\\"id\\\":\\\"1\\\",\\\"name\\\":\\\"My Page\\\"}";
+
+  private static final String USER_BODY = "{\\\"id\\\":\\\"2\\\",\\\"name\\\":\\\"Me\\\"}";
+
+  private static final String ERROR_BODY =
+      "{\\\"error\\\":{\\\"message\\\":\\\"Invalid token\\\",\\\"type\\\":\\\"OAuthException\\\",\\\"code\\\":190}}";
+
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+  private final RecordingWebRequestor webRequestor = new RecordingWebRequestor();
+
+  @AfterEach
+  void shutdown() {
+    scheduler.shutdownNow();
+  }
+
+  @Test
+  void collectRequestsInOneBatch() throws Exception {
+    webRequestor.batchResponse = "[{\"code\":200,\"body\":\"" + PAGE_BODY + "\"},{\"code\":200,\"body\":\"" + USER_BODY
+        + "\"}]";
+    BatchingFacebookClient batchingClient = createBatchingClient(50);
+
+    CompletableFuture<Page> page = batchingClient.fetchObject("1", Page.class, Parameter.withFields("name"));
+    CompletableFuture<User> user = batchingClient.fetchObject("me", User.class);
+    assertThat(page).isNotDone();
+
+    batchingClient.flush();
+
+    assertThat(page.get().getName()).isEqualTo("My Page");
+    assertThat(user.get().getName()).isEqualTo("Me");
+    assertThat(webRequestor.methods).containsExactly("POST");
+    assertThat(webRequestor.parameters.get(0)).contains("batch=").contains("fields%3Dname");
+  }
+
+  @Test
+  void completeEveryCallerIndividually() throws Exception {
+    webRequestor.batchResponse = "[{\"code\":200,\"body\":\"" + PAGE_BODY + "\"},{\"code\":400,\"body\":\""
+        + ERROR_BODY + "\"},null]";
+    BatchingFacebookClient batchingClient = createBatchingClient(50);
+
+    CompletableFuture<Page> page = batchingClient.fetchObject("1", Page.class);
+    CompletableFuture<User> user = batchingClient.fetchObject("me", User.class);
+    CompletableFuture<Connection<Page>> accounts = batchingClient.fetchConnection("me/accounts", Page.class);
+    batchingClient.flush();
+
+    assertThat(page.get().getId()).isEqualTo("1");
+    ExecutionException userException = assertThrows(ExecutionException.class, user::get);
+    assertThat(userException.getCause()).isInstanceOf(FacebookOAuthException.class);
+    assertThat(accounts).isCompletedExceptionally();
+  }
+
+  @Test
+  void sendFullBatchImmediately() throws Exception {
+    webRequestor.batchResponse = "[{\"code\":200,\"body\":\"" + PAGE_BODY + "\"},{\"code\":200,\"body\":\""
+        + PAGE_BODY + "\"}]";
+    BatchingFacebookClient batchingClient = createBatchingClient(2);
+
+    CompletableFuture<Page> first = batchingClient.fetchObject("1", Page.class);
+    CompletableFuture<Page> second = batchingClient.fetchObject("1", Page.class);
+
+    assertThat(first.get().getId()).isEqualTo("1");
+    assertThat(second.get().getId()).isEqualTo("1");
+    assertThat(webRequestor.methods).containsExactly("POST");
+  }
+
+  @Test
+  void sendSingleRequestWithoutBatch() throws Exception {
+    BatchingFacebookClient batchingClient = createBatchingClient(50);
+
+    CompletableFuture<User> user = batchingClient.fetchObject("me", User.class);
+    batchingClient.flush();
+
+    assertThat(user.get().getName()).isEqualTo("Single");
+    assertThat(webRequestor.methods).containsExactly("GET");
+  }
+
+  @Test
+  void sendWhenWindowIsOver() throws Exception {
+    webRequestor.batchResponse = "[{\"code\":200,\"body\":\"" + PAGE_BODY + "\"},{\"code\":200,\"body\":\""
+        + USER_BODY + "\"}]";
+    BatchingFacebookClient batchingClient = new BatchingFacebookClient(
+      new DefaultFacebookClient("token", webRequestor, new DefaultJsonMapper(), Version.LATEST),
+      Duration.ofMillis(20), 50, null, Runnable::run);
+
+    CompletableFuture<Page> page = batchingClient.fetchObject("1", Page.class);
+    CompletableFuture<User> user = batchingClient.fetchObject("me", User.class);
+
+    assertThat(page.get().getName()).isEqualTo("My Page");
+    assertThat(user.get().getName()).isEqualTo("Me");
+    batchingClient.close();
+  }
+
+  @Test
+  void sendQueuedRequestsOnClose() throws Exception {
+    BatchingFacebookClient batchingClient = createBatchingClient(50);
+
+    CompletableFuture<User> user = batchingClient.fetchObject("me", User.class);
+    batchingClient.close();
+
+    assertThat(user.get().getName()).isEqualTo("Single");
+  }
+
+  @Test
+  void failRequestsAfterClose() {
+    BatchingFacebookClient batchingClient = createBatchingClient(50);
+    batchingClient.close();
+
+    CompletableFuture<User> user = batchingClient.fetchObject("me", User.class);
+
+    ExecutionException exception = assertThrows(ExecutionException.class, user::get);
+    assertThat(exception.getCause()).isInstanceOf(IllegalStateException.class);
+    assertThat(webRequestor.methods).isEmpty();
+  }
+
+  @Test
+  void failRequestIfSchedulerRejectsFlush() {
+    scheduler.shutdown();
+    BatchingFacebookClient batchingClient = createBatchingClient(50);
+
+    CompletableFuture<User> user = batchingClient.fetchObject("me", User.class);
+
+    ExecutionException exception = assertThrows(ExecutionException.class, user::get);
+    assertThat(exception.getCause()).isInstanceOf(RejectedExecutionException.class);
+    batchingClient.flush();
+    assertThat(webRequestor.methods).isEmpty();
+  }
+
+  private BatchingFacebookClient createBatchingClient(int maxBatchSize) {
+    DefaultFacebookClient client =
+        new DefaultFacebookClient("token", webRequestor, new DefaultJsonMapper(), Version.LATEST);
+    return new BatchingFacebookClient(client, Duration.ofHours(1), maxBatchSize, scheduler, Runnable::run);
+  }
+
+  private static class RecordingWebRequestor extends FakeWebRequestor {
+
+    private final List<String> methods = new ArrayList<>();
+
+    private final List<String> parameters = new ArrayList<>();
+
+    private String batchResponse;
+
+    @Override
+    public synchronized Response executeGet(Request request) {
+      methods.add("GET");
+      return new Response(200, "{\"id\":\"2\",\"name\":\"Single\"}");
+    }
+
+    @Override
+    public synchronized Response executePost(Request request) {
+      methods.add("POST");
+      parameters.add(request.getParameters());
+      return new Response(200, batchResponse);
+    }
+  }
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2010-2025 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.restfb.batch.BatchRequest;
+import com.restfb.batch.BatchResponse;
+import com.restfb.exception.FacebookNetworkException;
+import com.restfb.exception.FacebookOAuthException;
+import com.restfb.exception.FacebookResponseContentException;
+import com.restfb.json.Json;
+import com.restfb.json.JsonArray;
+import com.restfb.json.JsonValue;
+import com.restfb.util.UrlUtils;
+
+class BulkMutationExecutorTest {
+
+  private static final String SUCCESS = "{\"code\":200,\"body\":\"{\\\"success\\\":true}\"}";
+
+  private static final String THROTTLED = "{\"code\":400,\"body\":\"{\\\"error\\\":{\\\"message\\\":\\\"Too many calls\\\","
+      + "\\\"type\\\":\\\"OAuthException\\\",\\\"code\\\":4}}\"}";
+
+  private static final String PERMISSION_ERROR = "{\"code\":403,\"body\":\"{\\\"error\\\":{\\\"message\\\":"
+      + "\\\"Permissions error\\\",\\\"type\\\":\\\"OAuthException\\\",\\\"code\\\":200}}\"}";
+
+  private final ScriptedWebRequestor webRequestor = new ScriptedWebRequestor();
+
+  private final List<Long> delays = new ArrayList<>();
+
+  private BulkMutationExecutor executor;
+
+  @BeforeEach
+  void setUp() {
+    RetryPolicy retryPolicy = new RetryPolicy() {
+      @Override
+      protected void sleep(long delayInMillis) {
+        delays.add(delayInMillis);
+      }
+    };
+    executor = new BulkMutationExecutor(
+      new DefaultFacebookClient("token", webRequestor, new DefaultJsonMapper(), Version.LATEST), retryPolicy,
+      Runnable::run, 1);
+  }
+
+  @Test
+  void retryOnlyTransientFailures() {
+    webRequestor.script("1", THROTTLED, SUCCESS);
+    webRequestor.script("2", "null", SUCCESS);
+    webRequestor.script("3", PERMISSION_ERROR);
+
+    List<BulkMutationExecutor.Result> results = executor.execute(mutations(5));
+
+    assertThat(results).allMatch(result -> result.getIndex() == results.indexOf(result));
+    assertThat(results.get(0).isSuccess()).isTrue();
+    assertThat(results.get(0).getAttempts()).isEqualTo(1);
+    assertThat(results.get(1).isSuccess()).isTrue();
+    assertThat(results.get(1).getAttempts()).isEqualTo(2);
+    assertThat(results.get(2).isSuccess()).isTrue();
+    assertThat(results.get(2).getAttempts()).isEqualTo(2);
+    assertThat(results.get(3).isSuccess()).isFalse();
+    assertThat(results.get(3).getAttempts()).isEqualTo(1);
+    assertThat(results.get(3).getException()).isInstanceOf(FacebookOAuthException.class);
+    assertThat(results.get(3).getResponse().getCode()).isEqualTo(403);
+
+    assertThat(webRequestor.batchSizes).containsExactly(5, 2);
+    assertThat(delays).hasSize(1);
+    assertThat(executor.getBatchCount()).isEqualTo(2);
+    assertThat(executor.getRetryCount()).isEqualTo(2);
+  }
+
+  @Test
+  void giveUpAfterMaxAttempts() {
+    webRequestor.script("1", THROTTLED, THROTTLED, THROTTLED, SUCCESS);
+
+    List<BulkMutationExecutor.Result> results = executor.execute(mutations(2));
+
+    assertThat(results.get(0).isSuccess()).isTrue();
+    assertThat(results.get(1).isSuccess()).isFalse();
+    assertThat(results.get(1).getAttempts()).isEqualTo(3);
+    assertThat(webRequestor.batchSizes).containsExactly(2, 1, 1);
+  }
+
+  @Test
+  void retryFailedBatch() {
+    webRequestor.failedBatches = 1;
+
+    List<BulkMutationExecutor.Result> results = executor.execute(mutations(3));
+
+    assertThat(results).allMatch(BulkMutationExecutor.Result::isSuccess);
+    assertThat(results).allMatch(result -> result.getAttempts() == 2);
+  }
+
+  @Test
+  void reportFailedBatch() {
+    webRequestor.failedBatches = 3;
+
+    List<BulkMutationExecutor.Result> results = executor.execute(mutations(3));
+
+    assertThat(results).noneMatch(BulkMutationExecutor.Result::isSuccess);
+    assertThat(results.get(0).getException()).isInstanceOf(FacebookNetworkException.class);
+    assertThat(results.get(0).getResponse()).isNull();
+  }
+
+  @Test
+  void reportUnexpectedBatchFailureAndContinue() {
+    AtomicInteger unexpectedFailures = new AtomicInteger(1);
+    DefaultFacebookClient client =
+        new DefaultFacebookClient("token", webRequestor, new DefaultJsonMapper(), Version.LATEST) {
+          @Override
+          public List<BatchResponse> executeBatch(List<BatchRequest> batchRequests) {
+            if (unexpectedFailures.getAndDecrement() > 0) {
+              throw new IllegalStateException("unexpected failure");
+            }
+            return super.executeBatch(batchRequests);
+          }
+        };
+    executor = new BulkMutationExecutor(client, new RetryPolicy() {
+      @Override
+      protected void sleep(long delayInMillis) {
+        delays.add(delayInMillis);
+      }
+    }, Runnable::run, 1);
+    executor.setBatchSize(2);
+
+    List<BulkMutationExecutor.Result> results = executor.execute(mutations(4));
+
+    assertThat(results.get(0).getException()).isInstanceOf(FacebookResponseContentException.class)
+      .hasCauseInstanceOf(IllegalStateException.class);
+    assertThat(results.get(1).isSuccess()).isFalse();
+    assertThat(results.subList(2, 4)).allMatch(BulkMutationExecutor.Result::isSuccess);
+    assertThat(delays).isEmpty();
+  }
+
+  @Test
+  void splitIntoBatches() {
+    executor.setBatchSize(20);
+
+    List<BulkMutationExecutor.Result> results = executor.execute(mutations(45));
+
+    assertThat(results).hasSize(45).allMatch(BulkMutationExecutor.Result::isSuccess);
+    assertThat(webRequestor.batchSizes).containsExactly(20, 20, 5);
+  }
+
+  @Test
+  void emptyList() {
+    assertThat(executor.execute(Collections.emptyList())).isEmpty();
+    assertThat(executor.getBatchCount()).isZero();
+  }
+
+  private List<BatchRequest> mutations(int count) {
+    List<BatchRequest> mutations = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      mutations.add(new BatchRequest.BatchRequestBuilder(String.valueOf(i)).method("POST")
+        .body(Parameter.with("is_hidden", true)).build());
+    }
+    return mutations;
+  }
+
+  private static class ScriptedWebRequestor extends FakeWebRequestor {
+
+    private final Map<String, Deque<String>> responses = new HashMap<>();
+
+    private final List<Integer> batchSizes = new ArrayList<>();
+
+    private int failedBatches;
+
+    void script(String relativeUrl, String... batchResponses) {
+      responses.put(relativeUrl, new ArrayDeque<>(Arrays.asList(batchResponses)));
+    }
+
+    @Override
+    public synchronized Response executePost(Request request) {
+      if (failedBatches > 0) {
+        failedBatches--;
+        return new Response(503, "");
+      }
+
+      JsonArray batch = null;
+      for (String parameter : request.getParameters().split("&")) {
+        if (parameter.startsWith("batch=")) {
+          batch = Json.parse(UrlUtils.urlDecode(parameter.substring(6))).asArray();
+        }
+      }
+      batchSizes.add(batch.size());
+
+      List<String> batchResponses = new ArrayList<>();
+      for (JsonValue batchRequest : batch) {
+        Deque<String> scripted = responses.get(batchRequest.asObject().getString("relative_url", ""));
+        batchResponses.add(scripted != null && !scripted.isEmpty() ? scripted.poll() : SUCCESS);
+      }
+      return new Response(200, "[" + String.join(",", batchResponses) + "]");
+    }
+  }
+}
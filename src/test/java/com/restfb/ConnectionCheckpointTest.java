@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2010-2025 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.restfb.types.FacebookType;
+
+class ConnectionCheckpointTest {
+
+  private final PagingWebRequestor webRequestor = new PagingWebRequestor(5);
+
+  private final DefaultFacebookClient facebookClient =
+      new DefaultFacebookClient("token", webRequestor, new DefaultJsonMapper(), Version.VERSION_15_0);
+
+  private final MapCheckpointStore store = new MapCheckpointStore();
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void removeCredentials() {
+    ConnectionCheckpoint checkpoint = new ConnectionCheckpoint(
+      "https://graph.facebook.com/v15.0/me/feed?access_token=secret&limit=1&appsecret_proof=proof&after=abc%3D", "abc=");
+
+    assertThat(checkpoint.getNextPageUrl()).isEqualTo("https://graph.facebook.com/v15.0/me/feed?limit=1&after=abc%3D");
+    assertThat(checkpoint.getAfterCursor()).isEqualTo("abc=");
+    assertThat(checkpoint.isComplete()).isFalse();
+  }
+
+  @Test
+  void resumeWithClientCredentials() {
+    ConnectionCheckpoint checkpoint = new ConnectionCheckpoint(
+      "https://graph.facebook.com/v15.0/page3?access_token=old&limit=1&format=json&after=abc%3D", null);
+
+    Connection<FacebookType> page = checkpoint.resume(facebookClient, FacebookType.class);
+
+    assertThat(page.getData().get(0).getId()).isEqualTo("3");
+    assertThat(webRequestor.getRequestedUrls()).hasSize(1);
+    assertThat(webRequestor.getRequestedUrls().get(0)).startsWith("https://graph.facebook.com/v15.0/page3?")
+      .contains("limit=1", "after=abc%3D", "access_token=token").doesNotContain("old");
+  }
+
+  @Test
+  void resumeAfterCrash() {
+    CheckpointingConnectionIterator<FacebookType> it =
+        facebookClient.fetchConnection("page1", FacebookType.class).checkpointingIterator(store, "feed", 1);
+    it.next();
+    assertThat(store.load("feed")).isEmpty();
+    it.next();
+    it.next();
+
+    // the process dies while page 3 is processed
+    ConnectionCheckpoint checkpoint = store.load("feed").get();
+    assertThat(checkpoint.getNextPageUrl()).isEqualTo("https://graph.facebook.com/v15.0/page3?limit=1");
+
+    List<String> ids = new ArrayList<>();
+    it = checkpoint.resume(facebookClient, FacebookType.class).checkpointingIterator(store, "feed", 1);
+    while (it.hasNext()) {
+      it.next().forEach(item -> ids.add(item.getId()));
+    }
+
+    assertThat(ids).containsExactly("3", "4", "5");
+    assertThat(store.load("feed").get().isComplete()).isTrue();
+    assertThat(store.saveCount).isEqualTo(5);
+  }
+
+  @Test
+  void saveEveryNthPage() {
+    CheckpointingConnectionIterator<FacebookType> it =
+        facebookClient.fetchConnection("page1", FacebookType.class).checkpointingIterator(store, "feed", 2);
+    it.next();
+    it.next();
+    it.next();
+    assertThat(store.saveCount).isEqualTo(1);
+    assertThat(store.load("feed").get().getNextPageUrl()).contains("page3");
+
+    it.checkpoint();
+    assertThat(store.load("feed").get().getNextPageUrl()).contains("page4");
+  }
+
+  @Test
+  void rejectResumeOfCompleteConnection() {
+    ConnectionCheckpoint checkpoint = new ConnectionCheckpoint(null, "abc");
+
+    assertThat(checkpoint.isComplete()).isTrue();
+    assertThrows(IllegalStateException.class, () -> checkpoint.resume(facebookClient, FacebookType.class));
+  }
+
+  @Test
+  void fileStore() {
+    FileConnectionCheckpointStore fileStore = new FileConnectionCheckpointStore(tempDir.resolve("checkpoints"));
+    assertThat(fileStore.load("feed")).isEmpty();
+
+    fileStore.save("feed", new ConnectionCheckpoint("https://graph.facebook.com/v15.0/page2?limit=1", "cursor"));
+    ConnectionCheckpoint loaded = fileStore.load("feed").get();
+    assertThat(loaded.getNextPageUrl()).isEqualTo("https://graph.facebook.com/v15.0/page2?limit=1");
+    assertThat(loaded.getAfterCursor()).isEqualTo("cursor");
+
+    fileStore.save("feed", new ConnectionCheckpoint(null, null));
+    assertThat(fileStore.load("feed").get().isComplete()).isTrue();
+    assertThat(fileStore.load("feed").get().getAfterCursor()).isNull();
+
+    fileStore.remove("feed");
+    assertThat(fileStore.load("feed")).isEmpty();
+  }
+
+  private static class MapCheckpointStore implements ConnectionCheckpointStore {
+
+    private final Map<String, ConnectionCheckpoint> checkpoints = new HashMap<>();
+
+    private int saveCount;
+
+    @Override
+    public Optional<ConnectionCheckpoint> load(String key) {
+      return Optional.ofNullable(checkpoints.get(key));
+    }
+
+    @Override
+    public void save(String key, ConnectionCheckpoint checkpoint) {
+      saveCount++;
+      checkpoints.put(key, checkpoint);
+    }
+
+    @Override
+    public void remove(String key) {
+      checkpoints.remove(key);
+    }
+  }
+}
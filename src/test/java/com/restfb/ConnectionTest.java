@@ -25,15 +25,19 @@ import static java.net.HttpURLConnection.HTTP_OK;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
 import org.junit.jupiter.api.Test;
 
 import com.restfb.exception.FacebookJsonMappingException;
 import com.restfb.json.JsonObject;
+import com.restfb.json.JsonValue;
 import com.restfb.types.FacebookType;
 import com.restfb.types.Post;
 import com.restfb.types.User;
@@ -41,6 +45,8 @@ import com.restfb.types.ads.AdsInsights;
 
 class ConnectionTest extends AbstractJsonMapperTests {
 
+  private final List<String> requestedUrls = new ArrayList<>();
+
   private void createConnectionNull() {
     new Connection<>(new DefaultFacebookClient(Version.LATEST), null, User.class);
   }
@@ -152,6 +158,80 @@ class ConnectionTest extends AbstractJsonMapperTests {
     assertThrows(NoSuchElementException.class, it::next);
   }
 
+  @Test
+  void checkItemStream_reachAllElements() {
+    Connection<FacebookType> connection = create3PageConnection();
+
+    assertThat(connection.itemStream()).hasSize(18);
+    assertThat(requestedUrls).hasSize(3);
+  }
+
+  @Test
+  void checkItemStream_limitWithoutExtraPages() {
+    Connection<FacebookType> connection = create3PageConnection();
+
+    List<FacebookType> firstPage = connection.itemStream().limit(6).collect(Collectors.toList());
+
+    assertThat(firstPage).isEqualTo(connection.getData());
+    assertThat(requestedUrls).hasSize(1);
+
+    assertThat(connection.itemStream().skip(6).findFirst()).isPresent();
+    assertThat(requestedUrls).hasSize(2);
+  }
+
+  @Test
+  void checkItemStream_noData() {
+    Connection<JsonObject> con = new Connection<>(new DefaultFacebookClient(Version.LATEST),
+      jsonFromClasspath("connection-nodata"), JsonObject.class);
+    assertThat(con.itemStream()).isEmpty();
+  }
+
+  @Test
+  void checkData_mappedLazilyFromTree() {
+    AtomicInteger treeMappings = new AtomicInteger();
+    AtomicInteger stringMappings = new AtomicInteger();
+    DefaultJsonMapper countingMapper = new DefaultJsonMapper() {
+      @Override
+      public <T> T toJavaObject(JsonValue json, Class<T> type) {
+        treeMappings.incrementAndGet();
+        return super.toJavaObject(json, type);
+      }
+
+      @Override
+      public <T> T toJavaObject(String json, Class<T> type) {
+        stringMappings.incrementAndGet();
+        return super.toJavaObject(json, type);
+      }
+    };
+    DefaultFacebookClient facebookClient = new DefaultFacebookClient("token",
+      new FakeWebRequestor(new WebRequestor.Response(HTTP_OK, jsonFromClasspath("connection-with-cursor"))),
+      countingMapper, Version.VERSION_15_0);
+
+    Connection<User> connection = facebookClient.fetchConnection("/cursor", User.class);
+    // the summary is mapped eagerly
+    treeMappings.set(0);
+    stringMappings.set(0);
+
+    assertThat(connection.getAfterCursor()).isEqualTo("NzU1MjI1MjU0");
+    assertThat(connection.getData()).hasSize(6);
+    assertThat(treeMappings).hasValue(0);
+
+    User first = connection.getData().get(0);
+    assertThat(first.getName()).isEqualTo("Tester1");
+    assertThat(connection.getData().get(0)).isSameAs(first);
+    assertThat(treeMappings).hasValue(1);
+    assertThat(stringMappings).hasValue(0);
+
+    assertThat(connection.getData()).extracting(User::getId).contains("1234567896");
+    assertThat(treeMappings).hasValue(6);
+  }
+
+  @Test
+  void checkData_readOnly() {
+    Connection<FacebookType> connection = createCursorConnection(false);
+    assertThrows(UnsupportedOperationException.class, () -> connection.getData().add(new FacebookType()));
+  }
+
   @Test
   void checkIterator_withCursor() {
     Connection<FacebookType> connection = createCursorConnection(false);
@@ -235,6 +315,7 @@ class ConnectionTest extends AbstractJsonMapperTests {
       public Response executeGet(Request request) {
 
         String url = request.getFullUrl();
+        requestedUrls.add(url);
 
         if (url.equals("https://graph.facebook.com/v15.0/page1?access_token=token&format=json")) {
           return new Response(HTTP_OK, jsonFromClasspath("connection-p1"));
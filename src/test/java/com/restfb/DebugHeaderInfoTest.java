@@ -104,6 +104,17 @@ class DebugHeaderInfoTest extends AbstractJsonMapperTests {
     assertEquals(9.67, adAccountUsage.getAccIdUtilPct(), 0.01);
   }
 
+  @Test
+  void usageHeader_parsedOnce() {
+    DebugHeaderInfo headerInfo = buildHeader("{\"call_count\":144,\"total_cputime\":73,\"total_time\":44}", null, null);
+    DebugHeaderInfo.HeaderUsage appUsage = headerInfo.getAppUsage();
+    assertNotNull(appUsage);
+    assertEquals(144, appUsage.getCallCount().intValue());
+    assertSame(appUsage, headerInfo.getAppUsage());
+    assertNull(headerInfo.getPageUsage());
+    assertNull(headerInfo.getBusinessUseCaseUsage());
+  }
+
   private DebugHeaderInfo buildHeader(String appUsage, String pageUsage, String adAccountUsage) {
     String debug = "QeodrDSB0AN6qqY1eWNkPlsB93xSMEWg80qsyfUAMqzlB0AOvmMR6mypF0HHkoSiGP8k54AHwDrn5aQfMLvZrg";
     String rev = "3057133";
@@ -22,20 +22,43 @@
 package com.restfb;
 
 import static com.restfb.testutils.RestfbAssertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
+import java.net.Socket;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLSocketFactory;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -172,11 +195,41 @@ class DefaultWebRequestorTest {
     verify(requestor).customizeConnection(mockUrlConnection);
     verify(requestor).fillHeaderAndDebugInfo(mockUrlConnection);
     verify(requestor).fetchResponse(mockUrlConnection);
-    verify(requestor).write(mockBinaryInputStream, mockOutputStream, 8192);
+    verify(requestor).write(eq(mockBinaryInputStream), eq(mockOutputStream), any(byte[].class));
+    verify(mockUrlConnection).setFixedLengthStreamingMode(anyLong());
     verify(requestor).closeQuietly(mockUrlConnection);
     verify(requestor).closeQuietly(mockBinaryInputStream);
   }
 
+  @Test
+  void checkPost_WithBinary_fixedLengthStreamingMode() throws IOException {
+    when(mockUrlConnection.getOutputStream()).thenReturn(mockOutputStream);
+    when(mockUrlConnection.getResponseCode()).thenReturn(200);
+    when(mockUrlConnection.getInputStream()).thenReturn(new ByteArrayInputStream("{}".getBytes(StandardCharsets.UTF_8)));
+    BinaryAttachment attachment = BinaryAttachment.with("file.png", new byte[1024], "image/png");
+    long expectedLength = MultipartFormData.createPartHeader(attachment, "file").length + 1024
+        + MultipartFormData.createPartTrailer().length;
+
+    requestor.executePost(new WebRequestor.Request(exampleUrl, null, "", Collections.singletonList(attachment)));
+
+    verify(mockUrlConnection).setFixedLengthStreamingMode(expectedLength);
+    verify(mockUrlConnection, never()).setChunkedStreamingMode(anyInt());
+  }
+
+  @Test
+  void checkPost_WithBinaryStream_chunkedStreamingMode() throws IOException {
+    when(mockUrlConnection.getOutputStream()).thenReturn(mockOutputStream);
+    when(mockUrlConnection.getResponseCode()).thenReturn(200);
+    when(mockUrlConnection.getInputStream()).thenReturn(new ByteArrayInputStream("{}".getBytes(StandardCharsets.UTF_8)));
+    BinaryAttachment attachment =
+        BinaryAttachment.with("file.png", new ByteArrayInputStream(new byte[1024]), "image/png");
+
+    requestor.executePost(new WebRequestor.Request(exampleUrl, null, "", Collections.singletonList(attachment)));
+
+    verify(mockUrlConnection).setChunkedStreamingMode(8192);
+    verify(mockUrlConnection, never()).setFixedLengthStreamingMode(anyLong());
+  }
+
   @Test
   void checkPost_WithReel_Binary() throws IOException {
     when(mockUrlConnection.getOutputStream()).thenReturn(mockOutputStream);
@@ -186,7 +239,7 @@ class DefaultWebRequestorTest {
     when(mockAttachment.isFacebookReel()).thenReturn(true);
     when(mockAttachment.hasBinaryData()).thenReturn(true);
     when(mockAttachment.isBinary()).thenReturn(true);
-    when(mockAttachment.getFileSizeInBytes()).thenReturn(1234);
+    when(mockAttachment.getFileSize()).thenReturn(1234L);
 
     String resultString = "This is just a simple Test";
     when(mockUrlConnection.getResponseCode()).thenReturn(200);
@@ -288,4 +341,290 @@ class DefaultWebRequestorTest {
     verify(requestor).fillHeaderAndDebugInfo(mockUrlConnection);
     verify(requestor).fetchResponse(mockUrlConnection);
   }
+
+  @Test
+  void checkGet_disconnectByDefault() throws IOException {
+    when(mockUrlConnection.getResponseCode()).thenReturn(200);
+    when(mockUrlConnection.getInputStream()).thenReturn(new ByteArrayInputStream("{}".getBytes(StandardCharsets.UTF_8)));
+    requestor.executeGet(new WebRequestor.Request(exampleUrl, null));
+
+    verify(mockUrlConnection).disconnect();
+  }
+
+  @Test
+  void checkGet_connectionReuse() throws IOException {
+    requestor.setConnectionReuse(true);
+    when(mockUrlConnection.getResponseCode()).thenReturn(200);
+    InputStream stream = spy(new ByteArrayInputStream("{}".getBytes(StandardCharsets.UTF_8)));
+    when(mockUrlConnection.getInputStream()).thenReturn(stream);
+    WebRequestor.Response response = requestor.executeGet(new WebRequestor.Request(exampleUrl, null));
+
+    assertThat(response.getBody()).isEqualTo("{}");
+    verify(stream).close();
+    verify(mockUrlConnection, never()).disconnect();
+  }
+
+  @Test
+  void checkGet_connectionReuse_disconnectOnError() throws IOException {
+    requestor.setConnectionReuse(true);
+    InputStream errorStream = spy(new ByteArrayInputStream("{}".getBytes(StandardCharsets.UTF_8)));
+    when(mockUrlConnection.getErrorStream()).thenReturn(errorStream);
+    when(mockUrlConnection.getResponseCode()).thenThrow(new IOException("connection reset"));
+
+    try {
+      requestor.executeGet(new WebRequestor.Request(exampleUrl, null));
+    } catch (IOException e) {
+      // expected
+    }
+
+    verify(errorStream).close();
+    verify(mockUrlConnection).disconnect();
+  }
+
+  @Test
+  void checkGet_connectionReuse_disconnectWithoutBody() throws IOException {
+    requestor.setConnectionReuse(true);
+    when(mockUrlConnection.getResponseCode()).thenReturn(500);
+    when(mockUrlConnection.getErrorStream()).thenReturn(null);
+    WebRequestor.Response response = requestor.executeGet(new WebRequestor.Request(exampleUrl, null));
+
+    assertThat(response.getBody()).isEmpty();
+    verify(mockUrlConnection).disconnect();
+  }
+
+  @Test
+  void checkConnectionCounter_onlyWithConnectionReuse() {
+    HttpsURLConnection httpsConnection = mock(HttpsURLConnection.class);
+
+    requestor.trackConnection(httpsConnection);
+
+    verify(httpsConnection, never()).setSSLSocketFactory(any(SSLSocketFactory.class));
+    assertThat(requestor.getReusedConnectionCount()).isZero();
+  }
+
+  @Test
+  void checkConnectionCounter() throws IOException {
+    requestor.setConnectionReuse(true);
+    HttpsURLConnection httpsConnection = mock(HttpsURLConnection.class);
+    SSLSocketFactory defaultFactory = mock(SSLSocketFactory.class);
+    when(httpsConnection.getSSLSocketFactory()).thenReturn(defaultFactory);
+    when(defaultFactory.createSocket()).thenReturn(new Socket());
+
+    requestor.trackConnection(httpsConnection);
+    requestor.trackConnection(httpsConnection);
+    requestor.trackConnection(httpsConnection);
+
+    ArgumentCaptor<SSLSocketFactory> factoryCaptor = ArgumentCaptor.forClass(SSLSocketFactory.class);
+    verify(httpsConnection, times(3)).setSSLSocketFactory(factoryCaptor.capture());
+    assertThat(factoryCaptor.getAllValues()).containsOnly(factoryCaptor.getValue());
+
+    // only the first request opened a socket
+    factoryCaptor.getValue().createSocket();
+
+    assertThat(requestor.getNewConnectionCount()).isEqualTo(1);
+    assertThat(requestor.getReusedConnectionCount()).isEqualTo(2);
+  }
+
+  @Test
+  void checkGet_streamingResponseBody() throws IOException {
+    requestor.setStreamingResponseBody(true);
+    when(mockUrlConnection.getResponseCode()).thenReturn(200);
+    when(mockUrlConnection.getInputStream())
+      .thenReturn(new ByteArrayInputStream("{\"id\":\"1\"}".getBytes(StandardCharsets.UTF_8)));
+    WebRequestor.Response response = requestor.executeGet(new WebRequestor.Request(exampleUrl, null));
+
+    assertThat(response.isStreamingBody()).isTrue();
+    verify(mockUrlConnection, never()).disconnect();
+
+    // reading the body releases the connection
+    assertThat(response.getBody()).isEqualTo("{\"id\":\"1\"}");
+    assertThat(response.isStreamingBody()).isFalse();
+    verify(mockUrlConnection).disconnect();
+  }
+
+  @Test
+  void checkGet_gzipCompression() throws IOException {
+    requestor.setCompressionEnabled(true);
+    String resultString = "{\"id\":\"12345\",\"name\":\"compressed compressed compressed compressed\"}";
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(compressed)) {
+      gzipOutputStream.write(resultString.getBytes(StandardCharsets.UTF_8));
+    }
+    when(mockUrlConnection.getResponseCode()).thenReturn(200);
+    when(mockUrlConnection.getContentEncoding()).thenReturn("gzip");
+    when(mockUrlConnection.getInputStream()).thenReturn(new ByteArrayInputStream(compressed.toByteArray()));
+    WebRequestor.Response response = requestor.executeGet(new WebRequestor.Request(exampleUrl, null));
+
+    assertThat(response.getBody()).isEqualTo(resultString);
+    verify(mockUrlConnection).setRequestProperty("Accept-Encoding", "gzip, deflate");
+    assertThat(requestor.getReceivedBytes()).isEqualTo(compressed.size());
+    assertThat(requestor.getDecodedBytes()).isEqualTo(resultString.length());
+  }
+
+  @Test
+  void checkGet_noCompressionByDefault() throws IOException {
+    when(mockUrlConnection.getResponseCode()).thenReturn(200);
+    when(mockUrlConnection.getInputStream()).thenReturn(new ByteArrayInputStream("{}".getBytes(StandardCharsets.UTF_8)));
+    requestor.executeGet(new WebRequestor.Request(exampleUrl, null));
+
+    verify(mockUrlConnection, never()).setRequestProperty(eq("Accept-Encoding"), anyString());
+    assertThat(requestor.getReceivedBytes()).isEqualTo(2);
+    assertThat(requestor.getDecodedBytes()).isEqualTo(2);
+  }
+
+  @Test
+  void checkGet_responseMetadata() throws IOException {
+    Map<String, List<String>> headers = new HashMap<>();
+    headers.put("x-fb-trace-id", Collections.singletonList("HiH1euz4Umo"));
+    headers.put("x-app-usage", Collections.singletonList("{\"call_count\":12,\"total_cputime\":3,\"total_time\":4}"));
+    when(mockUrlConnection.getResponseCode()).thenReturn(200);
+    when(mockUrlConnection.getInputStream()).thenReturn(new ByteArrayInputStream("{}".getBytes(StandardCharsets.UTF_8)));
+    when(mockUrlConnection.getHeaderFields()).thenReturn(headers);
+    when(mockUrlConnection.getHeaderField(anyString())).thenAnswer(invocation -> Optional
+      .ofNullable(headers.get(invocation.<String> getArgument(0))).map(values -> values.get(0)).orElse(null));
+    WebRequestor.Response response = requestor.executeGet(new WebRequestor.Request(exampleUrl, null));
+
+    assertThat(response.getHeaders()).containsKey("x-fb-trace-id");
+    assertThat(response.getHeader("X-FB-Trace-Id")).isEqualTo("HiH1euz4Umo");
+    assertThat(response.getHeader("x-unknown")).isNull();
+    assertThat(response.getDebugHeaderInfo()).isNotNull();
+    assertThat(response.getDebugHeaderInfo().getTraceId()).isEqualTo("HiH1euz4Umo");
+    assertThat(response.getDebugHeaderInfo().getAppUsage().getCallCount()).isEqualTo(12);
+    assertThat(response.getDebugHeaderInfo()).isNotSameAs(requestor.getDebugHeaderInfo());
+  }
+
+  @Test
+  void checkGet_requestCoalescing() throws Exception {
+    requestor.setRequestCoalescing(true);
+    CountDownLatch release = new CountDownLatch(1);
+    when(mockUrlConnection.getResponseCode()).thenReturn(200);
+    when(mockUrlConnection.getInputStream()).thenAnswer(invocation -> {
+      release.await(5, TimeUnit.SECONDS);
+      return new ByteArrayInputStream("{\"id\":\"1\"}".getBytes(StandardCharsets.UTF_8));
+    });
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<WebRequestor.Response> first =
+          executor.submit(() -> requestor.executeGet(new WebRequestor.Request(exampleUrl, "token")));
+      while (requestor.getCoalescingMissCount() == 0) {
+        Thread.sleep(5);
+      }
+      Future<WebRequestor.Response> second =
+          executor.submit(() -> requestor.executeGet(new WebRequestor.Request(exampleUrl, "token")));
+      while (requestor.getCoalescingHitCount() == 0) {
+        Thread.sleep(5);
+      }
+      release.countDown();
+
+      assertThat(first.get(5, TimeUnit.SECONDS).getBody()).isEqualTo("{\"id\":\"1\"}");
+      assertThat(second.get(5, TimeUnit.SECONDS).getBody()).isEqualTo("{\"id\":\"1\"}");
+    } finally {
+      executor.shutdownNow();
+    }
+
+    verify(requestor, times(1)).openConnection(any(URL.class));
+    assertThat(requestor.getCoalescingHitCount()).isEqualTo(1);
+    assertThat(requestor.getCoalescingMissCount()).isEqualTo(1);
+  }
+
+  @Test
+  void checkGet_requestCoalescing_errorReleasesWaitingRequests() throws Exception {
+    requestor.setRequestCoalescing(true);
+    CountDownLatch release = new CountDownLatch(1);
+    when(mockUrlConnection.getResponseCode()).thenReturn(200);
+    when(mockUrlConnection.getInputStream()).thenAnswer(invocation -> {
+      release.await(5, TimeUnit.SECONDS);
+      throw new StackOverflowError("failed request");
+    }).thenReturn(new ByteArrayInputStream("{\"id\":\"1\"}".getBytes(StandardCharsets.UTF_8)));
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<WebRequestor.Response> first =
+          executor.submit(() -> requestor.executeGet(new WebRequestor.Request(exampleUrl, "token")));
+      while (requestor.getCoalescingMissCount() == 0) {
+        Thread.sleep(5);
+      }
+      Future<WebRequestor.Response> second =
+          executor.submit(() -> requestor.executeGet(new WebRequestor.Request(exampleUrl, "token")));
+      while (requestor.getCoalescingHitCount() == 0) {
+        Thread.sleep(5);
+      }
+      release.countDown();
+
+      ExecutionException firstFailure =
+          assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+      assertThat(firstFailure).hasCauseInstanceOf(StackOverflowError.class);
+      ExecutionException secondFailure =
+          assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+      assertThat(secondFailure).hasCauseInstanceOf(StackOverflowError.class);
+    } finally {
+      executor.shutdownNow();
+    }
+
+    WebRequestor.Response response = requestor.executeGet(new WebRequestor.Request(exampleUrl, "token"));
+    assertThat(response.getBody()).isEqualTo("{\"id\":\"1\"}");
+  }
+
+  @Test
+  void checkPost_WithFileAttachment(@TempDir Path tempDir) throws IOException {
+    byte[] content = new byte[20000];
+    new Random(42).nextBytes(content);
+    Path file = Files.write(tempDir.resolve("video.mp4"), content);
+    BinaryAttachment attachment = BinaryAttachment.with(file, "video/mp4");
+
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    when(mockUrlConnection.getOutputStream()).thenReturn(body);
+    when(mockUrlConnection.getResponseCode()).thenReturn(200);
+    when(mockUrlConnection.getInputStream()).thenReturn(new ByteArrayInputStream("{}".getBytes(StandardCharsets.UTF_8)));
+
+    requestor.executePost(new WebRequestor.Request(exampleUrl, null, "", Collections.singletonList(attachment)));
+
+    byte[] header = MultipartFormData.createPartHeader(attachment, "video");
+    byte[] trailer = MultipartFormData.createPartTrailer();
+    verify(mockUrlConnection).setFixedLengthStreamingMode((long) header.length + content.length + trailer.length);
+    verify(requestor).write(any(InputStream.class), any(OutputStream.class), any(byte[].class));
+    assertThat(Arrays.copyOfRange(body.toByteArray(), header.length, header.length + content.length))
+      .isEqualTo(content);
+    assertThat(body.size()).isEqualTo(header.length + content.length + trailer.length);
+  }
+
+  @Test
+  void checkPost_WithReel_FileResumedAtOffset(@TempDir Path tempDir) throws IOException {
+    byte[] content = new byte[20000];
+    new Random(42).nextBytes(content);
+    Path file = Files.write(tempDir.resolve("reel.mp4"), content);
+    FacebookReelAttachment reel = FacebookReelAttachment.withFile(file).withOffset(15000);
+
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    when(mockUrlConnection.getOutputStream()).thenReturn(body);
+    when(mockUrlConnection.getResponseCode()).thenReturn(200);
+    when(mockUrlConnection.getInputStream()).thenReturn(new ByteArrayInputStream("{}".getBytes(StandardCharsets.UTF_8)));
+
+    requestor.executePost(new WebRequestor.Request(exampleUrl, null, "", Collections.singletonList(reel)));
+
+    verify(mockUrlConnection).setRequestProperty("offset", "15000");
+    verify(mockUrlConnection).setRequestProperty("file_size", "20000");
+    verify(mockUrlConnection).setFixedLengthStreamingMode(5000L);
+    assertThat(body.toByteArray()).isEqualTo(Arrays.copyOfRange(content, 15000, 20000));
+  }
+
+  @Test
+  void checkPost_WithReel_StreamResumedAtOffset() throws IOException {
+    byte[] content = new byte[20000];
+    new Random(42).nextBytes(content);
+    FacebookReelAttachment reel =
+        FacebookReelAttachment.withStream(new ByteArrayInputStream(content), content.length).withOffset(12345);
+
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    when(mockUrlConnection.getOutputStream()).thenReturn(body);
+    when(mockUrlConnection.getResponseCode()).thenReturn(200);
+    when(mockUrlConnection.getInputStream()).thenReturn(new ByteArrayInputStream("{}".getBytes(StandardCharsets.UTF_8)));
+
+    requestor.executePost(new WebRequestor.Request(exampleUrl, null, "", Collections.singletonList(reel)));
+
+    verify(mockUrlConnection).setRequestProperty("offset", "12345");
+    verify(mockUrlConnection).setFixedLengthStreamingMode(7655L);
+    assertThat(body.toByteArray()).isEqualTo(Arrays.copyOfRange(content, 12345, 20000));
+  }
 }
@@ -27,6 +27,7 @@ import static org.assertj.core.api.Assertions.failBecauseExceptionWasNotThrown;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.io.IOException;
+import java.io.StringReader;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
@@ -447,6 +448,73 @@ class FacebookClientTest {
     assertThat(array.toString()).contains("\"123\"").contains("\"456\"");
   }
 
+  @Test
+  void fetchConnection_streamedResponse() {
+    StringReader body = new StringReader("{\"data\":[{\"id\":\"1\"},{\"id\":\"2\"}],\"paging\":{\"next\":\"https://graph.facebook.com/next\"}}");
+    FacebookClient facebookClient = streamingFacebookClientWithResponse(Response.streaming(200, body));
+
+    Connection<User> connection = facebookClient.fetchConnection("me/friends", User.class);
+
+    assertThat(connection.getData()).extracting(User::getId).containsExactly("1", "2");
+    assertThat(connection.getNextPageUrl()).isEqualTo("https://graph.facebook.com/next");
+  }
+
+  @Test
+  void fetchConnection_streamedErrorResponse() {
+    StringReader body = new StringReader(
+      "{\"error\":{\"message\":\"(#210) User not visible\",\"type\":\"OAuthException\",\"code\":210}}");
+    FacebookClient facebookClient = streamingFacebookClientWithResponse(Response.streaming(200, body));
+
+    assertThrows(FacebookOAuthException.class, () -> facebookClient.fetchConnection("me/friends", User.class));
+  }
+
+  @Test
+  void fetchConnection_streamedResponseWithErrorPrefixedField() {
+    StringReader body = new StringReader("{\"data\":[{\"id\":\"1\"}],\"error_count\":0}");
+    FacebookClient facebookClient = streamingFacebookClientWithResponse(Response.streaming(200, body));
+
+    Connection<User> connection = facebookClient.fetchConnection("me/friends", User.class);
+
+    assertThat(connection.getData()).extracting(User::getId).containsExactly("1");
+  }
+
+  @Test
+  void fetchConnection_usesJsonObjectRequestHook() {
+    List<String> endpoints = new ArrayList<>();
+    DefaultFacebookClient facebookClient = new DefaultFacebookClient(null,
+      new FakeWebRequestor(new Response(200, "{\"data\":[]}")), new DefaultJsonMapper(), Version.LATEST) {
+      @Override
+      protected JsonObject makeJsonObjectRequest(String endpoint, Parameter... parameters) {
+        endpoints.add(endpoint);
+        return super.makeJsonObjectRequest(endpoint, parameters);
+      }
+    };
+    facebookClient.setStreamingConnectionParsing(true);
+
+    facebookClient.fetchConnection("me/friends", User.class);
+
+    assertThat(endpoints).containsExactly("me/friends");
+  }
+
+  @Test
+  void fetchConnection_usesRequestHookByDefault() {
+    List<String> endpoints = new ArrayList<>();
+    FacebookClient facebookClient = new DefaultFacebookClient(null,
+      new FakeWebRequestor(new Response(200, "{\"data\":[{\"id\":\"1\"}]}")), new DefaultJsonMapper(),
+      Version.LATEST) {
+      @Override
+      protected String makeRequest(String endpoint, Parameter... parameters) {
+        endpoints.add(endpoint);
+        return super.makeRequest(endpoint, parameters);
+      }
+    };
+
+    Connection<User> connection = facebookClient.fetchConnection("me/friends", User.class);
+
+    assertThat(endpoints).containsExactly("me/friends");
+    assertThat(connection.getData()).extracting(User::getId).containsExactly("1");
+  }
+
   /**
    * Simple way to create a {@code FacebookClient} whose web requests always return the provided synthetic
    * {@code response}.
@@ -461,4 +529,18 @@ class FacebookClientTest {
     return new DefaultFacebookClient(null, new FakeWebRequestor(response), new DefaultJsonMapper(), Version.LATEST);
   }
 
+  /**
+   * Like {@link #facebookClientWithResponse(Response)}, but connections are parsed directly from the response body.
+   *
+   * @param response
+   *          The synthetic response to return.
+   * @return A {@code FacebookClient} for testing.
+   */
+  protected FacebookClient streamingFacebookClientWithResponse(final Response response) {
+    DefaultFacebookClient facebookClient =
+        new DefaultFacebookClient(null, new FakeWebRequestor(response), new DefaultJsonMapper(), Version.LATEST);
+    facebookClient.setStreamingConnectionParsing(true);
+    return facebookClient;
+  }
+
 }
\ No newline at end of file
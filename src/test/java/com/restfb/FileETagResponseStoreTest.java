@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2010-2025 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.restfb.ETagWebRequestor.ETagResponse;
+
+class FileETagResponseStoreTest {
+
+  private static final String BODY = new String(new char[100]).replace('\0', 'x');
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void responsesSurviveRestart() {
+    FileETagResponseStore store = new FileETagResponseStore(tempDir);
+    store.put("url1", new ETagResponse("etag1", "{\"id\":1}"));
+    store.put("url2", new ETagResponse("etag2", "{\"id\":2}"));
+    store.remove("url2");
+    store.close();
+
+    FileETagResponseStore restartedStore = new FileETagResponseStore(tempDir);
+    assertThat(restartedStore.get("url1").getEtag()).isEqualTo("etag1");
+    assertThat(restartedStore.get("url1").getBody()).isEqualTo("{\"id\":1}");
+    assertThat(restartedStore.get("url2")).isNull();
+    restartedStore.close();
+  }
+
+  @Test
+  void credentialsAreNotWrittenToDisk() throws IOException {
+    String url = "https://graph.facebook.com/v18.0/me?access_token=secret-token&appsecret_proof=secret-proof";
+    FileETagResponseStore store = new FileETagResponseStore(tempDir);
+    store.put(url, new ETagResponse("etag", "{\"id\":1}"));
+    store.remove(url);
+    store.put(url, new ETagResponse("etag", "{\"id\":1}"));
+    store.close();
+
+    String segment = new String(Files.readAllBytes(tempDir.resolve("00000000.etag")), StandardCharsets.UTF_8);
+    assertThat(segment).doesNotContain("secret-token").doesNotContain("secret-proof").doesNotContain("graph.facebook");
+
+    FileETagResponseStore restartedStore = new FileETagResponseStore(tempDir);
+    assertThat(restartedStore.get(url).getEtag()).isEqualTo("etag");
+    restartedStore.close();
+  }
+
+  @Test
+  void tornRecordIsCutOff() throws IOException {
+    FileETagResponseStore store = new FileETagResponseStore(tempDir);
+    store.put("url1", new ETagResponse("etag1", BODY));
+    store.close();
+
+    Path segment = tempDir.resolve("00000000.etag");
+    long size = Files.size(segment);
+    try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+      channel.write(ByteBuffer.wrap(new byte[] { 1, 0, 0, 0, 5, 0 }));
+    }
+
+    FileETagResponseStore restartedStore = new FileETagResponseStore(tempDir);
+    assertThat(restartedStore.get("url1").getBody()).isEqualTo(BODY);
+    assertThat(Files.size(segment)).isEqualTo(size);
+    restartedStore.close();
+  }
+
+  @Test
+  void compactOutdatedRecords() {
+    FileETagResponseStore store = new FileETagResponseStore(tempDir, 4000, 1000);
+    store.put("url", new ETagResponse("etag", "{}"));
+    for (int i = 0; i < 500; i++) {
+      store.put("key" + (i % 5), new ETagResponse("etag" + i, BODY));
+    }
+
+    assertThat(store.getDiskSize()).isLessThanOrEqualTo(4000);
+    assertThat(store.get("key4").getEtag()).isEqualTo("etag499");
+    assertThat(store.get("url")).isNotNull();
+    assertThat(store.getEvictionCount()).isZero();
+    store.close();
+  }
+
+  @Test
+  void dropOldestSegmentWhenFull() {
+    FileETagResponseStore store = new FileETagResponseStore(tempDir, 4000, 1000);
+    for (int i = 0; i < 200; i++) {
+      store.put("url" + i, new ETagResponse("etag" + i, BODY));
+    }
+
+    assertThat(store.getDiskSize()).isLessThanOrEqualTo(4000);
+    assertThat(store.getEvictionCount()).isPositive();
+    assertThat(store.get("url0")).isNull();
+    assertThat(store.get("url199").getEtag()).isEqualTo("etag199");
+    store.close();
+  }
+}
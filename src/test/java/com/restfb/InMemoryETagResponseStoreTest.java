@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2010-2025 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+import com.restfb.ETagWebRequestor.ETagResponse;
+
+class InMemoryETagResponseStoreTest {
+
+  @Test
+  void hitAndMiss() {
+    InMemoryETagResponseStore store = new InMemoryETagResponseStore();
+    store.put("url1", new ETagResponse("etag1", "{\"id\":1}"));
+
+    assertThat(store.get("url1").getEtag()).isEqualTo("etag1");
+    assertThat(store.get("url2")).isNull();
+    assertThat(store.getHitCount()).isEqualTo(1);
+    assertThat(store.getMissCount()).isEqualTo(1);
+  }
+
+  @Test
+  void evictLeastRecentlyUsedEntry() {
+    InMemoryETagResponseStore store = new InMemoryETagResponseStore(3, 1000, null);
+    store.put("url1", new ETagResponse("etag1", "body1"));
+    store.put("url2", new ETagResponse("etag2", "body2"));
+    store.put("url3", new ETagResponse("etag3", "body3"));
+    store.get("url1");
+    store.put("url4", new ETagResponse("etag4", "body4"));
+
+    assertThat(store.size()).isEqualTo(3);
+    assertThat(store.get("url2")).isNull();
+    assertThat(store.get("url1")).isNotNull();
+    assertThat(store.getEvictionCount()).isEqualTo(1);
+  }
+
+  @Test
+  void evictWhenBodiesAreTooLarge() {
+    InMemoryETagResponseStore store = new InMemoryETagResponseStore(3, 10, null);
+    store.put("url1", new ETagResponse("etag1", "12345"));
+    store.put("url2", new ETagResponse("etag2", "12345"));
+    store.put("url3", new ETagResponse("etag3", "123"));
+
+    assertThat(store.get("url1")).isNull();
+    assertThat(store.getTotalBodySize()).isEqualTo(8);
+
+    store.put("url4", new ETagResponse("etag4", "12345678901"));
+    assertThat(store.get("url4")).isNull();
+    assertThat(store.getTotalBodySize()).isEqualTo(8);
+  }
+
+  @Test
+  void maxEntryBodySize() {
+    assertThat(new InMemoryETagResponseStore().getMaxEntryBodySize()).isEqualTo(4L * 1024 * 1024);
+    assertThat(new InMemoryETagResponseStore(3, 10, null).getMaxEntryBodySize()).isEqualTo(10);
+
+    InMemoryETagResponseStore store = new InMemoryETagResponseStore(1000, 1600, null);
+    store.put("url1", new ETagResponse("etag1", String.join("", Collections.nCopies(101, "x"))));
+    assertThat(store.getMaxEntryBodySize()).isEqualTo(100);
+    assertThat(store.get("url1")).isNull();
+  }
+
+  @Test
+  void expireAfterTimeToLive() {
+    MutableClock clock = new MutableClock();
+    InMemoryETagResponseStore store = new InMemoryETagResponseStore(10, 1000, Duration.ofMinutes(5), clock);
+    store.put("url1", new ETagResponse("etag1", "body1"));
+
+    clock.advance(Duration.ofMinutes(4).toMillis());
+    assertThat(store.get("url1")).isNotNull();
+
+    clock.advance(Duration.ofMinutes(1).toMillis());
+    assertThat(store.get("url1")).isNull();
+    assertThat(store.size()).isZero();
+    assertThat(store.getEvictionCount()).isEqualTo(1);
+  }
+
+  @Test
+  void compressBodies() {
+    StringBuilder body = new StringBuilder("{\"data\":[");
+    for (int i = 0; i < 100; i++) {
+      body.append("{\"id\":\"").append(i).append("\",\"name\":\"Page ").append(i).append("\"},");
+    }
+    body.append("{}]}");
+
+    InMemoryETagResponseStore store = new InMemoryETagResponseStore();
+    store.setCompressBodies(true);
+    store.put("url1", new ETagResponse("etag1", body.toString()));
+
+    ETagResponse response = store.get("url1");
+    assertThat(response.isCompressed()).isTrue();
+    assertThat(response.getBody()).isEqualTo(body.toString());
+    assertThat(store.getTotalBodySize()).isEqualTo(response.getBodySize()).isLessThan(body.length() / 3);
+  }
+
+  private static class MutableClock extends Clock {
+
+    private long millis = 1_000_000L;
+
+    void advance(long delta) {
+      millis += delta;
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return Instant.ofEpochMilli(millis);
+    }
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2010-2025 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static java.net.HttpURLConnection.HTTP_OK;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Fake Web Requestor for paging tests.
+ * <p>
+ * The connection {@code page1} has one item per page and {@code pageCount} pages, page {@code n} links to
+ * {@code page(n+1)} as next page.
+ */
+public class PagingWebRequestor extends FakeWebRequestor {
+
+  private static final Pattern PAGE = Pattern.compile("page(\\d+)");
+
+  private final int pageCount;
+
+  private final List<Integer> fetchedPages = Collections.synchronizedList(new ArrayList<>());
+
+  private final List<String> requestedUrls = Collections.synchronizedList(new ArrayList<>());
+
+  private volatile int failingPage;
+
+  public PagingWebRequestor(int pageCount) {
+    this.pageCount = pageCount;
+  }
+
+  @Override
+  public Response executeGet(Request request) {
+    requestedUrls.add(request.getFullUrl());
+    Matcher matcher = PAGE.matcher(request.getFullUrl());
+    matcher.find();
+    int page = Integer.parseInt(matcher.group(1));
+    if (page == failingPage) {
+      return new Response(503, "");
+    }
+
+    fetchedPages.add(page);
+    String paging = page < pageCount ? ",\"paging\":{\"next\":\"https://graph.facebook.com/v15.0/page" + (page + 1)
+        + "?access_token=token&limit=1\"}" : "";
+    return new Response(HTTP_OK, "{\"data\":[{\"id\":\"" + page + "\"}]" + paging + "}");
+  }
+
+  /**
+   * get the pages that were answered successfully, in the order of the requests.
+   *
+   * @return the page numbers
+   */
+  public List<Integer> getFetchedPages() {
+    return fetchedPages;
+  }
+
+  /**
+   * get the full urls of all requests, including the failed ones.
+   *
+   * @return the requested urls
+   */
+  public List<String> getRequestedUrls() {
+    return requestedUrls;
+  }
+
+  /**
+   * let the requests for a page fail with a 503 response.
+   *
+   * @param failingPage
+   *          the page that fails, {@code 0} if no page fails
+   */
+  public void setFailingPage(int failingPage) {
+    this.failingPage = failingPage;
+  }
+}
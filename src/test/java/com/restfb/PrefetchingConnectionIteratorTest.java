@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2010-2025 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.restfb.exception.FacebookNetworkException;
+import com.restfb.types.FacebookType;
+
+class PrefetchingConnectionIteratorTest {
+
+  private final ExecutorService executorService = Executors.newSingleThreadExecutor();
+
+  private final PagingWebRequestor webRequestor = new PagingWebRequestor(10);
+
+  private final DefaultFacebookClient facebookClient =
+      new DefaultFacebookClient("token", webRequestor, new DefaultJsonMapper(), Version.VERSION_15_0);
+
+  @AfterEach
+  void shutdown() {
+    executorService.shutdownNow();
+  }
+
+  @Test
+  void reachAllPages() {
+    List<String> ids = new ArrayList<>();
+    try (PrefetchingConnectionIterator<FacebookType> it =
+        facebookClient.fetchConnection("page1", FacebookType.class).prefetchingIterator(executorService, 3)) {
+      while (it.hasNext()) {
+        it.next().forEach(item -> ids.add(item.getId()));
+      }
+      assertThrows(NoSuchElementException.class, it::next);
+    }
+
+    assertThat(ids).containsExactly("1", "2", "3", "4", "5", "6", "7", "8", "9", "10");
+    assertThat(webRequestor.getFetchedPages()).hasSize(10);
+  }
+
+  @Test
+  void prefetchWhileProcessing() throws Exception {
+    PrefetchingConnectionIterator<FacebookType> it =
+        facebookClient.fetchConnection("page1", FacebookType.class).prefetchingIterator(executorService, 2);
+
+    it.next();
+    waitForFetchedPages(3);
+    assertThat(it.snapshot().getData().get(0).getId()).isEqualTo("1");
+
+    assertThat(it.next().get(0).getId()).isEqualTo("2");
+    waitForFetchedPages(4);
+    assertThat(webRequestor.getFetchedPages()).containsExactly(1, 2, 3, 4);
+    it.close();
+  }
+
+  @Test
+  void stopFetchingWhenClosed() {
+    List<Runnable> tasks = new ArrayList<>();
+    PrefetchingConnectionIterator<FacebookType> it =
+        facebookClient.fetchConnection("page1", FacebookType.class).prefetchingIterator(tasks::add, 2);
+
+    it.next();
+    it.close();
+    tasks.forEach(Runnable::run);
+
+    assertThat(it.hasNext()).isFalse();
+    assertThat(webRequestor.getFetchedPages()).containsExactly(1);
+  }
+
+  @Test
+  void refetchFailedPage() {
+    webRequestor.setFailingPage(3);
+    PrefetchingConnectionIterator<FacebookType> it =
+        facebookClient.fetchConnection("page1", FacebookType.class).prefetchingIterator(executorService, 2);
+
+    it.next();
+    it.next();
+    assertThrows(FacebookNetworkException.class, it::next);
+
+    webRequestor.setFailingPage(0);
+    assertThat(it.next().get(0).getId()).isEqualTo("3");
+    it.close();
+  }
+
+  private void waitForFetchedPages(int count) throws InterruptedException {
+    for (int i = 0; i < 500 && webRequestor.getFetchedPages().size() < count; i++) {
+      Thread.sleep(10);
+    }
+    assertThat(webRequestor.getFetchedPages()).hasSize(count);
+  }
+}
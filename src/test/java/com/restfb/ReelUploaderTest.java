@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2010-2025 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.restfb.exception.FacebookNetworkException;
+import com.restfb.types.FacebookReelAttachment;
+
+class ReelUploaderTest {
+
+  private static final int FILE_SIZE = 2500;
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void upload() throws Exception {
+    ReelProtocolWebRequestor webRequestor = new ReelProtocolWebRequestor();
+    ReelUploader uploader = new ReelUploader(client(webRequestor));
+
+    String videoId = uploader.upload("123", createReel(), Parameter.with("description", "My reel"));
+
+    assertThat(videoId).isEqualTo("987");
+    assertThat(webRequestor.phases).containsExactly("start", "upload", "finish");
+    assertThat(webRequestor.uploadOffsets).containsExactly(0L);
+    assertThat(webRequestor.finishParameters).contains("description=My+reel").contains("video_id=987")
+      .contains("video_state=PUBLISHED");
+  }
+
+  @Test
+  void upload_resumeAfterFailure() throws Exception {
+    ReelProtocolWebRequestor webRequestor = new ReelProtocolWebRequestor();
+    webRequestor.failuresLeft = 1;
+    ReelUploader uploader = new ReelUploader(client(webRequestor));
+
+    assertThat(uploader.upload("123", createReel())).isEqualTo("987");
+
+    assertThat(webRequestor.phases).containsExactly("start", "upload", "status", "upload", "finish");
+    assertThat(webRequestor.uploadOffsets).containsExactly(0L, 1000L);
+  }
+
+  @Test
+  void upload_tooManyFailures() throws Exception {
+    ReelProtocolWebRequestor webRequestor = new ReelProtocolWebRequestor();
+    webRequestor.failuresLeft = 2;
+    ReelUploader uploader = new ReelUploader(client(webRequestor));
+    uploader.setMaxResumeAttempts(1);
+    Path reel = createReel();
+
+    assertThrows(FacebookNetworkException.class, () -> uploader.upload("123", reel));
+    assertThat(webRequestor.phases).containsExactly("start", "upload", "status", "upload");
+  }
+
+  private Path createReel() throws Exception {
+    return Files.write(tempDir.resolve("reel.mp4"), new byte[FILE_SIZE]);
+  }
+
+  private static DefaultFacebookClient client(WebRequestor webRequestor) {
+    return new DefaultFacebookClient("token", webRequestor, new DefaultJsonMapper(), Version.LATEST);
+  }
+
+  /**
+   * Simulates the reel upload phases, a failed upload has transferred the first 1000 bytes.
+   */
+  private static class ReelProtocolWebRequestor extends FakeWebRequestor {
+
+    private final List<String> phases = new ArrayList<>();
+
+    private final List<Long> uploadOffsets = new ArrayList<>();
+
+    private String finishParameters;
+
+    private int failuresLeft;
+
+    @Override
+    public Response executeGet(Request request) {
+      phases.add("status");
+      return new Response(200, "{\"status\":{\"uploading_phase\":{\"status\":\"in_progress\",\"bytes_transfered\":1000}}}");
+    }
+
+    @Override
+    public Response executePost(Request request) {
+      if (request.isReelUpload()) {
+        phases.add("upload");
+        FacebookReelAttachment reel = request.getReel().get();
+        uploadOffsets.add(reel.getOffset());
+        assertThat(reel.getFileSize()).isEqualTo(FILE_SIZE);
+        if (failuresLeft > 0) {
+          failuresLeft--;
+          return new Response(503, "");
+        }
+        return new Response(200, "{\"success\":true}");
+      }
+
+      String parameters = request.getParameters();
+      if (parameters.contains("upload_phase=start")) {
+        phases.add("start");
+        return new Response(200, "{\"video_id\":\"987\",\"upload_url\":\"https://rupload.facebook.com/video-upload/987\"}");
+      }
+
+      phases.add("finish");
+      finishParameters = parameters;
+      return new Response(200, "{\"success\":true}");
+    }
+  }
+}
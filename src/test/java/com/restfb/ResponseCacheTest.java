@@ -0,0 +1,309 @@
+/*
+ * Copyright (c) 2010-2025 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.restfb.exception.FacebookException;
+import com.restfb.types.FacebookType;
+import com.restfb.types.Page;
+import com.restfb.types.User;
+
+class ResponseCacheTest {
+
+  private final MutableClock clock = new MutableClock();
+
+  private final List<Runnable> backgroundTasks = new ArrayList<>();
+
+  private final ResponseCache cache = new ResponseCache(backgroundTasks::add, clock);
+
+  private final AtomicInteger loads = new AtomicInteger();
+
+  @Test
+  void notCachedWithoutTimeToLive() {
+    get("me", User.class, "token", Parameter.withFields("id"));
+    get("me", User.class, "token", Parameter.withFields("id"));
+
+    assertThat(loads).hasValue(2);
+    assertThat(cache.size()).isZero();
+  }
+
+  @Test
+  void cachedWithTypeTimeToLive() {
+    cache.setTimeToLive(Page.class, Duration.ofMinutes(5));
+
+    assertThat(get("123", Page.class, "token", Parameter.withFields("name,id"))).isEqualTo("json1");
+    assertThat(get("123", Page.class, "token", Parameter.withFields("id, name,id"))).isEqualTo("json1");
+    get("123", User.class, "token", Parameter.withFields("id,name"));
+
+    assertThat(loads).hasValue(2);
+    assertThat(cache.getHitCount()).isEqualTo(1);
+  }
+
+  @Test
+  void keyContainsAccessTokenAndParameters() {
+    cache.setDefaultTimeToLive(Duration.ofMinutes(5));
+
+    get("123", Page.class, "token1", Parameter.withFields("id"));
+    get("123", Page.class, "token2", Parameter.withFields("id"));
+    get("123", Page.class, "token1", Parameter.withFields("id,name"));
+    get("123", Page.class, "token1", Parameter.withFields("id"), Parameter.with("locale", "de_DE"));
+
+    assertThat(loads).hasValue(4);
+  }
+
+  @Test
+  void endpointTimeToLiveWins() {
+    cache.setTimeToLive(Page.class, Duration.ofMinutes(5));
+    cache.setTimeToLive("accounts", Duration.ZERO);
+
+    get("me/accounts", Page.class, "token");
+    get("me/accounts", Page.class, "token");
+
+    assertThat(loads).hasValue(2);
+  }
+
+  @Test
+  void expiredResponseIsLoadedAgain() {
+    cache.setDefaultTimeToLive(Duration.ofMinutes(5));
+
+    get("123", Page.class, "token");
+    clock.advance(Duration.ofMinutes(5).toMillis());
+
+    assertThat(get("123", Page.class, "token")).isEqualTo("json2");
+    assertThat(cache.getMissCount()).isEqualTo(2);
+  }
+
+  @Test
+  void staleWhileRevalidate() {
+    cache.setDefaultTimeToLive(Duration.ofMinutes(5));
+    cache.setStaleWhileRevalidate(Duration.ofMinutes(1));
+
+    get("123", Page.class, "token");
+    clock.advance(Duration.ofMinutes(5).toMillis());
+
+    assertThat(get("123", Page.class, "token")).isEqualTo("json1");
+    assertThat(get("123", Page.class, "token")).isEqualTo("json1");
+    assertThat(backgroundTasks).hasSize(1);
+
+    backgroundTasks.get(0).run();
+    assertThat(get("123", Page.class, "token")).isEqualTo("json2");
+    assertThat(cache.getStaleHitCount()).isEqualTo(2);
+    assertThat(cache.getRefreshCount()).isEqualTo(1);
+  }
+
+  @Test
+  void invalidate() {
+    cache.setDefaultTimeToLive(Duration.ofMinutes(5));
+
+    get("/123/", Page.class, "token");
+    cache.invalidate("123");
+    get("123", Page.class, "token");
+
+    assertThat(loads).hasValue(2);
+  }
+
+  @Test
+  void responseLoadedWhileInvalidatedIsNotCached() {
+    cache.setDefaultTimeToLive(Duration.ofMinutes(5));
+
+    assertThat(cache.get("123", Page.class, "token", new Parameter[0], () -> {
+      cache.invalidate("123");
+      return "old";
+    })).isEqualTo("old");
+
+    assertThat(get("123", Page.class, "token")).isEqualTo("json1");
+    assertThat(get("123", Page.class, "token")).isEqualTo("json1");
+    assertThat(cache.size()).isEqualTo(1);
+  }
+
+  @Test
+  void refreshStartedBeforeInvalidationIsDropped() {
+    cache.setDefaultTimeToLive(Duration.ofMinutes(5));
+    cache.setStaleWhileRevalidate(Duration.ofMinutes(1));
+
+    get("123", Page.class, "token");
+    clock.advance(Duration.ofMinutes(5).toMillis());
+    cache.get("123", Page.class, "token", new Parameter[0], () -> {
+      cache.invalidate("123");
+      return "old";
+    });
+
+    backgroundTasks.get(0).run();
+    assertThat(cache.size()).isZero();
+    assertThat(get("123", Page.class, "token")).isEqualTo("json2");
+  }
+
+  @Test
+  void evictOldestResponses() {
+    cache.setDefaultTimeToLive(Duration.ofMinutes(5));
+    cache.setMaxEntries(10);
+
+    for (int i = 0; i < 11; i++) {
+      get("object" + i, Page.class, "token");
+      clock.advance(1);
+    }
+
+    assertThat(cache.size()).isEqualTo(9);
+    get("object10", Page.class, "token");
+    get("object0", Page.class, "token");
+    assertThat(loads).hasValue(12);
+  }
+
+  @Test
+  void compressBodies() {
+    String json = "{\"data\":[" + String.join(",", Collections.nCopies(100, "{\"id\":\"1\",\"name\":\"Page\"}"))
+        + "]}";
+    cache.setDefaultTimeToLive(Duration.ofMinutes(5));
+    cache.setCompressBodies(true);
+
+    cache.get("me/accounts", Page.class, "token", new Parameter[0], () -> json);
+
+    assertThat(cache.get("me/accounts", Page.class, "token", new Parameter[0], () -> "other")).isEqualTo(json);
+    assertThat(cache.getTotalBodySize()).isPositive().isLessThan(json.length() / 5);
+    cache.invalidate("me/accounts");
+    assertThat(cache.getTotalBodySize()).isZero();
+  }
+
+  @Test
+  void normalizeFields() {
+    assertThat(ResponseCache.normalizeFields("name, id,likes{name,id},id")).isEqualTo("id,likes{name,id},name");
+  }
+
+  @Test
+  void fetchObjectIsCached() {
+    FakeWebRequestor webRequestor = new FakeWebRequestor(new WebRequestor.Response(200, "{\"id\":\"123\"}")) {
+      @Override
+      public Response executeGet(Request request) {
+        loads.incrementAndGet();
+        return super.executeGet(request);
+      }
+    };
+    DefaultFacebookClient client =
+        new DefaultFacebookClient("token", webRequestor, new DefaultJsonMapper(), Version.LATEST);
+    ResponseCache responseCache = new ResponseCache();
+    responseCache.setTimeToLive(Page.class, Duration.ofMinutes(5));
+    client.setResponseCache(responseCache);
+
+    assertThat(client.fetchObject("123", Page.class).getId()).isEqualTo("123");
+    assertThat(client.fetchObject("123", Page.class).getId()).isEqualTo("123");
+    assertThat(loads).hasValue(1);
+
+    client.deleteObject("123");
+    client.fetchObject("123", Page.class);
+    assertThat(loads).hasValue(2);
+  }
+
+  @Test
+  void publishInvalidatesAfterWrite() {
+    DefaultFacebookClient client = clientWithConcurrentReads(new WebRequestor.Response(200, "{\"id\":\"456\"}"));
+
+    assertThat(client.fetchObject("123", Page.class).getName()).isEqualTo("v1");
+    client.publish("123", FacebookType.class, Parameter.with("name", "v3"));
+
+    // the read during the write cached the old state, it has to be dropped again
+    assertThat(loads).hasValue(2);
+    assertThat(client.fetchObject("123", Page.class).getName()).isEqualTo("v3");
+  }
+
+  @Test
+  void failedDeleteInvalidatesAfterWrite() {
+    DefaultFacebookClient client = clientWithConcurrentReads(new WebRequestor.Response(503, ""));
+
+    assertThat(client.fetchObject("123", Page.class).getName()).isEqualTo("v1");
+    assertThrows(FacebookException.class, () -> client.deleteObject("123"));
+
+    assertThat(loads).hasValue(2);
+    assertThat(client.fetchObject("123", Page.class).getName()).isEqualTo("v3");
+  }
+
+  /**
+   * Creates a client whose writes read the object while they are sent, like a concurrent request would.
+   */
+  private DefaultFacebookClient clientWithConcurrentReads(WebRequestor.Response writeResponse) {
+    DefaultFacebookClient[] client = new DefaultFacebookClient[1];
+    FakeWebRequestor webRequestor = new FakeWebRequestor() {
+      @Override
+      public Response executeGet(Request request) {
+        return new Response(200, "{\"id\":\"123\",\"name\":\"v" + loads.incrementAndGet() + "\"}");
+      }
+
+      @Override
+      public Response executePost(Request request) {
+        client[0].fetchObject("123", Page.class);
+        return writeResponse;
+      }
+
+      @Override
+      public Response executeDelete(Request request) {
+        client[0].fetchObject("123", Page.class);
+        return writeResponse;
+      }
+    };
+    client[0] = new DefaultFacebookClient("token", webRequestor, new DefaultJsonMapper(), Version.LATEST);
+    ResponseCache responseCache = new ResponseCache();
+    responseCache.setTimeToLive(Page.class, Duration.ofMinutes(5));
+    client[0].setResponseCache(responseCache);
+    return client[0];
+  }
+
+  private String get(String endpoint, Class<?> type, String accessToken, Parameter... parameters) {
+    return cache.get(endpoint, type, accessToken, parameters, () -> "json" + loads.incrementAndGet());
+  }
+
+  private static class MutableClock extends Clock {
+
+    private long millis = 1_000_000L;
+
+    void advance(long delta) {
+      millis += delta;
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return Instant.ofEpochMilli(millis);
+    }
+  }
+}
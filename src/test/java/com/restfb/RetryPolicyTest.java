@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2010-2025 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.restfb.WebRequestor.Response;
+import com.restfb.exception.FacebookException;
+import com.restfb.exception.FacebookGraphException;
+import com.restfb.exception.FacebookNetworkException;
+import com.restfb.exception.FacebookOAuthException;
+import com.restfb.types.User;
+
+class RetryPolicyTest {
+
+  private static final String TRANSIENT_ERROR =
+      "{\"error\":{\"message\":\"An unknown error occurred\",\"type\":\"OAuthException\",\"code\":1}}";
+
+  private static final String INVALID_TOKEN =
+      "{\"error\":{\"message\":\"Invalid OAuth access token.\",\"type\":\"OAuthException\",\"code\":190}}";
+
+  private final List<Long> delays = new ArrayList<>();
+
+  private RetryPolicy retryPolicy;
+
+  @BeforeEach
+  void setup() {
+    retryPolicy = new RetryPolicy() {
+      @Override
+      protected void sleep(long delayInMillis) {
+        delays.add(delayInMillis);
+      }
+    };
+  }
+
+  @Test
+  void retryTransientError() {
+    SequenceWebRequestor webRequestor = new SequenceWebRequestor(new Response(400, TRANSIENT_ERROR),
+      new Response(503, ""), new Response(200, "{\"id\":\"12345\"}"));
+
+    User user = client(webRequestor).fetchObject("me", User.class);
+
+    assertThat(user.getId()).isEqualTo("12345");
+    assertThat(webRequestor.getCount()).isEqualTo(3);
+    assertThat(delays).hasSize(2).allMatch(delay -> delay >= retryPolicy.getBaseDelayInMillis()
+        && delay <= retryPolicy.getMaxDelayInMillis());
+  }
+
+  @Test
+  void noRetryForPermanentError() {
+    SequenceWebRequestor webRequestor =
+        new SequenceWebRequestor(new Response(400, INVALID_TOKEN), new Response(200, "{\"id\":\"12345\"}"));
+
+    DefaultFacebookClient client = client(webRequestor);
+    assertThrows(FacebookOAuthException.class, () -> client.fetchObject("me", User.class));
+    assertThat(webRequestor.getCount()).isEqualTo(1);
+  }
+
+  @Test
+  void noRetryForPost() {
+    SequenceWebRequestor webRequestor =
+        new SequenceWebRequestor(new Response(400, TRANSIENT_ERROR), new Response(200, "{\"id\":\"12345\"}"));
+
+    DefaultFacebookClient client = client(webRequestor);
+    assertThrows(FacebookGraphException.class, () -> client.publish("me/feed", User.class));
+    assertThat(webRequestor.getCount()).isEqualTo(1);
+  }
+
+  @Test
+  void maxAttempts() {
+    SequenceWebRequestor webRequestor = new SequenceWebRequestor(new Response(503, ""), new Response(503, ""),
+      new Response(503, ""), new Response(200, "{\"id\":\"12345\"}"));
+
+    DefaultFacebookClient client = client(webRequestor);
+    assertThrows(FacebookNetworkException.class, () -> client.fetchObject("me", User.class));
+    assertThat(webRequestor.getCount()).isEqualTo(3);
+  }
+
+  @Test
+  void retryBudget() {
+    retryPolicy.setMaxBudgetTokens(1);
+    retryPolicy.setBudgetTokenRatio(0);
+
+    SequenceWebRequestor webRequestor = new SequenceWebRequestor(new Response(503, ""), new Response(503, ""),
+      new Response(503, ""), new Response(200, "{\"id\":\"12345\"}"));
+
+    DefaultFacebookClient client = client(webRequestor);
+    assertThrows(FacebookNetworkException.class, () -> client.fetchObject("me", User.class));
+    assertThat(webRequestor.getCount()).isEqualTo(2);
+    assertThat(retryPolicy.getAvailableBudget()).isZero();
+  }
+
+  @Test
+  void decorrelatedJitter() {
+    long delay = retryPolicy.getBaseDelayInMillis();
+    for (int i = 0; i < 20; i++) {
+      long next = retryPolicy.nextDelayInMillis(delay);
+      assertThat(next).isBetween(retryPolicy.getBaseDelayInMillis(), Math.min(delay * 3,
+        retryPolicy.getMaxDelayInMillis()));
+      delay = next;
+    }
+  }
+
+  @Test
+  void classification() {
+    assertThat(retryPolicy.isRetryable(new FacebookNetworkException(new RuntimeException()))).isTrue();
+    assertThat(retryPolicy.isRetryable(new FacebookNetworkException(502))).isTrue();
+    assertThat(retryPolicy.isRetryable(new FacebookNetworkException(401))).isFalse();
+    assertThat(retryPolicy.isRetryable(new FacebookException("mapping") {})).isFalse();
+  }
+
+  private DefaultFacebookClient client(WebRequestor webRequestor) {
+    DefaultFacebookClient client =
+        new DefaultFacebookClient("token", webRequestor, new DefaultJsonMapper(), Version.LATEST);
+    client.setRetryPolicy(retryPolicy);
+    return client;
+  }
+
+  private static class SequenceWebRequestor extends FakeWebRequestor {
+
+    private final Deque<Response> responses;
+
+    private int count;
+
+    SequenceWebRequestor(Response... responses) {
+      this.responses = new ArrayDeque<>(Arrays.asList(responses));
+    }
+
+    @Override
+    public Response executeGet(Request request) {
+      super.executeGet(request);
+      return next();
+    }
+
+    @Override
+    public Response executePost(Request request) {
+      super.executePost(request);
+      return next();
+    }
+
+    private Response next() {
+      count++;
+      return responses.size() > 1 ? responses.poll() : responses.peek();
+    }
+
+    int getCount() {
+      return count;
+    }
+  }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2010-2025 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class UsageHeaderThrottlerTest {
+
+  private static final String AD_ACCOUNT_URL = "https://graph.facebook.com/v18.0/act_123/insights";
+
+  private MutableClock clock;
+
+  private UsageHeaderThrottler throttler;
+
+  @BeforeEach
+  void setup() {
+    clock = new MutableClock();
+    throttler = new UsageHeaderThrottler(clock);
+  }
+
+  @Test
+  void noDelayWithoutUsage() {
+    assertThat(throttler.getDelayInMillis(request(AD_ACCOUNT_URL))).isZero();
+  }
+
+  @Test
+  void noDelayBelowThreshold() {
+    throttler.update(request(AD_ACCOUNT_URL), response(appUsage(50)));
+    assertThat(throttler.getDelayInMillis(request(AD_ACCOUNT_URL))).isZero();
+  }
+
+  @Test
+  void slowDownAboveThreshold() {
+    throttler.update(request(AD_ACCOUNT_URL), response(appUsage(90)));
+    long delay = throttler.getDelayInMillis(request("https://graph.facebook.com/v18.0/me"));
+    assertThat(delay).isGreaterThan(0L).isLessThan(throttler.getMaxDelayInMillis());
+  }
+
+  @Test
+  void pauseAtFullUsageAndResume() {
+    throttler.update(request(AD_ACCOUNT_URL), response(appUsage(100)));
+    assertThat(throttler.getDelayInMillis(request(AD_ACCOUNT_URL))).isEqualTo(throttler.getDefaultPauseInMillis());
+
+    clock.advance(throttler.getDefaultPauseInMillis());
+    assertThat(throttler.getDelayInMillis(request(AD_ACCOUNT_URL))).isZero();
+  }
+
+  @Test
+  void adAccountUsage_keyedByAdAccount() {
+    DebugHeaderInfo info = DebugHeaderInfo.DebugHeaderInfoFactory.create().setVersion(Version.LATEST)
+      .setAdAccountUsage("{\"acc_id_util_pct\":100}").build();
+    throttler.update(request(AD_ACCOUNT_URL), response(info));
+
+    assertThat(throttler.getDelayInMillis(request(AD_ACCOUNT_URL))).isPositive();
+    assertThat(throttler.getDelayInMillis(request("https://graph.facebook.com/v18.0/act_456/insights"))).isZero();
+  }
+
+  @Test
+  void businessUseCaseUsage_regainTime() {
+    DebugHeaderInfo info = DebugHeaderInfo.DebugHeaderInfoFactory.create().setVersion(Version.LATEST)
+      .setBusinessUseCaseUsage("{\"123\":[{\"type\":\"ads_insights\",\"call_count\":100,\"total_cputime\":20,"
+          + "\"total_time\":30,\"estimated_time_to_regain_access\":5}]}")
+      .build();
+    throttler.update(request(AD_ACCOUNT_URL), response(info));
+
+    assertThat(throttler.getDelayInMillis(request(AD_ACCOUNT_URL))).isEqualTo(TimeUnit.MINUTES.toMillis(5));
+    assertThat(throttler.getDelayInMillis(request("https://graph.facebook.com/v18.0/123/campaigns")))
+      .isEqualTo(TimeUnit.MINUTES.toMillis(5));
+    assertThat(throttler.getDelayInMillis(request("https://graph.facebook.com/v18.0/me"))).isZero();
+  }
+
+  @Test
+  void pageUsage_keyedByAccessToken() {
+    throttler.update(request(AD_ACCOUNT_URL), response(pageUsage(100)));
+
+    assertThat(throttler.getDelayInMillis(request(AD_ACCOUNT_URL))).isPositive();
+    assertThat(throttler.getDelayInMillis(new WebRequestor.Request(AD_ACCOUNT_URL, "token"))).isPositive();
+    assertThat(throttler.getDelayInMillis(new WebRequestor.Request(AD_ACCOUNT_URL, null, "access_token=other")))
+      .isZero();
+  }
+
+  @Test
+  void usageExpiresAfterWindow() {
+    throttler.update(request(AD_ACCOUNT_URL), response(appUsage(90)));
+    assertThat(throttler.getTrackedKeyCount()).isEqualTo(1);
+
+    clock.advance(TimeUnit.HOURS.toMillis(1));
+    assertThat(throttler.getDelayInMillis(request(AD_ACCOUNT_URL))).isZero();
+    assertThat(throttler.getTrackedKeyCount()).isZero();
+  }
+
+  @Test
+  void trackedKeysAreBounded() {
+    for (int i = 0; i <= UsageHeaderThrottler.MAX_TRACKED_KEYS; i++) {
+      throttler.update(new WebRequestor.Request(AD_ACCOUNT_URL, null, "access_token=token" + i), response(pageUsage(10)));
+    }
+    assertThat(throttler.getTrackedKeyCount()).isEqualTo(UsageHeaderThrottler.MAX_TRACKED_KEYS);
+  }
+
+  @Test
+  void objectId() {
+    assertThat(UsageHeaderThrottler.getObjectId(AD_ACCOUNT_URL)).isEqualTo("act_123");
+    assertThat(UsageHeaderThrottler.getObjectId("https://graph.facebook.com/me/feed?limit=5")).isEqualTo("me");
+    assertThat(UsageHeaderThrottler.getObjectId("https://graph.facebook.com/v18.0/")).isNull();
+  }
+
+  @Test
+  void throttlingWebRequestor_updatesThrottler() throws IOException {
+    WebRequestor delegate = mock(WebRequestor.class);
+    WebRequestor.Response response = response(appUsage(100));
+    when(delegate.executeGet(any(WebRequestor.Request.class))).thenReturn(response);
+
+    ThrottlingWebRequestor webRequestor = new ThrottlingWebRequestor(delegate, throttler);
+    assertThat(webRequestor.executeGet(request(AD_ACCOUNT_URL))).isSameAs(response);
+    assertThat(throttler.getDelayInMillis(request(AD_ACCOUNT_URL))).isPositive();
+  }
+
+  @Test
+  void throttlingWebRequestor_schedulesDelayedAsyncRequest() {
+    WebRequestor delegate = mock(WebRequestor.class);
+    WebRequestor.Response response = response(appUsage(10));
+    when(delegate.executeGetAsync(any(WebRequestor.Request.class)))
+      .thenReturn(CompletableFuture.completedFuture(response));
+    ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+    throttler.update(request(AD_ACCOUNT_URL), response(appUsage(100)));
+
+    ThrottlingWebRequestor webRequestor = new ThrottlingWebRequestor(delegate, throttler, scheduler);
+    CompletableFuture<WebRequestor.Response> future = webRequestor.executeGetAsync(request(AD_ACCOUNT_URL));
+
+    ArgumentCaptor<Runnable> dispatch = ArgumentCaptor.forClass(Runnable.class);
+    verify(scheduler).schedule(dispatch.capture(), eq(throttler.getDefaultPauseInMillis()),
+      eq(TimeUnit.MILLISECONDS));
+    verify(delegate, never()).executeGetAsync(any(WebRequestor.Request.class));
+    assertThat(future).isNotDone();
+
+    dispatch.getValue().run();
+    assertThat(future).isCompletedWithValue(response);
+    assertThat(throttler.getDelayInMillis(request(AD_ACCOUNT_URL))).isZero();
+  }
+
+  private static WebRequestor.Request request(String url) {
+    return new WebRequestor.Request(url, null, "access_token=token");
+  }
+
+  private static DebugHeaderInfo appUsage(int percentage) {
+    return DebugHeaderInfo.DebugHeaderInfoFactory.create().setVersion(Version.LATEST)
+      .setAppUsage("{\"call_count\":" + percentage + ",\"total_cputime\":1,\"total_time\":1}").build();
+  }
+
+  private static DebugHeaderInfo pageUsage(int percentage) {
+    return DebugHeaderInfo.DebugHeaderInfoFactory.create().setVersion(Version.LATEST)
+      .setPageUsage("{\"call_count\":" + percentage + ",\"total_cputime\":1,\"total_time\":1}").build();
+  }
+
+  private static WebRequestor.Response response(DebugHeaderInfo info) {
+    WebRequestor.Response response = new WebRequestor.Response(200, "{}");
+    response.setDebugHeaderInfo(info);
+    return response;
+  }
+
+  private static class MutableClock extends Clock {
+
+    private long millis = 1_000_000L;
+
+    void advance(long delta) {
+      millis += delta;
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return Instant.ofEpochMilli(millis);
+    }
+  }
+}
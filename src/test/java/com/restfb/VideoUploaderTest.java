@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2010-2025 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.restfb.exception.FacebookNetworkException;
+import com.restfb.exception.FacebookResponseContentException;
+
+class VideoUploaderTest {
+
+  private static final int FILE_SIZE = 2500;
+
+  private static final int CHUNK_SIZE = 1000;
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void upload() throws Exception {
+    UploadProtocolWebRequestor webRequestor = new UploadProtocolWebRequestor();
+    VideoUploader uploader = new VideoUploader(client(webRequestor));
+
+    String videoId = uploader.upload("123/videos", createVideo(), Parameter.with("title", "My video"));
+
+    assertThat(videoId).isEqualTo("987");
+    assertThat(webRequestor.phases).containsExactly("start", "transfer", "transfer", "transfer", "finish");
+    assertThat(webRequestor.transferredOffsets).containsExactly(0L, 1000L, 2000L);
+    assertThat(webRequestor.finishParameters).contains("title=My+video").contains("upload_session_id=555");
+  }
+
+  @Test
+  void upload_resumeAfterFailure() throws Exception {
+    Path video = createVideo();
+    UploadProtocolWebRequestor webRequestor = new UploadProtocolWebRequestor();
+    webRequestor.failAtOffset = 1000L;
+    VideoUploader uploader = new VideoUploader(client(webRequestor));
+    uploader.setSessionStore(new FileVideoUploadSessionStore(tempDir.resolve("sessions")));
+
+    assertThrows(FacebookNetworkException.class, () -> uploader.upload("123/videos", video));
+
+    webRequestor.failAtOffset = null;
+    VideoUploader restartedUploader = new VideoUploader(client(webRequestor));
+    restartedUploader.setSessionStore(new FileVideoUploadSessionStore(tempDir.resolve("sessions")));
+    assertThat(restartedUploader.upload("123/videos", video)).isEqualTo("987");
+
+    assertThat(webRequestor.phases).containsExactly("start", "transfer", "transfer", "transfer", "transfer",
+      "finish");
+    assertThat(webRequestor.transferredOffsets).containsExactly(0L, 1000L, 1000L, 2000L);
+  }
+
+  @Test
+  void upload_restartAfterMismatchedOffset() throws Exception {
+    Path video = createVideo();
+    UploadProtocolWebRequestor webRequestor = new UploadProtocolWebRequestor();
+    webRequestor.failAtOffset = 1000L;
+    VideoUploadSessionStore sessionStore = new FileVideoUploadSessionStore(tempDir.resolve("sessions"));
+    VideoUploader uploader = new VideoUploader(client(webRequestor));
+    uploader.setSessionStore(sessionStore);
+
+    assertThrows(FacebookNetworkException.class, () -> uploader.upload("123/videos", video));
+
+    webRequestor.failAtOffset = null;
+    webRequestor.mismatchAtOffset = 1000L;
+    assertThat(uploader.upload("123/videos", video)).isEqualTo("987");
+
+    assertThat(webRequestor.phases).containsExactly("start", "transfer", "transfer", "transfer", "start", "transfer",
+      "transfer", "transfer", "finish");
+    assertThat(webRequestor.transferredOffsets).containsExactly(0L, 1000L, 1000L, 0L, 1000L, 2000L);
+    assertThat(tempDir.resolve("sessions")).isEmptyDirectory();
+  }
+
+  @Test
+  void upload_invalidOffsets() throws Exception {
+    UploadProtocolWebRequestor webRequestor = new UploadProtocolWebRequestor();
+    webRequestor.repeatChunk = true;
+    VideoUploader uploader = new VideoUploader(client(webRequestor));
+    Path video = createVideo();
+
+    assertThrows(FacebookResponseContentException.class, () -> uploader.upload("123/videos", video));
+  }
+
+  private Path createVideo() throws Exception {
+    return Files.write(tempDir.resolve("video.mp4"), new byte[FILE_SIZE]);
+  }
+
+  private static DefaultFacebookClient client(WebRequestor webRequestor) {
+    return new DefaultFacebookClient("token", webRequestor, new DefaultJsonMapper(), Version.LATEST);
+  }
+
+  /**
+   * Simulates the start, transfer and finish phases, Facebook asks for chunks of 1000 bytes.
+   */
+  private static class UploadProtocolWebRequestor extends FakeWebRequestor {
+
+    private final List<String> phases = new ArrayList<>();
+
+    private final List<Long> transferredOffsets = new ArrayList<>();
+
+    private String finishParameters;
+
+    private Long failAtOffset;
+
+    private Long mismatchAtOffset;
+
+    private boolean repeatChunk;
+
+    @Override
+    public Response executePost(Request request) {
+      String parameters = request.getParameters();
+      if (parameters.contains("upload_phase=start")) {
+        phases.add("start");
+        return new Response(200, "{\"upload_session_id\":\"555\",\"video_id\":\"987\",\"start_offset\":\"0\","
+            + "\"end_offset\":\"" + CHUNK_SIZE + "\"}");
+      }
+
+      if (parameters.contains("upload_phase=transfer")) {
+        phases.add("transfer");
+        long startOffset = Long.parseLong(parameters.replaceAll(".*start_offset=(\\d+).*", "$1"));
+        transferredOffsets.add(startOffset);
+        if (failAtOffset != null && failAtOffset == startOffset) {
+          return new Response(503, "");
+        }
+        assertThat(request.getBinaryAttachments().get(0).getContentLength())
+          .isEqualTo(Math.min(CHUNK_SIZE, FILE_SIZE - startOffset));
+        boolean mismatch = mismatchAtOffset != null && mismatchAtOffset == startOffset;
+        if (mismatch) {
+          // the server lost the saved session state and doesn't accept the chunk
+          mismatchAtOffset = null;
+        }
+        long nextStart = repeatChunk || mismatch ? startOffset : Math.min(FILE_SIZE, startOffset + CHUNK_SIZE);
+        long nextEnd = Math.min(FILE_SIZE, nextStart + CHUNK_SIZE);
+        return new Response(200, "{\"start_offset\":\"" + nextStart + "\",\"end_offset\":\"" + nextEnd + "\"}");
+      }
+
+      phases.add("finish");
+      finishParameters = parameters;
+      return new Response(200, "{\"success\":true}");
+    }
+  }
+}
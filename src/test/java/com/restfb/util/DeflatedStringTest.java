@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2010-2025 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class DeflatedStringTest {
+
+  @Test
+  void roundTrip() {
+    String json = "{\"data\":[{\"id\":\"1\",\"name\":\"Müller 😀\"}],\"paging\":{\"cursors\":{}}}";
+    DeflatedString deflated = DeflatedString.of(json);
+
+    assertThat(deflated.toString()).isEqualTo(json);
+    assertThat(deflated.getUtf8Size()).isEqualTo(json.getBytes(StringUtils.ENCODING_CHARSET).length);
+  }
+
+  @Test
+  void emptyString() {
+    assertThat(DeflatedString.of("").toString()).isEmpty();
+  }
+
+  @Test
+  void graphJsonShrinks() {
+    StringBuilder json = new StringBuilder("{\"data\":[");
+    for (int i = 0; i < 500; i++) {
+      json.append("{\"id\":\"").append(i).append("\",\"name\":\"Page ").append(i)
+        .append("\",\"created_time\":\"2024-01-01T00:00:00+0000\"},");
+    }
+    json.append("{}]}");
+
+    DeflatedString deflated = DeflatedString.of(json.toString());
+
+    assertThat(deflated.toString()).isEqualTo(json.toString());
+    assertThat(deflated.getDeflatedSize()).isLessThan(json.length() / 5);
+  }
+
+  @Test
+  void equalsAndHashCode() {
+    assertThat(DeflatedString.of("{\"id\":\"1\"}")).isEqualTo(DeflatedString.of("{\"id\":\"1\"}"))
+      .hasSameHashCodeAs(DeflatedString.of("{\"id\":\"1\"}")).isNotEqualTo(DeflatedString.of("{\"id\":\"2\"}"));
+  }
+}
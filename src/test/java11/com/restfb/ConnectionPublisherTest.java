@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2010-2025 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+import org.junit.jupiter.api.Test;
+
+import com.restfb.exception.FacebookNetworkException;
+import com.restfb.types.FacebookType;
+
+class ConnectionPublisherTest {
+
+  private final PagingWebRequestor webRequestor = new PagingWebRequestor(5);
+
+  private final DefaultFacebookClient facebookClient =
+      new DefaultFacebookClient("token", webRequestor, new DefaultJsonMapper(), Version.VERSION_15_0);
+
+  private final RecordingSubscriber subscriber = new RecordingSubscriber();
+
+  @Test
+  void fetchPagesOnDemand() {
+    publisher(0).subscribe(subscriber);
+    assertThat(webRequestor.getFetchedPages()).containsExactly(1);
+
+    subscriber.subscription.request(1);
+    assertThat(subscriber.ids).containsExactly("1");
+    assertThat(webRequestor.getFetchedPages()).containsExactly(1);
+
+    subscriber.subscription.request(1);
+    assertThat(subscriber.ids).containsExactly("1", "2");
+    assertThat(webRequestor.getFetchedPages()).containsExactly(1, 2);
+
+    subscriber.subscription.request(Long.MAX_VALUE);
+    assertThat(subscriber.ids).containsExactly("1", "2", "3", "4", "5");
+    assertThat(subscriber.completed).isTrue();
+    assertThat(subscriber.error).isNull();
+  }
+
+  @Test
+  void completeWithoutFurtherDemand() {
+    publisher(0).subscribe(subscriber);
+
+    subscriber.subscription.request(5);
+
+    assertThat(subscriber.ids).hasSize(5);
+    assertThat(subscriber.completed).isTrue();
+  }
+
+  @Test
+  void stopWhenCancelled() {
+    publisher(0).subscribe(subscriber);
+
+    subscriber.subscription.request(2);
+    subscriber.subscription.cancel();
+    subscriber.subscription.request(5);
+
+    assertThat(subscriber.ids).containsExactly("1", "2");
+    assertThat(webRequestor.getFetchedPages()).containsExactly(1, 2);
+    assertThat(subscriber.completed).isFalse();
+  }
+
+  @Test
+  void prefetchPages() {
+    publisher(2).subscribe(subscriber);
+
+    subscriber.subscription.request(1);
+
+    assertThat(subscriber.ids).containsExactly("1");
+    assertThat(webRequestor.getFetchedPages()).containsExactly(1, 2, 3);
+  }
+
+  @Test
+  void signalFetchError() {
+    webRequestor.setFailingPage(3);
+    publisher(0).subscribe(subscriber);
+
+    subscriber.subscription.request(10);
+
+    assertThat(subscriber.ids).containsExactly("1", "2");
+    assertThat(subscriber.error).isInstanceOf(FacebookNetworkException.class);
+    assertThat(subscriber.completed).isFalse();
+  }
+
+  @Test
+  void rejectInvalidRequest() {
+    publisher(0).subscribe(subscriber);
+
+    subscriber.subscription.request(0);
+
+    assertThat(subscriber.error).isInstanceOf(IllegalArgumentException.class);
+    assertThat(subscriber.ids).isEmpty();
+  }
+
+  private ConnectionPublisher<FacebookType> publisher(int prefetchDepth) {
+    return new ConnectionPublisher<>(facebookClient.fetchConnection("page1", FacebookType.class), Runnable::run,
+      prefetchDepth);
+  }
+
+  private static class RecordingSubscriber implements Flow.Subscriber<FacebookType> {
+
+    private final List<String> ids = new ArrayList<>();
+
+    private Flow.Subscription subscription;
+
+    private boolean completed;
+
+    private Throwable error;
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      this.subscription = subscription;
+    }
+
+    @Override
+    public void onNext(FacebookType item) {
+      ids.add(item.getId());
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      error = throwable;
+    }
+
+    @Override
+    public void onComplete() {
+      completed = true;
+    }
+  }
+}
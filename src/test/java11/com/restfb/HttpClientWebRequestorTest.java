@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2010-2025 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.restfb.types.FacebookReelAttachment;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+class HttpClientWebRequestorTest {
+
+  private HttpServer server;
+
+  private String baseUrl;
+
+  private final AtomicReference<String> receivedMethod = new AtomicReference<>();
+
+  private final AtomicReference<String> receivedBody = new AtomicReference<>();
+
+  private final AtomicReference<HttpExchange> receivedExchange = new AtomicReference<>();
+
+  private final HttpClientWebRequestor requestor = new HttpClientWebRequestor();
+
+  @BeforeEach
+  void startServer() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/", this::handle);
+    server.start();
+    baseUrl = "http://localhost:" + server.getAddress().getPort();
+  }
+
+  @AfterEach
+  void stopServer() {
+    server.stop(0);
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    receivedMethod.set(exchange.getRequestMethod());
+    receivedBody.set(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+    receivedExchange.set(exchange);
+    byte[] response = "{\"id\":\"12345\"}".getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().add("x-fb-trace-id", "trace");
+    exchange.getResponseHeaders().add("facebook-api-version", "v22.0");
+    exchange.getResponseHeaders().add("x-app-usage", "{\"call_count\":10,\"total_time\":20,\"total_cputime\":30}");
+    exchange.sendResponseHeaders(200, response.length);
+    try (OutputStream outputStream = exchange.getResponseBody()) {
+      outputStream.write(response);
+    }
+  }
+
+  @Test
+  void checkGet() throws IOException {
+    WebRequestor.Response response =
+        requestor.executeGet(new WebRequestor.Request(baseUrl + "/me", "accesstoken", "fields=id"));
+
+    assertThat(response.getStatusCode()).isEqualTo(200);
+    assertThat(response.getBody()).isEqualTo("{\"id\":\"12345\"}");
+    assertThat(receivedMethod.get()).isEqualTo("GET");
+    assertThat(receivedExchange.get().getRequestURI().getQuery()).isEqualTo("fields=id");
+    assertThat(receivedExchange.get().getRequestHeaders().getFirst("Authorization")).isEqualTo("Bearer accesstoken");
+    assertThat(requestor.getDebugHeaderInfo().getTraceId()).isEqualTo("trace");
+    assertThat(requestor.getDebugHeaderInfo().getUsedVersion()).isEqualTo(Version.VERSION_22_0);
+    assertThat(requestor.getDebugHeaderInfo().getAppUsage().getCallCount()).isEqualTo(10);
+  }
+
+  @Test
+  void checkGetAsync() {
+    WebRequestor.Response response =
+        requestor.executeGetAsync(new WebRequestor.Request(baseUrl + "/me", null, "fields=id")).join();
+
+    assertThat(response.getStatusCode()).isEqualTo(200);
+    assertThat(response.getBody()).isEqualTo("{\"id\":\"12345\"}");
+    assertThat(receivedMethod.get()).isEqualTo("GET");
+    assertThat(receivedExchange.get().getRequestURI().getQuery()).isEqualTo("fields=id");
+  }
+
+  @Test
+  void checkPostAsync_WithBinary() {
+    BinaryAttachment attachment =
+        BinaryAttachment.with("example.png", "binarydata".getBytes(StandardCharsets.UTF_8), "image/png");
+    WebRequestor.Request request =
+        new WebRequestor.Request(baseUrl + "/me/photos", null, "message=hello", Collections.singletonList(attachment));
+    WebRequestor.Response response = requestor.executePostAsync(request).join();
+
+    assertThat(response.getStatusCode()).isEqualTo(200);
+    assertThat(receivedBody.get()).contains("binarydata").endsWith("--" + MultipartFormData.BOUNDARY + "--\r\n");
+  }
+
+  @Test
+  void checkDelete() throws IOException {
+    WebRequestor.Response response = requestor.executeDelete(new WebRequestor.Request(baseUrl + "/12345", null));
+
+    assertThat(response.getStatusCode()).isEqualTo(200);
+    assertThat(receivedMethod.get()).isEqualTo("DELETE");
+    assertThat(receivedExchange.get().getRequestHeaders().containsKey("Authorization")).isFalse();
+  }
+
+  @Test
+  void checkPost_NoBinary() throws IOException {
+    WebRequestor.Response response =
+        requestor.executePost(new WebRequestor.Request(baseUrl + "/me/feed", null, "message=hello"));
+
+    assertThat(response.getStatusCode()).isEqualTo(200);
+    assertThat(receivedMethod.get()).isEqualTo("POST");
+    assertThat(receivedBody.get()).isEqualTo("message=hello");
+    assertThat(receivedExchange.get().getRequestHeaders().getFirst("Content-Type"))
+      .isEqualTo("application/x-www-form-urlencoded");
+  }
+
+  @Test
+  void checkPost_WithBinary() throws IOException {
+    BinaryAttachment attachment =
+        BinaryAttachment.with("example.png", "binarydata".getBytes(StandardCharsets.UTF_8), "image/png");
+    WebRequestor.Request request =
+        new WebRequestor.Request(baseUrl + "/me/photos", null, "message=hello", Collections.singletonList(attachment));
+    WebRequestor.Response response = requestor.executePost(request);
+
+    assertThat(response.getStatusCode()).isEqualTo(200);
+    assertThat(receivedExchange.get().getRequestURI().getQuery()).isEqualTo("message=hello");
+    assertThat(receivedExchange.get().getRequestHeaders().getFirst("Content-Type"))
+      .isEqualTo(MultipartFormData.CONTENT_TYPE);
+    assertThat(receivedBody.get()).contains("Content-Disposition: form-data; name=\"example\"; filename=\"example.png\"")
+      .contains("Content-Type: image/png").contains("binarydata")
+      .endsWith("--" + MultipartFormData.BOUNDARY + "--\r\n");
+  }
+
+  @Test
+  void checkPost_WithReel_Binary() throws IOException {
+    FacebookReelAttachment reel = FacebookReelAttachment.withByteContent("reeldata".getBytes(StandardCharsets.UTF_8));
+    WebRequestor.Request request =
+        new WebRequestor.Request(baseUrl + "/reel", "token", "", Collections.singletonList(reel));
+    requestor.executePost(request);
+
+    assertThat(receivedBody.get()).isEqualTo("reeldata");
+    assertThat(receivedExchange.get().getRequestHeaders().getFirst("Authorization")).isEqualTo("OAuth token");
+    assertThat(receivedExchange.get().getRequestHeaders().getFirst("offset")).isEqualTo("0");
+    assertThat(receivedExchange.get().getRequestHeaders().getFirst("file_size")).isEqualTo("8");
+  }
+}